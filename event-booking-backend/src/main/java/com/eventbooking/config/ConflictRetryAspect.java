@@ -0,0 +1,72 @@
+package com.eventbooking.config;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.service.BookingConflictMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Runs RetryOnConflict methods again when they lose an optimistic locking race, with jittered exponential backoff
+// Ordered outside the transaction interceptor, so each attempt is a fresh transaction
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConflictRetryAspect {
+
+    @Value("${booking.optimistic.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${booking.optimistic.backoff-ms:5}")
+    private long backoffMillis = 5;
+
+    @Value("${booking.optimistic.max-backoff-ms:100}")
+    private long maxBackoffMillis = 100;
+
+    @Autowired
+    private BookingConflictMetrics conflictMetrics;
+
+    @Around("@annotation(com.eventbooking.service.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Inside an outer transaction a retry would reuse a rollback-only transaction, let the outer caller handle it
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                boolean retry = attempt < maxAttempts;
+                conflictMetrics.recordConflict(eventIdOf(e), retry);
+                if (!retry) {
+                    throw new RuntimeException("Tickets for this event are in high demand, please try again", e);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static Long eventIdOf(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException conflict
+                && Event.class.getName().equals(conflict.getPersistentClassName())
+                && conflict.getIdentifier() instanceof Long eventId) {
+            return eventId;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.eventbooking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+@Configuration
+public class ExecutionConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int maxRequestThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maxConnections;
+
+    // Report which execution mode is actually in effect
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportExecutionMode() {
+        int javaVersion = Runtime.version().feature();
+        if (virtualThreadsEnabled && javaVersion < 21) {
+            // Spring Boot silently falls back to platform threads below Java 21
+            System.out.println("⚠️ Virtual threads requested but Java " + javaVersion
+                    + " does not support them, serving requests on platform threads");
+        } else if (virtualThreadsEnabled) {
+            System.out.println("🧵 Execution mode: VIRTUAL (database concurrency limited to "
+                    + maxConnections + " connections, run with -Djdk.tracePinnedThreads=short to report pinning)");
+        } else {
+            System.out.println("🧵 Execution mode: PLATFORM (" + maxRequestThreads + " request threads, "
+                    + maxConnections + " connections)");
+        }
+    }
+}
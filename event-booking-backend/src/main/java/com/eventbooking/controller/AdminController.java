@@ -1,7 +1,5 @@
 package com.eventbooking.controller;
 
-import com.eventbooking.model.Review;
-import com.eventbooking.model.Booking;
 import com.eventbooking.model.BookingStatus;
 import com.eventbooking.model.Role;
 import com.eventbooking.service.*;
@@ -55,51 +53,37 @@ public class AdminController {
         // Event statistics
         Map<String, Object> eventStats = new HashMap<>();
         eventStats.put("totalEvents", eventService.getTotalEventsCount());
-        eventStats.put("upcomingEvents", eventService.getUpcomingEvents().size());
-        eventStats.put("eventsWithAvailableTickets", eventService.getEventsWithAvailableTickets().size());
+        eventStats.put("upcomingEvents", eventService.getUpcomingEventsCount());
+        eventStats.put("eventsWithAvailableTickets", eventService.getEventsWithAvailableTicketsCount());
         dashboardData.put("eventStats", eventStats);
 
         // Booking statistics
         Map<String, Object> bookingStats = new HashMap<>();
-        List<Booking> allBookings = bookingService.getAllBookings();
-        bookingStats.put("totalBookings", allBookings.size());
-        bookingStats.put("confirmedBookings", allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED).count());
-        bookingStats.put("cancelledBookings", allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CANCELLED).count());
-        bookingStats.put("completedBookings", allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.COMPLETED).count());
+        Map<BookingStatus, Long> bookingCounts = bookingService.getBookingCountsByStatus();
+        bookingStats.put("totalBookings", bookingCounts.values().stream().mapToLong(Long::longValue).sum());
+        bookingStats.put("confirmedBookings", bookingCounts.get(BookingStatus.CONFIRMED));
+        bookingStats.put("cancelledBookings", bookingCounts.get(BookingStatus.CANCELLED));
+        bookingStats.put("completedBookings", bookingCounts.get(BookingStatus.COMPLETED));
         bookingStats.put("totalRevenue", bookingService.getTotalRevenue());
         dashboardData.put("bookingStats", bookingStats);
 
         // Review statistics
         Map<String, Object> reviewStats = new HashMap<>();
-        List<Review> allReviews = reviewService.getAllReviews();
-        reviewStats.put("totalReviews", allReviews.size());
-
-        // Calculate overall average rating
-        double totalRating = allReviews.stream()
-                .mapToInt(r -> r.getRating())
-                .sum();
-        double overallAverage = allReviews.isEmpty() ? 0.0 : totalRating / allReviews.size();
-        reviewStats.put("overallAverageRating", Math.round(overallAverage * 10.0) / 10.0);
+        ReviewService.RatingDistribution ratings = reviewService.getOverallRatingDistribution();
+        reviewStats.put("totalReviews", ratings.getTotalReviews());
+        reviewStats.put("overallAverageRating", ratings.getAverageRating());
 
         // High rated reviews count (4+ stars)
-        long highRatedCount = allReviews.stream()
-                .filter(r -> r.getRating() >= 4)
-                .count();
-        reviewStats.put("highRatedReviews", highRatedCount);
+        reviewStats.put("highRatedReviews", (long) ratings.getCountForRating(4) + ratings.getCountForRating(5));
         dashboardData.put("reviewStats", reviewStats);
 
         // Recent activity - Convert to DTOs
-        List<BookingDTO> recentBookingDTOs = bookingService.getRecentBookings().stream()
-                .limit(5)
+        List<BookingDTO> recentBookingDTOs = bookingService.getRecentBookings(5).stream()
                 .map(dtoMapper::toBookingDTO)
                 .collect(Collectors.toList());
         dashboardData.put("recentBookings", recentBookingDTOs);
 
-        List<ReviewDTO> recentReviewDTOs = reviewService.getRecentReviews().stream()
-                .limit(5)
+        List<ReviewDTO> recentReviewDTOs = reviewService.getRecentReviews(5).stream()
                 .map(dtoMapper::toReviewDTO)
                 .collect(Collectors.toList());
         dashboardData.put("recentReviews", recentReviewDTOs);
@@ -237,30 +221,21 @@ public class AdminController {
     public ResponseEntity<?> getBookingAnalytics() {
         Map<String, Object> analytics = new HashMap<>();
 
-        List<com.eventbooking.model.Booking> allBookings = bookingService.getAllBookings();
-
-        // Booking status distribution
+        // Booking status distribution (statuses with bookings only)
         Map<String, Long> bookingsByStatus = new HashMap<>();
-        allBookings.forEach(booking -> {
-            String status = booking.getStatus().toString();
-            bookingsByStatus.put(status, bookingsByStatus.getOrDefault(status, 0L) + 1);
+        bookingService.getBookingCountsByStatus().forEach((status, count) -> {
+            if (count > 0) {
+                bookingsByStatus.put(status.toString(), count);
+            }
         });
         analytics.put("bookingsByStatus", bookingsByStatus);
 
         // Average booking value
-        double avgBookingValue = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .mapToDouble(b -> b.getTotalAmount().doubleValue())
-                .average()
-                .orElse(0.0);
+        double avgBookingValue = bookingService.getAverageBookingValue();
         analytics.put("averageBookingValue", Math.round(avgBookingValue * 100.0) / 100.0);
 
         // Total tickets sold
-        int totalTicketsSold = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .mapToInt(b -> b.getTicketsBooked())
-                .sum();
-        analytics.put("totalTicketsSold", totalTicketsSold);
+        analytics.put("totalTicketsSold", bookingService.getTotalTicketsSold());
 
         return ResponseEntity.ok(analytics);
     }
@@ -270,16 +245,11 @@ public class AdminController {
     public ResponseEntity<?> getReviewAnalytics() {
         Map<String, Object> analytics = new HashMap<>();
 
-        List<com.eventbooking.model.Review> allReviews = reviewService.getAllReviews();
-
         // Rating distribution
+        ReviewService.RatingDistribution ratings = reviewService.getOverallRatingDistribution();
         Map<Integer, Long> ratingDistribution = new HashMap<>();
         for (int i = 1; i <= 5; i++) {
-            final int rating = i; // Make it effectively final
-            long count = allReviews.stream()
-                    .filter(r -> r.getRating() == rating)
-                    .count();
-            ratingDistribution.put(i, count);
+            ratingDistribution.put(i, (long) ratings.getCountForRating(i));
         }
         analytics.put("ratingDistribution", ratingDistribution);
 
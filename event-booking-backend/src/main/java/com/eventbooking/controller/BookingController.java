@@ -2,19 +2,44 @@ package com.eventbooking.controller;
 
 import com.eventbooking.model.Booking;
 import com.eventbooking.model.BookingStatus;
+import com.eventbooking.model.TicketHold;
 import com.eventbooking.model.User;
+import com.eventbooking.service.BookingConflictMetrics;
+import com.eventbooking.service.BookingPipelineService;
 import com.eventbooking.service.BookingService;
+import com.eventbooking.service.CheckInService;
+import com.eventbooking.service.EventService;
+import com.eventbooking.service.IdempotencyService;
+import com.eventbooking.service.KeysetPage;
+import com.eventbooking.service.OfflineCheckInService;
+import com.eventbooking.service.QrCodeService;
+import com.eventbooking.service.TicketHoldService;
+import com.eventbooking.service.TicketInventoryService;
 import com.eventbooking.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,36 +47,197 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class BookingController {
 
+    // Version a scanner passes as ?since= to get the next delta
+    private static final String SNAPSHOT_VERSION_HEADER = "X-Snapshot-Version";
+
     @Autowired
     private BookingService bookingService;
 
     @Autowired
     private UserService userService;
 
-    // Create new booking
+    @Autowired
+    private TicketHoldService ticketHoldService;
+
+    @Autowired
+    private BookingPipelineService bookingPipelineService;
+
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
+
+    @Autowired
+    private BookingConflictMetrics bookingConflictMetrics;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private QrCodeService qrCodeService;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private OfflineCheckInService offlineCheckInService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Create new booking (retries with the same Idempotency-Key get the first response back)
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestBody Map<String, Object> bookingRequest) {
+    public CompletableFuture<ResponseEntity<?>> createBooking(@RequestBody Map<String, Object> bookingRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return submitBooking(bookingRequest);
+        }
+
+        try {
+            // Only successful responses are kept, a failed booking created nothing and may be retried
+            return idempotencyService.execute(idempotencyKey, new TreeMap<>(bookingRequest).toString(),
+                    () -> submitBooking(bookingRequest), response -> response.getStatusCode().is2xxSuccessful());
+        } catch (IdempotencyService.KeyReusedException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity().body(response));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<?>> submitBooking(Map<String, Object> bookingRequest) {
         try {
             Long userId = Long.valueOf(bookingRequest.get("userId").toString());
-            Long eventId = Long.valueOf(bookingRequest.get("eventId").toString());
-            Integer ticketsRequested = Integer.valueOf(bookingRequest.get("ticketsRequested").toString());
+            boolean fromHold = bookingRequest.get("holdId") != null;
+
+            // The pipeline loads the user itself, so this request thread never holds a connection while it waits
+            if (!fromHold && bookingPipelineService.isEnabled()) {
+                Long eventId = Long.valueOf(bookingRequest.get("eventId").toString());
+                Integer ticketsRequested = Integer.valueOf(bookingRequest.get("ticketsRequested").toString());
+                return createBookingThroughPipeline(userId, eventId, ticketsRequested);
+            }
 
             Optional<User> userOpt = userService.findById(userId);
             if (!userOpt.isPresent()) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
                 response.put("message", "User not found");
-                return ResponseEntity.badRequest().body(response);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
             }
 
             User user = userOpt.get();
-            Booking booking = bookingService.createBooking(user, eventId, ticketsRequested);
+            Booking booking;
+            if (fromHold) {
+                // Confirm tickets held during checkout
+                booking = bookingService.createBookingFromHold(user, bookingRequest.get("holdId").toString());
+            } else {
+                Long eventId = Long.valueOf(bookingRequest.get("eventId").toString());
+                Integer ticketsRequested = Integer.valueOf(bookingRequest.get("ticketsRequested").toString());
+                booking = bookingService.createBooking(user, eventId, ticketsRequested);
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Booking created successfully");
             response.put("booking", booking);
-            response.put("qrCodeImage", bookingService.generateQRCodeImage(booking.getQrCode()));
+            response.put("qrCodeUrl", qrCodeService.imageUrl(booking.getId()));
+            qrCodeService.prerender(booking.getBookingReference(), booking.getQrCode());
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
+        }
+    }
+
+    // Queue a booking on the event's shard, rejecting with 429 when the shard is full
+    private CompletableFuture<ResponseEntity<?>> createBookingThroughPipeline(Long userId, Long eventId, Integer ticketsRequested) {
+        try {
+            return bookingPipelineService.submit(userId, eventId, ticketsRequested)
+                    .<ResponseEntity<?>>thenApplyAsync(booking -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("success", true);
+                        response.put("message", "Booking created successfully");
+                        response.put("booking", booking);
+                        response.put("qrCodeUrl", qrCodeService.imageUrl(booking.getId()));
+                        qrCodeService.prerender(booking.getBookingReference(), booking.getQrCode());
+                        return ResponseEntity.ok(response);
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("success", false);
+                        response.put("message", cause.getMessage());
+                        return ResponseEntity.badRequest().body(response);
+                    });
+        } catch (BookingPipelineService.QueueFullException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response));
+        }
+    }
+
+    // Create many bookings at once (group and corporate orders)
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(@RequestBody Map<String, Object> batchRequest) {
+        try {
+            Object linesObj = batchRequest.get("bookings");
+            if (!(linesObj instanceof List) || ((List<?>) linesObj).isEmpty()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "bookings must be a non-empty list");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            List<BookingService.BookingLine> lines = new ArrayList<>();
+            for (Object lineObj : (List<?>) linesObj) {
+                Map<?, ?> line = (Map<?, ?>) lineObj;
+                lines.add(new BookingService.BookingLine(
+                        Long.valueOf(line.get("userId").toString()),
+                        Long.valueOf(line.get("eventId").toString()),
+                        Integer.valueOf(line.get("ticketsRequested").toString())));
+            }
+
+            List<BookingService.BookingLineResult> results = bookingService.createBookings(lines);
+
+            List<Map<String, Object>> lineResponses = new ArrayList<>();
+            int booked = 0;
+            for (int i = 0; i < results.size(); i++) {
+                BookingService.BookingLineResult result = results.get(i);
+                Map<String, Object> lineResponse = new HashMap<>();
+                lineResponse.put("index", i);
+                lineResponse.put("success", result.isSuccess());
+                lineResponse.put("message", result.getMessage());
+                if (result.isSuccess()) {
+                    Booking booking = result.getBooking();
+                    Map<String, Object> bookingMap = new HashMap<>();
+                    bookingMap.put("id", booking.getId());
+                    bookingMap.put("userId", booking.getUser().getId());
+                    bookingMap.put("eventId", booking.getEvent().getId());
+                    bookingMap.put("ticketsBooked", booking.getTicketsBooked());
+                    bookingMap.put("totalAmount", booking.getTotalAmount());
+                    bookingMap.put("qrCode", booking.getQrCode());
+                    bookingMap.put("bookingDate", booking.getBookingDate());
+                    bookingMap.put("status", booking.getStatus());
+                    bookingMap.put("bookingReference", booking.getBookingReference());
+                    lineResponse.put("booking", bookingMap);
+                    booked++;
+                }
+                lineResponses.add(lineResponse);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", booked > 0);
+            response.put("message", booked + " of " + results.size() + " bookings created");
+            response.put("results", lineResponses);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -61,56 +247,171 @@ public class BookingController {
         }
     }
 
-    // Get all bookings (Admin only)
-    // Replace your getAllBookings method with this:
-    @GetMapping
-    public ResponseEntity<?> getAllBookings() {
+    // Hold tickets during checkout
+    @PostMapping("/holds")
+    public ResponseEntity<?> createHold(@RequestBody Map<String, Object> holdRequest) {
         try {
-            List<Booking> bookings = bookingService.getAllBookings();
+            Long userId = Long.valueOf(holdRequest.get("userId").toString());
+            Long eventId = Long.valueOf(holdRequest.get("eventId").toString());
+            Integer ticketsRequested = Integer.valueOf(holdRequest.get("ticketsRequested").toString());
 
-            // Create simple response objects to avoid circular references
-            List<Map<String, Object>> bookingResponses = bookings.stream()
-                    .map(booking -> {
-                        Map<String, Object> bookingMap = new HashMap<>();
-                        bookingMap.put("id", booking.getId());
-                        bookingMap.put("ticketsBooked", booking.getTicketsBooked());
-                        bookingMap.put("totalAmount", booking.getTotalAmount());
-                        bookingMap.put("qrCode", booking.getQrCode());
-                        bookingMap.put("bookingDate", booking.getBookingDate());
-                        bookingMap.put("status", booking.getStatus());
-                        bookingMap.put("bookingReference", booking.getBookingReference());
+            Optional<User> userOpt = userService.findById(userId);
+            if (!userOpt.isPresent()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "User not found");
+                return ResponseEntity.badRequest().body(response);
+            }
 
-                        // Add event info without circular reference
-                        if (booking.getEvent() != null) {
-                            Map<String, Object> eventMap = new HashMap<>();
-                            eventMap.put("id", booking.getEvent().getId());
-                            eventMap.put("name", booking.getEvent().getName());
-                            eventMap.put("date", booking.getEvent().getDate());
-                            eventMap.put("time", booking.getEvent().getTime());
-                            eventMap.put("location", booking.getEvent().getLocation());
-                            bookingMap.put("event", eventMap);
-                        }
+            TicketHold hold = ticketHoldService.createHold(userOpt.get(), eventId, ticketsRequested);
 
-                        // Add user info without circular reference
-                        if (booking.getUser() != null) {
-                            Map<String, Object> userMap = new HashMap<>();
-                            userMap.put("id", booking.getUser().getId());
-                            userMap.put("name", booking.getUser().getName());
-                            userMap.put("email", booking.getUser().getEmail());
-                            bookingMap.put("user", userMap);
-                        }
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Tickets held successfully");
+            response.put("hold", hold);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 
-                        return bookingMap;
-                    })
-                    .collect(Collectors.toList());
+    // Get ticket hold
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<?> getHold(@PathVariable String holdId) {
+        Optional<TicketHold> holdOpt = ticketHoldService.getHold(holdId);
+        if (holdOpt.isPresent()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("hold", holdOpt.get());
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-            return ResponseEntity.ok(bookingResponses);
+    // Release ticket hold
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId) {
+        try {
+            TicketHold hold = ticketHoldService.releaseHold(holdId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Hold released successfully");
+            response.put("hold", hold);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
-            response.put("message", "Error loading bookings: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // List bookings (Admin only): with limit and/or after, one keyset page newest first and the cursor of the next,
+    // otherwise every booking streamed as a JSON array, or with format=ndjson as one JSON object per line
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getAllBookings(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, @RequestParam(defaultValue = "json") String format) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"json".equalsIgnoreCase(format)) {
+            return listError("format must be json or ndjson");
+        }
+        if (ndjson && (after != null || limit != null)) {
+            return listError("format=ndjson streams every booking, without after or limit");
+        }
+        if (ndjson || (after == null && limit == null)) {
+            return streamBookings(ndjson);
+        }
+
+        KeysetPage<Booking> page;
+        try {
+            page = bookingService.getBookingsPage(after, limit);
+        } catch (IllegalArgumentException e) {
+            return listError(e.getMessage());
         }
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("bookings");
+            for (Booking booking : page.getItems()) {
+                writeBooking(json, booking);
+            }
+            json.writeEndArray();
+            json.writeNumberField("count", page.getItems().size());
+            json.writeStringField("nextCursor", page.getNextCursor());
+            json.writeBooleanField("hasMore", page.hasMore());
+            json.writeEndObject();
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Every booking written out as it is read from the database, memory stays flat however many there are
+    private ResponseEntity<StreamingResponseBody> streamBookings(boolean ndjson) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.setRootValueSeparator(null);
+            if (!ndjson) {
+                json.writeStartArray();
+            }
+            bookingService.forEachBooking(booking -> {
+                try {
+                    writeBooking(json, booking);
+                    if (ndjson) {
+                        json.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                json.writeEndArray();
+            }
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // A booking with its event and user, without circular references
+    private void writeBooking(JsonGenerator json, Booking booking) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", booking.getId());
+        json.writeNumberField("ticketsBooked", booking.getTicketsBooked());
+        json.writeObjectField("totalAmount", booking.getTotalAmount());
+        json.writeStringField("qrCode", booking.getQrCode());
+        json.writeObjectField("bookingDate", booking.getBookingDate());
+        json.writeObjectField("status", booking.getStatus());
+        json.writeStringField("bookingReference", booking.getBookingReference());
+        if (booking.getEvent() != null) {
+            json.writeObjectFieldStart("event");
+            json.writeNumberField("id", booking.getEvent().getId());
+            json.writeStringField("name", booking.getEvent().getName());
+            json.writeObjectField("date", booking.getEvent().getDate());
+            json.writeObjectField("time", booking.getEvent().getTime());
+            json.writeStringField("location", booking.getEvent().getLocation());
+            json.writeEndObject();
+        }
+        if (booking.getUser() != null) {
+            json.writeObjectFieldStart("user");
+            json.writeNumberField("id", booking.getUser().getId());
+            json.writeStringField("name", booking.getUser().getName());
+            json.writeStringField("email", booking.getUser().getEmail());
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private ResponseEntity<StreamingResponseBody> listError(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
     }
 
     // Get booking by ID
@@ -121,7 +422,7 @@ public class BookingController {
             Booking booking = bookingOpt.get();
             Map<String, Object> response = new HashMap<>();
             response.put("booking", booking);
-            response.put("qrCodeImage", bookingService.generateQRCodeImage(booking.getQrCode()));
+            response.put("qrCodeUrl", qrCodeService.imageUrl(booking.getId()));
             return ResponseEntity.ok(response);
         } else {
             Map<String, Object> response = new HashMap<>();
@@ -285,13 +586,20 @@ public class BookingController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            boolean isValid = bookingService.verifyQRCodeForEntry(qrCode);
-            Optional<Booking> bookingOpt = bookingService.getBookingByQRCode(qrCode);
+            // Admitted through the gate check-in index, so a second scan of the same ticket is denied.
+            // The booking is only loaded (by id) for the details shown
+            CheckInService.ScanResult scan = checkInService.scan(qrCode, null);
+            boolean isValid = scan.isAdmitted();
+            Optional<Booking> bookingOpt = scan.getBookingId() != null
+                    && (isValid || scan.getStatus() == CheckInService.ScanStatus.ALREADY_CHECKED_IN)
+                    ? bookingService.getBookingById(scan.getBookingId()) : Optional.empty();
 
             Map<String, Object> response = new HashMap<>();
             response.put("valid", isValid);
+            response.put("result", scan.getStatus());
+            response.put("checkedInAt", scan.getCheckedInAt());
 
-            if (isValid && bookingOpt.isPresent()) {
+            if (bookingOpt.isPresent()) {
                 Booking booking = bookingOpt.get();
 
                 // Create booking response without circular references
@@ -324,7 +632,11 @@ public class BookingController {
                 }
 
                 response.put("booking", bookingMap);
+            }
+            if (isValid) {
                 response.put("message", "Valid QR code - Entry allowed");
+            } else if (scan.getStatus() == CheckInService.ScanStatus.ALREADY_CHECKED_IN) {
+                response.put("message", "Ticket already used at " + scan.getCheckedInAt() + " - Entry denied");
             } else {
                 response.put("message", "Invalid QR code - Entry denied");
             }
@@ -346,11 +658,20 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
 
-    // Get recent bookings
+    // Get the most recent bookings (at most 100)
     @GetMapping("/recent")
-    public ResponseEntity<List<Booking>> getRecentBookings() {
-        List<Booking> bookings = bookingService.getRecentBookings();
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<StreamingResponseBody> getRecentBookings(@RequestParam(defaultValue = "20") int limit) {
+        List<Booking> bookings = bookingService.getRecentBookings(limit);
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartArray();
+            for (Booking booking : bookings) {
+                writeBooking(json, booking);
+            }
+            json.writeEndArray();
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // Get bookings by date range
@@ -383,22 +704,20 @@ public class BookingController {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalRevenue", bookingService.getTotalRevenue());
 
-        List<Booking> allBookings = bookingService.getAllBookings();
-        long confirmedBookings = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .count();
-        long cancelledBookings = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CANCELLED)
-                .count();
-        long completedBookings = allBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.COMPLETED)
-                .count();
+        Map<BookingStatus, Long> bookingCounts = bookingService.getBookingCountsByStatus();
+        stats.put("totalBookings", bookingCounts.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("confirmedBookings", bookingCounts.get(BookingStatus.CONFIRMED));
+        stats.put("cancelledBookings", bookingCounts.get(BookingStatus.CANCELLED));
+        stats.put("completedBookings", bookingCounts.get(BookingStatus.COMPLETED));
 
-        stats.put("totalBookings", allBookings.size());
-        stats.put("confirmedBookings", confirmedBookings);
-        stats.put("cancelledBookings", cancelledBookings);
-        stats.put("completedBookings", completedBookings);
+        return ResponseEntity.ok(stats);
+    }
 
+    // Get optimistic locking conflict and retry counts per event
+    @GetMapping("/stats/conflicts")
+    public ResponseEntity<?> getConflictStats() {
+        Map<String, Object> stats = new HashMap<>(bookingConflictMetrics.getSnapshot());
+        stats.put("inventoryMode", ticketInventoryService.getMode());
         return ResponseEntity.ok(stats);
     }
 
@@ -428,22 +747,167 @@ public class BookingController {
         return ResponseEntity.ok(stats);
     }
 
-    // Get QR code image for booking
+    // Get QR code image for booking (rendered off the request thread, cached per booking reference)
     @GetMapping("/{id}/qr-image")
-    public ResponseEntity<?> getBookingQRImage(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> getBookingQRImage(@PathVariable Long id) {
         Optional<Booking> bookingOpt = bookingService.getBookingById(id);
         if (bookingOpt.isPresent()) {
             Booking booking = bookingOpt.get();
-            String qrImage = bookingService.generateQRCodeImage(booking.getQrCode());
-            Map<String, Object> response = new HashMap<>();
-            response.put("qrCodeImage", qrImage);
-            response.put("bookingReference", booking.getBookingReference());
-            return ResponseEntity.ok(response);
+            String bookingReference = booking.getBookingReference();
+            // The PNG bytes are written out as Base64 by Jackson, straight into the response
+            return qrCodeService.getPng(bookingReference, booking.getQrCode())
+                    .thenApply(png -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("qrCodeImage", png);
+                        response.put("bookingReference", bookingReference);
+                        return ResponseEntity.ok(response);
+                    });
         } else {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+    }
+
+    // Get QR code image for booking as PNG bytes (wallets and <img> tags, revalidated with If-None-Match)
+    @GetMapping(value = "/{id}/qr.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getBookingQRPng(@PathVariable Long id,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        Optional<Booking> bookingOpt = bookingService.getBookingById(id);
+        // A booking without a QR code has no image to serve
+        if (!bookingOpt.isPresent() || bookingOpt.get().getQrCode() == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
+        Booking booking = bookingOpt.get();
+        String eTag = qrCodeService.eTag(booking);
+        CacheControl cacheControl = qrCodeService.cacheControl();
+        if (qrCodeService.matches(ifNoneMatch, eTag)) {
+            // Client already has this image, nothing is rendered or sent
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag).cacheControl(cacheControl).build());
+        }
+        return qrCodeService.getPng(booking.getBookingReference(), booking.getQrCode())
+                .thenApply(png -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .contentLength(png.length)
+                        .eTag(eTag)
+                        .cacheControl(cacheControl)
+                        .body(png));
+    }
+
+    // Get QR rendering cache statistics
+    @GetMapping("/stats/qr")
+    public ResponseEntity<?> getQRCodeStats() {
+        return ResponseEntity.ok(qrCodeService.getStats());
+    }
+
+    // Scan a ticket at a gate (first scan admits, later scans are rejected)
+    @PostMapping("/checkin/scan")
+    public ResponseEntity<?> scanTicket(@RequestBody Map<String, Object> request) {
+        Object qrCode = request.get("qrCode");
+        if (qrCode == null || qrCode.toString().isEmpty()) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
-            response.put("message", "Booking not found");
-            return ResponseEntity.notFound().build();
+            response.put("message", "QR code is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        Object eventId = request.get("eventId");
+        Long gateEventId = eventId != null ? Long.valueOf(eventId.toString()) : null;
+        return ResponseEntity.ok(checkInService.scan(qrCode.toString(), gateEventId));
+    }
+
+    // Load an event's confirmed bookings into the check-in index before doors open
+    @PostMapping("/checkin/events/{eventId}/open")
+    public ResponseEntity<?> openCheckIn(@PathVariable Long eventId) {
+        checkInService.openEvent(eventId);
+        return ResponseEntity.ok(checkInService.getStats(eventId));
+    }
+
+    // Drop an event's check-in index
+    @DeleteMapping("/checkin/events/{eventId}")
+    public ResponseEntity<?> closeCheckIn(@PathVariable Long eventId) {
+        checkInService.closeEvent(eventId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Check-in closed for event " + eventId);
+        return ResponseEntity.ok(response);
+    }
+
+    // Get check-in counts for an event
+    @GetMapping("/checkin/events/{eventId}")
+    public ResponseEntity<?> getCheckInStats(@PathVariable Long eventId) {
+        return ResponseEntity.ok(checkInService.getStats(eventId));
+    }
+
+    // Export an event's admission snapshot for scanners that work offline
+    @GetMapping("/checkin/events/{eventId}/snapshot")
+    public ResponseEntity<?> getCheckInSnapshot(@PathVariable Long eventId) {
+        if (eventService.getEventById(eventId).isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Event not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        OfflineCheckInService.Export snapshot = offlineCheckInService.exportSnapshot(eventId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"event-" + eventId + "-" + snapshot.getVersion() + ".snapshot\"")
+                .header(SNAPSHOT_VERSION_HEADER, String.valueOf(snapshot.getVersion()))
+                .body(snapshot.getData());
+    }
+
+    // Export the admission changes since a snapshot version (410 when a new snapshot is needed)
+    @GetMapping("/checkin/events/{eventId}/snapshot/delta")
+    public ResponseEntity<?> getCheckInDelta(@PathVariable Long eventId, @RequestParam long since) {
+        OfflineCheckInService.Export delta = offlineCheckInService.exportDelta(eventId, since);
+        if (delta == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Snapshot version " + since + " is too old, download a new snapshot");
+            return ResponseEntity.status(HttpStatus.GONE).body(response);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(SNAPSHOT_VERSION_HEADER, String.valueOf(delta.getVersion()))
+                .body(delta.getData());
+    }
+
+    // Reconcile scans a gate made while offline (the earliest scan of each ticket wins)
+    @PostMapping("/checkin/events/{eventId}/reconcile")
+    public ResponseEntity<?> reconcileOfflineScans(@PathVariable Long eventId,
+                                                   @RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Object scansValue = request.get("scans");
+            if (!(scansValue instanceof List<?> scanList)) {
+                throw new IllegalArgumentException("scans is required");
+            }
+            List<OfflineCheckInService.OfflineScan> scans = new ArrayList<>();
+            for (Object item : scanList) {
+                Map<?, ?> scan = item instanceof Map<?, ?> map ? map : Map.of();
+                Object qrCode = scan.get("qrCode");
+                Object scannedAt = scan.get("scannedAt");
+                if (qrCode == null || scannedAt == null) {
+                    throw new IllegalArgumentException("Each scan needs a qrCode and scannedAt");
+                }
+                // Epoch milliseconds or an ISO local date-time
+                long scannedAtMillis = scannedAt instanceof Number number ? number.longValue()
+                        : LocalDateTime.parse(scannedAt.toString()).atZone(ZoneId.systemDefault())
+                                .toInstant().toEpochMilli();
+                scans.add(new OfflineCheckInService.OfflineScan(qrCode.toString(), scannedAtMillis));
+            }
+
+            OfflineCheckInService.ReconcileResult result = offlineCheckInService.reconcile(eventId, scans);
+            response.put("success", true);
+            response.put("admitted", result.getAdmitted());
+            response.put("duplicates", result.getDuplicates());
+            response.put("rejected", result.getRejected());
+            response.put("results", result.getResults());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         }
     }
 }
\ No newline at end of file
@@ -2,18 +2,32 @@ package com.eventbooking.controller;
 
 import com.eventbooking.model.Event;
 import com.eventbooking.model.EventType;
+import com.eventbooking.service.EventCatalog;
 import com.eventbooking.service.EventService;
+import com.eventbooking.service.PricingRuleEngine;
+import com.eventbooking.service.PricingRules;
 import com.eventbooking.service.PricingService;
 import com.eventbooking.service.RecommendationService;
 import com.eventbooking.service.ReviewService;
+import com.eventbooking.service.SalesVelocityTracker;
+import com.eventbooking.service.TypeaheadIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,6 +41,9 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class EventController {
 
+    // Enough for the largest listing page
+    private static final int MAX_QUOTES_PER_REQUEST = 200;
+
     @Autowired
     private DTOMapper dtoMapper;
 
@@ -37,6 +54,15 @@ public class EventController {
     @Autowired
     private PricingService pricingService;
 
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Autowired
+    private SalesVelocityTracker salesVelocityTracker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private RecommendationService recommendationService;
 
@@ -74,6 +100,65 @@ public class EventController {
         return ResponseEntity.ok(eventDTOs);
     }
 
+    // Query the catalogue: composable filters, pages in (date, id) order by keyset cursor, facet counts
+    @GetMapping("/query")
+    public ResponseEntity<?> queryEvents(@RequestParam(required = false) List<String> type,
+                                         @RequestParam(required = false) String from,
+                                         @RequestParam(required = false) String to,
+                                         @RequestParam(required = false) String location,
+                                         @RequestParam(required = false) List<String> tags,
+                                         @RequestParam(defaultValue = "all") String match,
+                                         @RequestParam(required = false) BigDecimal minPrice,
+                                         @RequestParam(required = false) BigDecimal maxPrice,
+                                         @RequestParam(defaultValue = "false") boolean available,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "20") int limit,
+                                         @RequestParam(defaultValue = "true") boolean facets) {
+        try {
+            if (!isTagMatch(match)) {
+                throw new IllegalArgumentException("Unknown tag match: " + match);
+            }
+            EventCatalog.Filter filter = new EventCatalog.Filter();
+            EnumSet<EventType> types = EnumSet.noneOf(EventType.class);
+            if (type != null) {
+                for (String name : type) {
+                    try {
+                        types.add(EventType.valueOf(name.trim().toUpperCase()));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Invalid event type: " + name);
+                    }
+                }
+            }
+            filter.setTypes(types);
+            filter.setFrom(from == null ? null : LocalDate.parse(from));
+            filter.setTo(to == null ? null : LocalDate.parse(to));
+            filter.setLocation(location);
+            filter.setTags(tags == null ? List.of() : tags);
+            filter.setMatchAllTags("all".equalsIgnoreCase(match));
+            filter.setMinPrice(minPrice);
+            filter.setMaxPrice(maxPrice);
+            filter.setAvailableOnly(available);
+
+            EventService.CatalogPage result = eventService.queryEvents(filter, after, limit, facets);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("events", result.getEvents().stream().map(dtoMapper::toEventDTO).collect(Collectors.toList()));
+            response.put("count", result.getEvents().size());
+            response.put("matched", result.getPage().getMatched());
+            response.put("nextCursor", result.getPage().getNextCursor());
+            response.put("hasMore", result.getPage().getNextCursor() != null);
+            if (facets) {
+                response.put("facets", result.getPage().getFacets());
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     // Get event by ID
     @GetMapping("/{id}")
     public ResponseEntity<?> getEventById(@PathVariable Long id) {
@@ -181,13 +266,43 @@ public class EventController {
         return ResponseEntity.ok(events);
     }
 
-    // Search events by name
+    // Search events by name, or mode=ranked for BM25 search over name, description, location and tags
     @GetMapping("/search")
-    public ResponseEntity<List<Event>> searchEvents(@RequestParam String query) {
+    public ResponseEntity<?> searchEvents(@RequestParam String query,
+                                          @RequestParam(defaultValue = "name") String mode,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        if ("ranked".equalsIgnoreCase(mode)) {
+            List<EventService.SearchResult> results = eventService.searchEventsRanked(query, limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("query", query);
+            response.put("results", results);
+            response.put("count", results.size());
+            return ResponseEntity.ok(response);
+        }
+        if (!"name".equalsIgnoreCase(mode)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Unknown search mode: " + mode);
+            return ResponseEntity.badRequest().body(response);
+        }
         List<Event> events = eventService.searchEventsByName(query);
         return ResponseEntity.ok(events);
     }
 
+    // Typeahead completions (event names, locations and tags) for the search box
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "8") int limit) {
+        List<TypeaheadIndex.Suggestion> suggestions = eventService.suggest(prefix, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("prefix", prefix);
+        response.put("suggestions", suggestions);
+        response.put("count", suggestions.size());
+        return ResponseEntity.ok(response);
+    }
+
     // Search events by location
     @GetMapping("/location")
     public ResponseEntity<List<Event>> searchEventsByLocation(@RequestParam String location) {
@@ -236,13 +351,51 @@ public class EventController {
         }
     }
 
-    // Search events by tags
+    // Search events by tags: exact matches, any of the tags (match=any) or all of them (match=all)
     @GetMapping("/tags")
-    public ResponseEntity<List<Event>> searchEventsByTag(@RequestParam String tag) {
-        List<Event> events = eventService.searchEventsByTag(tag);
+    public ResponseEntity<?> searchEventsByTag(@RequestParam(required = false) String tag,
+                                               @RequestParam(required = false) List<String> tags,
+                                               @RequestParam(defaultValue = "any") String match) {
+        List<String> wanted = new ArrayList<>();
+        if (tag != null) {
+            wanted.add(tag);
+        }
+        if (tags != null) {
+            wanted.addAll(tags);
+        }
+        if (wanted.isEmpty() || !isTagMatch(match)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", wanted.isEmpty() ? "tag or tags is required" : "Unknown tag match: " + match);
+            return ResponseEntity.badRequest().body(response);
+        }
+        List<Event> events = eventService.searchEventsByTags(wanted, "all".equalsIgnoreCase(match));
         return ResponseEntity.ok(events);
     }
 
+    // Tag facet counts among events having the tags (all or any), or among all events without tags
+    @GetMapping("/tags/facets")
+    public ResponseEntity<?> getTagFacets(@RequestParam(required = false) List<String> tags,
+                                          @RequestParam(defaultValue = "all") String match,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (!isTagMatch(match)) {
+            response.put("success", false);
+            response.put("message", "Unknown tag match: " + match);
+            return ResponseEntity.badRequest().body(response);
+        }
+        EventService.TagFacets facets = eventService.getTagFacets(tags == null ? List.of() : tags,
+                "all".equalsIgnoreCase(match), Math.max(1, limit));
+        response.put("success", true);
+        response.put("matched", facets.getMatched());
+        response.put("facets", facets.getFacets());
+        return ResponseEntity.ok(response);
+    }
+
+    private static boolean isTagMatch(String match) {
+        return "all".equalsIgnoreCase(match) || "any".equalsIgnoreCase(match);
+    }
+
     // Get event recommendations
     @GetMapping("/{id}/recommendations")
     public ResponseEntity<?> getEventRecommendations(@PathVariable Long id, @RequestParam(defaultValue = "3") int limit) {
@@ -279,6 +432,7 @@ public class EventController {
             Map<String, Object> response = new HashMap<>();
             response.put("pricingSummary", pricingSummary);
             response.put("nextTier", nextTier);
+            response.put("salesVelocity", salesVelocityTracker.getVelocity(id));
             return ResponseEntity.ok(response);
         } else {
             Map<String, Object> response = new HashMap<>();
@@ -288,6 +442,112 @@ public class EventController {
         }
     }
 
+    // Quote many events in one call (listing pages), events are loaded with one query
+    // and the quotes are streamed out as they are computed
+    @PostMapping("/pricing/quotes")
+    public ResponseEntity<StreamingResponseBody> getPriceQuotes(@RequestBody Map<String, Object> quoteRequest) {
+        Object linesObj = quoteRequest.get("quotes");
+        if (!(linesObj instanceof List) || ((List<?>) linesObj).isEmpty()
+                || ((List<?>) linesObj).size() > MAX_QUOTES_PER_REQUEST) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "quotes must be a list of 1 to " + MAX_QUOTES_PER_REQUEST + " events");
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, response));
+        }
+
+        List<Long> eventIds = new ArrayList<>();
+        List<Integer> tickets = new ArrayList<>();
+        try {
+            for (Object lineObj : (List<?>) linesObj) {
+                Map<?, ?> line = (Map<?, ?>) lineObj;
+                Object ticketsObj = line.get("tickets");
+                int count = ticketsObj == null ? 1 : Integer.parseInt(ticketsObj.toString());
+                if (count <= 0) {
+                    throw new IllegalArgumentException("tickets must be positive");
+                }
+                eventIds.add(Long.valueOf(line.get("eventId").toString()));
+                tickets.add(count);
+            }
+        } catch (RuntimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Each quote needs an eventId and a positive tickets count");
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, response));
+        }
+
+        Map<Long, Event> events = new HashMap<>();
+        for (Event event : eventService.getEventsByIds(new HashSet<>(eventIds))) {
+            events.put(event.getId(), event);
+        }
+
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("quotes");
+            for (int i = 0; i < eventIds.size(); i++) {
+                Event event = events.get(eventIds.get(i));
+                if (event == null) {
+                    json.writeStartObject();
+                    json.writeNumberField("eventId", eventIds.get(i));
+                    json.writeBooleanField("success", false);
+                    json.writeStringField("message", "Event not found");
+                    json.writeEndObject();
+                } else {
+                    json.writeObject(pricingService.quote(event, tickets.get(i)));
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Get the pricing rules in effect
+    @GetMapping("/pricing/rules")
+    public ResponseEntity<?> getPricingRules() {
+        return ResponseEntity.ok(pricingRuleEngine.getRules());
+    }
+
+    // Replace the pricing rules (Admin only, not written back to the rules file)
+    @PutMapping("/pricing/rules")
+    public ResponseEntity<?> updatePricingRules(@RequestBody PricingRules rules) {
+        try {
+            pricingRuleEngine.apply(rules);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Pricing rules updated successfully");
+            response.put("rules", rules);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Reload the pricing rules file (Admin only)
+    @PostMapping("/pricing/rules/reload")
+    public ResponseEntity<?> reloadPricingRules() {
+        try {
+            PricingRules rules = pricingRuleEngine.reload();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Pricing rules reloaded successfully");
+            response.put("rules", rules);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     // Get event statistics
     @GetMapping("/{id}/stats")
     public ResponseEntity<?> getEventStats(@PathVariable Long id) {
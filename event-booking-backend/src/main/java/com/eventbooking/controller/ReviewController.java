@@ -4,13 +4,20 @@ import com.eventbooking.model.Event;
 import com.eventbooking.model.Review;
 import com.eventbooking.model.User;
 import com.eventbooking.service.EventService;
+import com.eventbooking.service.KeysetPage;
 import com.eventbooking.service.ReviewService;
 import com.eventbooking.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +38,9 @@ public class ReviewController {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // Create new review
     // Replace your createReview method in ReviewController.java with this:
     @PostMapping
@@ -150,48 +160,101 @@ public class ReviewController {
         }
     }
 
-    // Get all reviews (Admin only)
+    // List reviews (Admin only): with limit and/or after, one keyset page newest first and the cursor of the next,
+    // otherwise every review streamed as a JSON array, or with format=ndjson as one JSON object per line
     @GetMapping
-    public ResponseEntity<?> getAllReviews() {
-        try {
-            List<Review> reviews = reviewService.getAllReviews();
-
-            // Create simple response objects to avoid circular references
-            List<Map<String, Object>> reviewResponses = reviews.stream()
-                    .map(review -> {
-                        Map<String, Object> reviewMap = new HashMap<>();
-                        reviewMap.put("id", review.getId());
-                        reviewMap.put("rating", review.getRating());
-                        reviewMap.put("comment", review.getComment());
-                        reviewMap.put("reviewDate", review.getReviewDate());
-
-                        // Add user info without circular reference
-                        if (review.getUser() != null) {
-                            Map<String, Object> userMap = new HashMap<>();
-                            userMap.put("id", review.getUser().getId());
-                            userMap.put("name", review.getUser().getName());
-                            reviewMap.put("user", userMap);
-                        }
+    public ResponseEntity<StreamingResponseBody> getAllReviews(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, @RequestParam(defaultValue = "json") String format) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"json".equalsIgnoreCase(format)) {
+            return listError("format must be json or ndjson");
+        }
+        if (ndjson && (after != null || limit != null)) {
+            return listError("format=ndjson streams every review, without after or limit");
+        }
+        if (ndjson || (after == null && limit == null)) {
+            return streamReviews(ndjson);
+        }
 
-                        // Add event info without circular reference
-                        if (review.getEvent() != null) {
-                            Map<String, Object> eventMap = new HashMap<>();
-                            eventMap.put("id", review.getEvent().getId());
-                            eventMap.put("name", review.getEvent().getName());
-                            reviewMap.put("event", eventMap);
-                        }
+        KeysetPage<Review> page;
+        try {
+            page = reviewService.getReviewsPage(after, limit);
+        } catch (IllegalArgumentException e) {
+            return listError(e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("reviews");
+            for (Review review : page.getItems()) {
+                writeReview(json, review);
+            }
+            json.writeEndArray();
+            json.writeNumberField("count", page.getItems().size());
+            json.writeStringField("nextCursor", page.getNextCursor());
+            json.writeBooleanField("hasMore", page.hasMore());
+            json.writeEndObject();
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 
-                        return reviewMap;
-                    })
-                    .collect(Collectors.toList());
+    // Every review written out as it is read from the database, memory stays flat however many there are
+    private ResponseEntity<StreamingResponseBody> streamReviews(boolean ndjson) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.setRootValueSeparator(null);
+            if (!ndjson) {
+                json.writeStartArray();
+            }
+            reviewService.forEachReview(review -> {
+                try {
+                    writeReview(json, review);
+                    if (ndjson) {
+                        json.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                json.writeEndArray();
+            }
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 
-            return ResponseEntity.ok(reviewResponses);
-        } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Error loading reviews: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    // A review with its user and event, without circular references
+    private void writeReview(JsonGenerator json, Review review) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", review.getId());
+        json.writeNumberField("rating", review.getRating());
+        json.writeStringField("comment", review.getComment());
+        json.writeObjectField("reviewDate", review.getReviewDate());
+        if (review.getUser() != null) {
+            json.writeObjectFieldStart("user");
+            json.writeNumberField("id", review.getUser().getId());
+            json.writeStringField("name", review.getUser().getName());
+            json.writeEndObject();
         }
+        if (review.getEvent() != null) {
+            json.writeObjectFieldStart("event");
+            json.writeNumberField("id", review.getEvent().getId());
+            json.writeStringField("name", review.getEvent().getName());
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private ResponseEntity<StreamingResponseBody> listError(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
     }
 
     // Get review by ID
@@ -414,36 +477,37 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
-    // Get recent reviews
+    // Get the most recent reviews (at most 100)
     @GetMapping("/recent")
-    public ResponseEntity<List<Review>> getRecentReviews() {
-        List<Review> reviews = reviewService.getRecentReviews();
-        return ResponseEntity.ok(reviews);
+    public ResponseEntity<StreamingResponseBody> getRecentReviews(@RequestParam(defaultValue = "20") int limit) {
+        List<Review> reviews = reviewService.getRecentReviews(limit);
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartArray();
+            for (Review review : reviews) {
+                writeReview(json, review);
+            }
+            json.writeEndArray();
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // Get review statistics
     @GetMapping("/stats")
     public ResponseEntity<?> getReviewStats() {
-        List<com.eventbooking.model.Review> allReviews = reviewService.getAllReviews();
+        ReviewService.RatingDistribution ratings = reviewService.getOverallRatingDistribution();
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalReviews", allReviews.size());
+        stats.put("totalReviews", ratings.getTotalReviews());
 
-        // Calculate average rating across all reviews
-        double totalRating = allReviews.stream()
-                .mapToInt(com.eventbooking.model.Review::getRating)
-                .sum();
-        double overallAverage = allReviews.isEmpty() ? 0.0 : totalRating / allReviews.size();
-        stats.put("overallAverageRating", Math.round(overallAverage * 10.0) / 10.0);
+        // Average rating across all reviews
+        stats.put("overallAverageRating", ratings.getAverageRating());
 
         // Rating distribution
         Map<Integer, Long> ratingCounts = new HashMap<>();
         for (int i = 1; i <= 5; i++) {
-            final int rating = i; // Make it effectively final
-            long count = allReviews.stream()
-                    .filter(r -> r.getRating() == rating)
-                    .count();
-            ratingCounts.put(i, count);
+            ratingCounts.put(i, (long) ratings.getCountForRating(i));
         }
         stats.put("ratingDistribution", ratingCounts);
 
@@ -2,15 +2,22 @@ package com.eventbooking.controller;
 
 import com.eventbooking.model.Role;
 import com.eventbooking.model.User;
+import com.eventbooking.service.KeysetPage;
 import com.eventbooking.service.UserService;
 import com.eventbooking.dto.DTOMapper;
 import com.eventbooking.dto.UserDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +35,9 @@ public class UserController {
     @Autowired
     private DTOMapper dtoMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // Register new user
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody User user) {
@@ -85,14 +95,79 @@ public class UserController {
         }
     }
 
-    // Get all users (Admin only)
+    // List users (Admin only): with limit and/or after, one keyset page in id order and the cursor of the next,
+    // otherwise every user streamed as a JSON array, or with format=ndjson as one JSON object per line
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        List<UserDTO> userDTOs = users.stream()
-                .map(dtoMapper::toUserDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(userDTOs);
+    public ResponseEntity<StreamingResponseBody> getAllUsers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, @RequestParam(defaultValue = "json") String format) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"json".equalsIgnoreCase(format)) {
+            return listError("format must be json or ndjson");
+        }
+        if (ndjson && (after != null || limit != null)) {
+            return listError("format=ndjson streams every user, without after or limit");
+        }
+        if (ndjson || (after == null && limit == null)) {
+            return streamUsers(ndjson);
+        }
+
+        KeysetPage<User> page;
+        try {
+            page = userService.getUsersPage(after, limit);
+        } catch (IllegalArgumentException e) {
+            return listError(e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("users");
+            for (User user : page.getItems()) {
+                json.writeObject(dtoMapper.toUserDTO(user));
+            }
+            json.writeEndArray();
+            json.writeNumberField("count", page.getItems().size());
+            json.writeStringField("nextCursor", page.getNextCursor());
+            json.writeBooleanField("hasMore", page.hasMore());
+            json.writeEndObject();
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Every user written out as it is read from the database, memory stays flat however many there are
+    private ResponseEntity<StreamingResponseBody> streamUsers(boolean ndjson) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.setRootValueSeparator(null);
+            if (!ndjson) {
+                json.writeStartArray();
+            }
+            userService.forEachUser(user -> {
+                try {
+                    json.writeObject(dtoMapper.toUserDTO(user));
+                    if (ndjson) {
+                        json.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                json.writeEndArray();
+            }
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> listError(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
     }
 
     // Get user by ID
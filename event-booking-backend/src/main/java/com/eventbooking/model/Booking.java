@@ -1,16 +1,35 @@
 package com.eventbooking.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "uk_bookings_qr_code_hash", columnList = "qr_code_hash", unique = true),
+        @Index(name = "idx_bookings_event_status", columnList = "event_id, status"),
+        @Index(name = "idx_bookings_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_bookings_status", columnList = "status"),
+        // Descending, so the newest-first listing and its keyset pages are read straight off the index instead of sorted
+        @Index(name = "idx_bookings_booking_date", columnList = "booking_date DESC, id DESC")
+})
 public class Booking {
 
+    private static final AtomicLong LAST_REFERENCE = new AtomicLong();
+
+    // Pooled sequence ids let Hibernate batch inserts, IDENTITY would disable that
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "bookings_seq")
+    @GenericGenerator(name = "bookings_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "bookings_seq"))
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +50,11 @@ public class Booking {
     @Column(name = "qr_code", length = 500)
     private String qrCode;
 
+    // SHA-256 of the QR code, a fixed-width key to look codes up by instead of the 500-character column
+    @JsonIgnore
+    @Column(name = "qr_code_hash", length = 32)
+    private byte[] qrCodeHash;
+
     @Column(name = "booking_date", nullable = false)
     private LocalDateTime bookingDate;
 
@@ -41,6 +65,10 @@ public class Booking {
     @Column(name = "booking_reference", unique = true)
     private String bookingReference;
 
+    // Written only by the check-in engine's write-behind, so entity saves never overwrite a scan
+    @Column(name = "checked_in_at", insertable = false, updatable = false)
+    private LocalDateTime checkedInAt;
+
     // Constructors
     public Booking() {
         this.bookingDate = LocalDateTime.now();
@@ -102,6 +130,11 @@ public class Booking {
 
     public void setQrCode(String qrCode) {
         this.qrCode = qrCode;
+        this.qrCodeHash = qrCode != null ? hashQrCode(qrCode) : null;
+    }
+
+    public byte[] getQrCodeHash() {
+        return qrCodeHash;
     }
 
     public LocalDateTime getBookingDate() {
@@ -128,9 +161,27 @@ public class Booking {
         this.bookingReference = bookingReference;
     }
 
-    // Helper method to generate booking reference
+    public LocalDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+
+    public void setCheckedInAt(LocalDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
+
+    // Helper method to generate booking reference (unique even when many bookings share a millisecond)
     private String generateBookingReference() {
-        return "BK" + System.currentTimeMillis();
+        long now = System.currentTimeMillis() * 1000;
+        return "BK" + LAST_REFERENCE.updateAndGet(last -> Math.max(last + 1, now));
+    }
+
+    // SHA-256 of a QR code's UTF-8 bytes, the same as H2's HASH('SHA-256', qr_code) used for the sample data
+    public static byte[] hashQrCode(String qrCode) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(qrCode.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     @Override
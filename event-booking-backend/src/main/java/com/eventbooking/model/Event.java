@@ -1,6 +1,10 @@
 package com.eventbooking.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -15,7 +19,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class Event {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "events_seq")
+    @GenericGenerator(name = "events_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "events_seq"))
     private Long id;
 
     @NotBlank(message = "Event name is required")
@@ -61,6 +67,12 @@ public class Event {
     @Column(name = "event_image")
     private String eventImage = "img2"; // Default placeholder
 
+    // Checked on every entity update (booking.inventory.mode=OPTIMISTIC relies on it)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @JsonIgnore
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Booking> bookings;
@@ -194,6 +206,14 @@ public class Event {
         this.eventImage = eventImage;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<Booking> getBookings() {
         return bookings;
     }
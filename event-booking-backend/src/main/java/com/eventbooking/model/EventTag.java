@@ -0,0 +1,79 @@
+package com.eventbooking.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// A row of the event_tags join table: one tag of one event, mapped as plain ids so loading it never loads either side
+@Entity
+@IdClass(EventTag.Key.class)
+@Table(name = "event_tags", indexes = {
+        @Index(name = "idx_event_tags_tag", columnList = "tag_id")
+})
+public class EventTag {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Id
+    @Column(name = "tag_id")
+    private Long tagId;
+
+    // Foreign keys only, the ids above are what is read and written
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", insertable = false, updatable = false)
+    private Event event;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tag_id", insertable = false, updatable = false)
+    private Tag tag;
+
+    // Constructors
+    public EventTag() {
+    }
+
+    public EventTag(Long eventId, Long tagId) {
+        this.eventId = eventId;
+        this.tagId = tagId;
+    }
+
+    // Getters
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    // Primary key: (event_id, tag_id)
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long eventId;
+        private Long tagId;
+
+        public Key() {
+        }
+
+        public Key(Long eventId, Long tagId) {
+            this.eventId = eventId;
+            this.tagId = tagId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(eventId, key.eventId) && Objects.equals(tagId, key.tagId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventId, tagId);
+        }
+    }
+}
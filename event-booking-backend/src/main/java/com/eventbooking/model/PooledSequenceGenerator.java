@@ -0,0 +1,35 @@
+package com.eventbooking.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// Sequence ids handed out a block at a time (eventbooking.id.allocation-size) so inserts can be batched
+// Generated ids start at FIRST_ID, lower ids are kept for seed data
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ALLOCATION_SIZE_SETTING = "eventbooking.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+    public static final long FIRST_ID = 1000;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        if (allocationSize <= 0) {
+            throw new MappingException(ALLOCATION_SIZE_SETTING + " must be positive");
+        }
+
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(INITIAL_PARAM, String.valueOf(FIRST_ID));
+        parameters.setProperty(OPT_PARAM, "pooled");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -1,16 +1,26 @@
 package com.eventbooking.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_event_date", columnList = "event_id, review_date"),
+        @Index(name = "idx_reviews_user_event", columnList = "user_id, event_id"),
+        @Index(name = "idx_reviews_rating", columnList = "rating"),
+        @Index(name = "idx_reviews_review_date", columnList = "review_date DESC, id DESC")
+})
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "reviews_seq")
+    @GenericGenerator(name = "reviews_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "reviews_seq"))
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
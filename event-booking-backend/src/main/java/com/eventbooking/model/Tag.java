@@ -0,0 +1,48 @@
+package com.eventbooking.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+// One entry of the tag dictionary: a normalized tag name (trimmed, lowercase, single spaces), stored once
+@Entity
+@Table(name = "tags")
+public class Tag {
+
+    public static final int MAX_NAME_LENGTH = 100;
+
+    @Id
+    @GeneratedValue(generator = "tags_seq")
+    @GenericGenerator(name = "tags_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "tags_seq"))
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = MAX_NAME_LENGTH)
+    private String name;
+
+    // Constructors
+    public Tag() {
+    }
+
+    public Tag(String name) {
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
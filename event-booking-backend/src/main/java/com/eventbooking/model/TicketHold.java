@@ -0,0 +1,104 @@
+package com.eventbooking.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Tickets held for a user during checkout, persisted so a restart can hand back the tickets of holds that lapsed
+@Entity
+@Table(name = "ticket_holds")
+public class TicketHold {
+
+    @Id
+    @Column(name = "hold_id", length = 36)
+    private String holdId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    private Event event;
+
+    @Column(nullable = false)
+    private Integer tickets;
+
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(name = "expires_at_millis", nullable = false)
+    private long expiresAtMillis;
+
+    // Constructors
+    protected TicketHold() {
+    }
+
+    public TicketHold(String holdId, Long userId, Event event, Integer tickets,
+                      BigDecimal unitPrice, long expiresAtMillis) {
+        this.holdId = holdId;
+        this.userId = userId;
+        this.event = event;
+        this.tickets = tickets;
+        this.unitPrice = unitPrice;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    // Getters
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    @JsonIgnore
+    public Event getEvent() {
+        return event;
+    }
+
+    public Long getEventId() {
+        return event.getId();
+    }
+
+    public Integer getTickets() {
+        return tickets;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return unitPrice.multiply(BigDecimal.valueOf(tickets));
+    }
+
+    @JsonIgnore
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+    }
+
+    // Helper method to check expiry
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "TicketHold{" +
+                "holdId='" + holdId + '\'' +
+                ", userId=" + userId +
+                ", eventId=" + getEventId() +
+                ", tickets=" + tickets +
+                ", expiresAt=" + getExpiresAt() +
+                '}';
+    }
+}
@@ -2,8 +2,12 @@ package com.eventbooking.repository;
 
 import com.eventbooking.model.Booking;
 import com.eventbooking.model.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +15,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -24,11 +29,25 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // Find booking by booking reference
     Optional<Booking> findByBookingReference(String bookingReference);
 
-    // Find booking by QR code
-    Optional<Booking> findByQrCode(String qrCode);
+    // Find booking by QR code, through the unique index on its hash
+    default Optional<Booking> findByQrCode(String qrCode) {
+        return qrCode == null ? Optional.empty() : findByQrCodeHash(Booking.hashQrCode(qrCode));
+    }
 
-    // Find bookings by status
-    List<Booking> findByStatus(BookingStatus status);
+    // Find booking by the SHA-256 of its QR code
+    Optional<Booking> findByQrCodeHash(byte[] qrCodeHash);
+
+    // Get id, tickets and check-in time of an event's confirmed bookings (check-in index preload)
+    @Query("SELECT b.id, b.ticketsBooked, b.checkedInAt FROM Booking b WHERE b.event.id = :eventId AND b.status = 'CONFIRMED'")
+    List<Object[]> findAdmissionsByEventId(@Param("eventId") Long eventId);
+
+    // Get ids of bookings with a status
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status")
+    List<Long> findIdsByStatus(@Param("status") BookingStatus status);
+
+    // Get ids of an event's bookings with a status, in id order
+    @Query("SELECT b.id FROM Booking b WHERE b.event.id = :eventId AND b.status = :status ORDER BY b.id")
+    List<Long> findIdsByEventIdAndStatus(@Param("eventId") Long eventId, @Param("status") BookingStatus status);
 
     // Find bookings by user and status
     List<Booking> findByUserIdAndStatus(Long userId, BookingStatus status);
@@ -47,6 +66,18 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT SUM(b.ticketsBooked) FROM Booking b WHERE b.event.id = :eventId AND b.status = 'CONFIRMED'")
     Integer getTotalTicketsSoldByEventId(@Param("eventId") Long eventId);
 
+    // Count bookings per status
+    @Query("SELECT b.status, COUNT(b) FROM Booking b GROUP BY b.status")
+    List<Object[]> countBookingsGroupedByStatus();
+
+    // Get total tickets of confirmed bookings
+    @Query("SELECT SUM(b.ticketsBooked) FROM Booking b WHERE b.status = 'CONFIRMED'")
+    Long getTotalTicketsSold();
+
+    // Get average value of confirmed bookings
+    @Query("SELECT AVG(b.totalAmount) FROM Booking b WHERE b.status = 'CONFIRMED'")
+    Double getAverageBookingValue();
+
     // Get total revenue
     @Query("SELECT SUM(b.totalAmount) FROM Booking b WHERE b.status = 'CONFIRMED'")
     BigDecimal getTotalRevenue();
@@ -55,9 +86,20 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT SUM(b.totalAmount) FROM Booking b WHERE b.user.id = :userId AND b.status = 'CONFIRMED'")
     BigDecimal getTotalRevenueByUserId(@Param("userId") Long userId);
 
-    // Get recent bookings
-    @Query("SELECT b FROM Booking b ORDER BY b.bookingDate DESC")
-    List<Booking> findRecentBookings();
+    // Get the most recent bookings with their event and user (the first keyset page)
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.event LEFT JOIN FETCH b.user ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findRecentBookings(Limit limit);
+
+    // Get the bookings after a keyset cursor (the booking date and id of the last one seen), newest first
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.event LEFT JOIN FETCH b.user WHERE b.bookingDate <= :bookingDate "
+            + "AND (b.bookingDate < :bookingDate OR b.id < :id) ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findRecentBookingsBefore(@Param("bookingDate") LocalDateTime bookingDate, @Param("id") Long id,
+            Limit limit);
+
+    // Stream every booking with its event and user in id order, fetched in chunks (needs a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.event LEFT JOIN FETCH b.user ORDER BY b.id")
+    Stream<Booking> streamAllWithEventAndUser();
 
     // Check if user has booked a specific event
     @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.user.id = :userId AND b.event.id = :eventId AND b.status = 'CONFIRMED'")
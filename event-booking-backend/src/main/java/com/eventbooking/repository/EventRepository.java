@@ -3,10 +3,13 @@ package com.eventbooking.repository;
 import com.eventbooking.model.Event;
 import com.eventbooking.model.EventType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -35,9 +38,17 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT e FROM Event e WHERE e.totalTickets > e.ticketsSold")
     List<Event> findEventsWithAvailableTickets();
 
-    // Find events by tags containing
-    @Query("SELECT e FROM Event e WHERE e.tags LIKE %:tag%")
-    List<Event> findByTagsContaining(@Param("tag") String tag);
+    // Count events with available tickets
+    @Query("SELECT COUNT(e) FROM Event e WHERE e.totalTickets > e.ticketsSold")
+    long countEventsWithAvailableTickets();
+
+    // Count events on or after a date
+    long countByDateGreaterThanEqual(LocalDate date);
+
+    // Find events with tags but no rows in event_tags yet (saved before tags were normalized)
+    @Query("SELECT e FROM Event e WHERE e.tags IS NOT NULL AND e.tags <> '' "
+            + "AND NOT EXISTS (SELECT et FROM EventTag et WHERE et.eventId = e.id)")
+    List<Event> findEventsWithoutTagRows();
 
     // Find popular events (high booking rate)
     @Query("SELECT e FROM Event e WHERE (e.ticketsSold * 100.0 / e.totalTickets) >= :percentage ORDER BY e.ticketsSold DESC")
@@ -50,4 +61,38 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // Count total events
     @Query("SELECT COUNT(e) FROM Event e")
     Long countTotalEvents();
+
+    // Write tickets sold and current price without loading the event
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.ticketsSold = :ticketsSold, e.currentPrice = :currentPrice WHERE e.id = :eventId")
+    int updateTicketsSold(@Param("eventId") Long eventId,
+                          @Param("ticketsSold") Integer ticketsSold,
+                          @Param("currentPrice") BigDecimal currentPrice);
+
+    // Add sold tickets in one statement, only if enough tickets are left (returns rows updated)
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED Event e SET e.ticketsSold = e.ticketsSold + :tickets " +
+            "WHERE e.id = :eventId AND e.totalTickets - e.ticketsSold >= :tickets")
+    int reserveTickets(@Param("eventId") Long eventId, @Param("tickets") Integer tickets);
+
+    // Get tickets sold straight from the row (after a guarded UPDATE, the value this transaction wrote)
+    @Query("SELECT e.ticketsSold FROM Event e WHERE e.id = :eventId")
+    Integer findTicketsSoldById(@Param("eventId") Long eventId);
+
+    // Remove sold tickets in one statement, never going below zero (returns rows updated)
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED Event e SET e.ticketsSold = e.ticketsSold - :tickets " +
+            "WHERE e.id = :eventId AND e.ticketsSold >= :tickets")
+    int releaseTickets(@Param("eventId") Long eventId, @Param("tickets") Integer tickets);
+
+    // Write current price without loading the event, unless tickets sold changed since the price was computed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.currentPrice = :currentPrice WHERE e.id = :eventId AND e.ticketsSold = :ticketsSold")
+    int updateCurrentPrice(@Param("eventId") Long eventId,
+                           @Param("ticketsSold") Integer ticketsSold,
+                           @Param("currentPrice") BigDecimal currentPrice);
 }
\ No newline at end of file
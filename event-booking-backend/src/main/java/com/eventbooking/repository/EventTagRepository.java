@@ -0,0 +1,24 @@
+package com.eventbooking.repository;
+
+import com.eventbooking.model.EventTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface EventTagRepository extends JpaRepository<EventTag, EventTag.Key> {
+
+    // Find the tag rows of an event
+    List<EventTag> findByEventId(Long eventId);
+
+    // Delete the tag rows of an event
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EventTag et WHERE et.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
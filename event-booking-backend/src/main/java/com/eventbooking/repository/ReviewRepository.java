@@ -1,26 +1,32 @@
 package com.eventbooking.repository;
 
 import com.eventbooking.model.Review;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
-    // Find reviews by event ID
-    List<Review> findByEventId(Long eventId);
-
     // Find reviews by user ID
     List<Review> findByUserId(Long userId);
 
     // Find reviews by event ID ordered by date
     List<Review> findByEventIdOrderByReviewDateDesc(Long eventId);
 
+    // Find an event's most recent reviews
+    List<Review> findByEventIdOrderByReviewDateDesc(Long eventId, Limit limit);
+
     // Find reviews by rating
     List<Review> findByRating(Integer rating);
 
@@ -38,6 +44,14 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.event.id = :eventId")
     Double getAverageRatingByEventId(@Param("eventId") Long eventId);
 
+    // Count an event's reviews per rating
+    @Query("SELECT r.rating, COUNT(r) FROM Review r WHERE r.event.id = :eventId GROUP BY r.rating")
+    List<Object[]> countRatingsByEventId(@Param("eventId") Long eventId);
+
+    // Count every review per rating
+    @Query("SELECT r.rating, COUNT(r) FROM Review r GROUP BY r.rating")
+    List<Object[]> countRatings();
+
     // Get rating count for an event
     @Query("SELECT COUNT(r) FROM Review r WHERE r.event.id = :eventId")
     Integer getReviewCountByEventId(@Param("eventId") Long eventId);
@@ -46,7 +60,18 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT r FROM Review r WHERE r.rating >= :minRating ORDER BY r.reviewDate DESC")
     List<Review> findHighRatedReviews(@Param("minRating") Integer minRating);
 
-    // Get recent reviews
-    @Query("SELECT r FROM Review r ORDER BY r.reviewDate DESC")
-    List<Review> findRecentReviews();
+    // Get the most recent reviews with their event and user (the first keyset page)
+    @Query("SELECT r FROM Review r LEFT JOIN FETCH r.event LEFT JOIN FETCH r.user ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Review> findRecentReviews(Limit limit);
+
+    // Get the reviews after a keyset cursor (the review date and id of the last one seen), newest first
+    @Query("SELECT r FROM Review r LEFT JOIN FETCH r.event LEFT JOIN FETCH r.user WHERE r.reviewDate <= :reviewDate "
+            + "AND (r.reviewDate < :reviewDate OR r.id < :id) ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Review> findRecentReviewsBefore(@Param("reviewDate") LocalDateTime reviewDate, @Param("id") Long id,
+            Limit limit);
+
+    // Stream every review with its event and user in id order, fetched in chunks (needs a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Review r LEFT JOIN FETCH r.event LEFT JOIN FETCH r.user ORDER BY r.id")
+    Stream<Review> streamAllWithEventAndUser();
 }
\ No newline at end of file
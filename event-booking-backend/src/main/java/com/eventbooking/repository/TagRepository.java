@@ -0,0 +1,14 @@
+package com.eventbooking.repository;
+
+import com.eventbooking.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    // Find a tag by its normalized name
+    Optional<Tag> findByName(String name);
+}
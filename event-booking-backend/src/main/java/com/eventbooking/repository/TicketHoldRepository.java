@@ -0,0 +1,25 @@
+package com.eventbooking.repository;
+
+import com.eventbooking.model.TicketHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TicketHoldRepository extends JpaRepository<TicketHold, String> {
+
+    // Find every hold with its event, to re-arm them on startup
+    @Query("SELECT h FROM TicketHold h JOIN FETCH h.event")
+    List<TicketHold> findAllWithEvent();
+
+    // Delete the holds of an event
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TicketHold h WHERE h.event.id = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
@@ -2,13 +2,18 @@ package com.eventbooking.repository;
 
 import com.eventbooking.model.Role;
 import com.eventbooking.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -28,6 +33,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find users by name containing (for search)
     List<User> findByNameContainingIgnoreCase(String name);
 
+    // Get the users after a keyset cursor (the id of the last one seen), in id order
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Stream every user in id order, fetched in chunks (needs a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+
     // Count total users
     @Query("SELECT COUNT(u) FROM User u")
     Long countTotalUsers();
@@ -0,0 +1,129 @@
+package com.eventbooking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Numbered changes to who may enter an event, so offline scanners can ask for everything since their snapshot
+// Versions start at the boot time in microseconds, so one from before a restart asks for a new snapshot
+@Component
+public class AdmissionJournal {
+
+    public static final int MAX_CHANGES_PER_EVENT = 100_000;
+
+    private final AtomicLong version = new AtomicLong(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+
+    private final ConcurrentHashMap<Long, EventJournal> journals = new ConcurrentHashMap<>();
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    // Start journaling an event's changes (a snapshot taken after this is covered by its deltas)
+    public void track(Long eventId) {
+        journals.computeIfAbsent(eventId, id -> new EventJournal(version.get()));
+    }
+
+    // Record a change to an event's admissions once the current transaction commits (dropped if the event is not journaled by then)
+    public void record(Long eventId, Long bookingId, ChangeType type, int tickets) {
+        if (eventId == null || bookingId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> recordNow(eventId, bookingId, type, tickets));
+    }
+
+    // Changes after a version in the order they happened, null if the journal does not reach back that far
+    public List<Change> changesSince(Long eventId, long since) {
+        EventJournal journal = journals.get(eventId);
+        if (journal == null || since > version.get()) {
+            return null;
+        }
+        synchronized (journal) {
+            if (since < journal.floor) {
+                return null;
+            }
+            List<Change> changes = new ArrayList<>();
+            Iterator<Change> newestFirst = journal.changes.descendingIterator();
+            while (newestFirst.hasNext()) {
+                Change change = newestFirst.next();
+                if (change.version <= since) {
+                    break;
+                }
+                changes.add(change);
+            }
+            Collections.reverse(changes);
+            return changes;
+        }
+    }
+
+    public void evict(Long eventId) {
+        journals.remove(eventId);
+    }
+
+    private void recordNow(Long eventId, Long bookingId, ChangeType type, int tickets) {
+        EventJournal journal = journals.get(eventId);
+        if (journal == null) {
+            return;
+        }
+        // Numbered under the event's lock so each journal is in version order
+        synchronized (journal) {
+            journal.changes.addLast(new Change(version.incrementAndGet(), type, bookingId, tickets));
+            if (journal.changes.size() > MAX_CHANGES_PER_EVENT) {
+                journal.floor = journal.changes.removeFirst().version;
+            }
+        }
+    }
+
+    private static final class EventJournal {
+        private final ArrayDeque<Change> changes = new ArrayDeque<>();
+        private long floor;
+
+        private EventJournal(long floor) {
+            this.floor = floor;
+        }
+    }
+
+    public enum ChangeType {
+        ADDED,
+        REVOKED,
+        CHECKED_IN
+    }
+
+    // One change to an event's admissions
+    public static class Change {
+        private final long version;
+        private final ChangeType type;
+        private final long bookingId;
+        private final int tickets;
+
+        public Change(long version, ChangeType type, long bookingId, int tickets) {
+            this.version = version;
+            this.type = type;
+            this.bookingId = bookingId;
+            this.tickets = tickets;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public long getBookingId() {
+            return bookingId;
+        }
+
+        public int getTickets() {
+            return tickets;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.eventbooking.service;
+
+import java.util.Arrays;
+
+// Base45 (RFC 9285), whose characters are the QR alphanumeric set, so codes take a smaller QR version than Base64
+public final class Base45 {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:".toCharArray();
+
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base45() {
+    }
+
+    // Every 2 bytes become 3 characters, a trailing byte becomes 2
+    public static String encode(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length / 2) * 3 + (data.length % 2) * 2);
+        int i = 0;
+        for (; i + 1 < data.length; i += 2) {
+            int value = (data[i] & 0xFF) * 256 + (data[i + 1] & 0xFF);
+            out.append(ALPHABET[value % 45]).append(ALPHABET[value / 45 % 45]).append(ALPHABET[value / 2025]);
+        }
+        if (i < data.length) {
+            int value = data[i] & 0xFF;
+            out.append(ALPHABET[value % 45]).append(ALPHABET[value / 45]);
+        }
+        return out.toString();
+    }
+
+    // Decode, throws IllegalArgumentException for anything that is not valid Base45
+    public static byte[] decode(String text) {
+        int length = text.length();
+        if (length % 3 == 1) {
+            throw new IllegalArgumentException("Invalid Base45 length");
+        }
+        byte[] out = new byte[(length / 3) * 2 + (length % 3 == 2 ? 1 : 0)];
+        int o = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int value = value(text.charAt(i)) + value(text.charAt(i + 1)) * 45 + value(text.charAt(i + 2)) * 2025;
+            if (value > 0xFFFF) {
+                throw new IllegalArgumentException("Invalid Base45 triplet");
+            }
+            out[o++] = (byte) (value >>> 8);
+            out[o++] = (byte) value;
+        }
+        if (i < length) {
+            int value = value(text.charAt(i)) + value(text.charAt(i + 1)) * 45;
+            if (value > 0xFF) {
+                throw new IllegalArgumentException("Invalid Base45 pair");
+            }
+            out[o] = (byte) value;
+        }
+        return out;
+    }
+
+    private static int value(char c) {
+        int value = c < 128 ? VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Base45 character");
+        }
+        return value;
+    }
+}
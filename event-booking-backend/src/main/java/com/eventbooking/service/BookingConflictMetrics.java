@@ -0,0 +1,88 @@
+package com.eventbooking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-event counts of optimistic ticket writes attempted, conflicted, retried and given up
+@Component
+public class BookingConflictMetrics {
+
+    // Conflicts that cannot be traced back to an event are counted under this id
+    private static final Long UNKNOWN_EVENT = 0L;
+
+    private final ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // Record an optimistic write of an event's tickets sold
+    public void recordAttempt(Long eventId) {
+        countersFor(eventId).attempts.increment();
+    }
+
+    // Record a version conflict, retried or not
+    public void recordConflict(Long eventId, boolean retried) {
+        Counters eventCounters = countersFor(eventId);
+        eventCounters.conflicts.increment();
+        if (retried) {
+            eventCounters.retries.increment();
+        } else {
+            eventCounters.exhausted.increment();
+        }
+    }
+
+    // Get counters and conflict rate per event, plus totals
+    public Map<String, Object> getSnapshot() {
+        List<Map<String, Object>> events = new ArrayList<>();
+        long attempts = 0;
+        long conflicts = 0;
+        long retries = 0;
+        long exhausted = 0;
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            Map<String, Object> event = entry.getValue().toMap();
+            event.put("eventId", entry.getKey());
+            events.add(event);
+            attempts += entry.getValue().attempts.sum();
+            conflicts += entry.getValue().conflicts.sum();
+            retries += entry.getValue().retries.sum();
+            exhausted += entry.getValue().exhausted.sum();
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("attempts", attempts);
+        snapshot.put("conflicts", conflicts);
+        snapshot.put("retries", retries);
+        snapshot.put("exhausted", exhausted);
+        snapshot.put("conflictRate", rate(conflicts, attempts));
+        snapshot.put("events", events);
+        return snapshot;
+    }
+
+    private Counters countersFor(Long eventId) {
+        return counters.computeIfAbsent(eventId != null ? eventId : UNKNOWN_EVENT, id -> new Counters());
+    }
+
+    private static double rate(long conflicts, long attempts) {
+        return attempts == 0 ? 0.0 : (double) conflicts / attempts;
+    }
+
+    private static final class Counters {
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("attempts", attempts.sum());
+            map.put("conflicts", conflicts.sum());
+            map.put("retries", retries.sum());
+            map.put("exhausted", exhausted.sum());
+            map.put("conflictRate", rate(conflicts.sum(), attempts.sum()));
+            return map;
+        }
+    }
+}
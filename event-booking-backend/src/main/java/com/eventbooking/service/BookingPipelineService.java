@@ -0,0 +1,173 @@
+package com.eventbooking.service;
+
+import com.eventbooking.dto.BookingDTO;
+import com.eventbooking.dto.DTOMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+// Booking writes for hot events, sharded by event id, each shard's queue committed as micro-batches by one writer thread
+// A full shard queue rejects the request straight away instead of blocking the caller
+@Service
+public class BookingPipelineService {
+
+    @Value("${booking.pipeline.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.pipeline.shards:4}")
+    private int shardCount = 4;
+
+    @Value("${booking.pipeline.queue-capacity:1024}")
+    private int queueCapacity = 1024;
+
+    @Value("${booking.pipeline.max-batch-size:64}")
+    private int maxBatchSize = 64;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private DTOMapper dtoMapper;
+
+    private Shard[] shards;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+            shards[i].writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (shards == null) {
+            return;
+        }
+        for (Shard shard : shards) {
+            shard.writer.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Queue a booking, the future completes once the booking is committed
+    public CompletableFuture<BookingDTO> submit(Long userId, Long eventId, Integer ticketsRequested) {
+        if (!enabled) {
+            throw new IllegalStateException("Booking pipeline is disabled");
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("User is required");
+        }
+        if (eventId == null) {
+            throw new IllegalArgumentException("Event is required");
+        }
+        if (ticketsRequested == null || ticketsRequested <= 0) {
+            throw new IllegalArgumentException("Number of tickets must be positive");
+        }
+
+        BookingRequest request = new BookingRequest(userId, eventId, ticketsRequested);
+        Shard shard = shards[Math.floorMod(eventId.hashCode(), shards.length)];
+        if (!shard.queue.offer(request)) {
+            throw new QueueFullException("Too many bookings for this event right now, please retry");
+        }
+        return request.result;
+    }
+
+    // Commit a micro-batch in one transaction
+    private void processBatch(List<BookingRequest> batch) {
+        List<BookingService.BookingLine> lines = new ArrayList<>(batch.size());
+        for (BookingRequest request : batch) {
+            lines.add(new BookingService.BookingLine(request.userId, request.eventId, request.tickets));
+        }
+
+        List<BookingService.BookingLineResult> results;
+        try {
+            results = bookingService.createBookings(lines);
+        } catch (RuntimeException e) {
+            batch.forEach(request -> request.result.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            BookingService.BookingLineResult result = results.get(i);
+            if (result.isSuccess()) {
+                batch.get(i).result.complete(dtoMapper.toBookingDTO(result.getBooking()));
+            } else {
+                batch.get(i).result.completeExceptionally(new RuntimeException(result.getMessage()));
+            }
+        }
+    }
+
+    private final class Shard {
+        private final BlockingQueue<BookingRequest> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Thread writer;
+
+        private Shard(int index) {
+            writer = new Thread(this::drain, "booking-writer-" + index);
+            writer.setDaemon(true);
+        }
+
+        private void drain() {
+            List<BookingRequest> batch = new ArrayList<>(maxBatchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                try {
+                    processBatch(batch);
+                } catch (Throwable t) {
+                    // Fail the requests not answered yet and keep the writer running
+                    batch.forEach(request -> request.result.completeExceptionally(t));
+                }
+                batch.clear();
+            }
+
+            // Fail whatever is still queued on shutdown
+            List<BookingRequest> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.forEach(request -> request.result.completeExceptionally(
+                    new IllegalStateException("Booking pipeline is shutting down")));
+        }
+    }
+
+    private static final class BookingRequest {
+        private final Long userId;
+        private final Long eventId;
+        private final int tickets;
+        private final CompletableFuture<BookingDTO> result = new CompletableFuture<>();
+
+        private BookingRequest(Long userId, Long eventId, int tickets) {
+            this.userId = userId;
+            this.eventId = eventId;
+            this.tickets = tickets;
+        }
+    }
+
+    // Thrown when a shard queue is full (mapped to 429 Too Many Requests)
+    public static class QueueFullException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
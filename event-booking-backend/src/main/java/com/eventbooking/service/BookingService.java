@@ -3,29 +3,39 @@ package com.eventbooking.service;
 import com.eventbooking.model.Booking;
 import com.eventbooking.model.BookingStatus;
 import com.eventbooking.model.Event;
+import com.eventbooking.model.TicketHold;
 import com.eventbooking.model.User;
 import com.eventbooking.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
+    // Streamed bookings are dropped from the persistence context after every this many
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private BookingRepository bookingRepository;
 
@@ -35,7 +45,32 @@ public class BookingService {
     @Autowired
     private PricingService pricingService;
 
-    // Create new booking
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
+
+    @Autowired
+    private TicketHoldService ticketHoldService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SalesVelocityTracker salesVelocityTracker;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private EventCatalog eventCatalog;
+
+    @Autowired
+    private TicketCodeService ticketCodeService;
+
+    @Autowired
+    private AdmissionJournal admissionJournal;
+
+    // Create new booking (re-read and re-priced from scratch if it loses an optimistic locking race)
+    @RetryOnConflict
     @Transactional
     public Booking createBooking(User user, Long eventId, Integer ticketsRequested) {
         // Get event
@@ -46,36 +81,142 @@ public class BookingService {
 
         Event event = eventOpt.get();
 
-        // Check if enough tickets available
-        if (event.getAvailableTickets() < ticketsRequested) {
-            throw new RuntimeException("Not enough tickets available. Available: " + event.getAvailableTickets());
+        // Reserve tickets in the inventory (handed back automatically if this transaction rolls back)
+        int ticketsSold = ticketInventoryService.reserve(event, ticketsRequested);
+        if (ticketsSold < 0) {
+            throw new RuntimeException("Not enough tickets available. Available: "
+                    + ticketInventoryService.getAvailableTickets(event));
         }
 
-        // Calculate total amount with current pricing
-        BigDecimal currentPrice = pricingService.calculateCurrentPrice(event);
-        BigDecimal totalAmount = currentPrice.multiply(BigDecimal.valueOf(ticketsRequested));
+        // Calculate total amount with the price before this booking
+        BigDecimal currentPrice = pricingService.calculateCurrentPrice(
+                event, ticketsSold - ticketsRequested, event.getTotalTickets());
 
-        // Create booking
-        Booking booking = new Booking(user, event, ticketsRequested, totalAmount);
+        return saveBooking(user, event, ticketsRequested, currentPrice);
+    }
 
-        // Generate QR code
-        String qrCodeData = generateQRCodeData(booking);
-        booking.setQrCode(qrCodeData);
+    // Confirm a ticket hold as a booking (tickets were already reserved when the hold was placed)
+    @Transactional
+    public Booking createBookingFromHold(User user, String holdId) {
+        TicketHold hold = ticketHoldService.consumeHold(holdId, user.getId());
+        return saveBooking(user, hold.getEvent(), hold.getTickets(), hold.getUnitPrice());
+    }
+
+    // Create many bookings in one transaction (each line succeeds or fails on its own)
+    @RetryOnConflict
+    @Transactional
+    public List<BookingLineResult> createBookings(List<BookingLine> lines) {
+        // Prefetch every user and event with one IN query each
+        Map<Long, User> users = new HashMap<>();
+        userService.findAllById(lines.stream().map(BookingLine::getUserId).collect(Collectors.toSet()))
+                .forEach(user -> users.put(user.getId(), user));
+        Map<Long, Event> events = new HashMap<>();
+        eventService.getEventsByIds(lines.stream().map(BookingLine::getEventId).collect(Collectors.toSet()))
+                .forEach(event -> events.put(event.getId(), event));
+
+        BookingLineResult[] results = new BookingLineResult[lines.size()];
+        Map<Long, List<Integer>> linesByEvent = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            BookingLine line = lines.get(i);
+            if (line.getTickets() == null || line.getTickets() <= 0) {
+                results[i] = BookingLineResult.failed("Number of tickets must be positive");
+            } else if (!users.containsKey(line.getUserId())) {
+                results[i] = BookingLineResult.failed("User not found");
+            } else if (!events.containsKey(line.getEventId())) {
+                results[i] = BookingLineResult.failed("Event not found");
+            } else {
+                linesByEvent.computeIfAbsent(line.getEventId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Booking> bookings = new ArrayList<>();
+        linesByEvent.forEach((eventId, indexes) -> {
+            Event event = events.get(eventId);
+            int eventTickets = indexes.stream().mapToInt(i -> lines.get(i).getTickets()).sum();
+
+            // One reservation per event, falling back to one per line when they do not all fit
+            int ticketsSold = ticketInventoryService.reserve(event, eventTickets);
+            int soldBefore = ticketsSold - eventTickets;
+            for (int i : indexes) {
+                BookingLine line = lines.get(i);
+                if (ticketsSold < 0) {
+                    int sold = ticketInventoryService.reserve(event, line.getTickets());
+                    if (sold < 0) {
+                        results[i] = BookingLineResult.failed("Not enough tickets available. Available: "
+                                + ticketInventoryService.getAvailableTickets(event));
+                        continue;
+                    }
+                    soldBefore = sold - line.getTickets();
+                }
+
+                BigDecimal unitPrice = pricingService.calculateCurrentPrice(
+                        event, soldBefore, event.getTotalTickets());
+                Booking booking = buildBooking(users.get(line.getUserId()), event, line.getTickets(), unitPrice);
+                bookings.add(booking);
+                salesVelocityTracker.record(eventId, line.getTickets());
+                typeaheadIndex.recordSale(eventId, line.getTickets());
+                eventCatalog.recordSale(event, line.getTickets());
+                results[i] = BookingLineResult.booked(booking);
+                soldBefore += line.getTickets();
+            }
+        });
+
+        // Inserted as JDBC batches (see hibernate.jdbc.batch_size), ticket codes are signed once ids are assigned
+        bookingRepository.saveAll(bookings);
+        bookings.forEach(booking -> {
+            booking.setQrCode(ticketCodeService.sign(booking));
+            admissionJournal.record(booking.getEvent().getId(), booking.getId(),
+                    AdmissionJournal.ChangeType.ADDED, booking.getTicketsBooked());
+        });
+        return Arrays.asList(results);
+    }
+
+    // Save a booking for tickets that are already reserved
+    Booking saveBooking(User user, Event event, Integer tickets, BigDecimal unitPrice) {
+        // Count the tickets towards the event's sales velocity once this commits
+        salesVelocityTracker.record(event.getId(), tickets);
+        typeaheadIndex.recordSale(event.getId(), tickets);
+        eventCatalog.recordSale(event, tickets);
+
+        // Save booking (tickets sold and current price are written behind by the inventory)
+        Booking booking = bookingRepository.save(buildBooking(user, event, tickets, unitPrice));
+
+        // Sign the ticket code now that the booking has its id
+        booking.setQrCode(ticketCodeService.sign(booking));
+        admissionJournal.record(event.getId(), booking.getId(), AdmissionJournal.ChangeType.ADDED, tickets);
+        return booking;
+    }
 
-        // Save booking
-        Booking savedBooking = bookingRepository.save(booking);
+    private Booking buildBooking(User user, Event event, Integer tickets, BigDecimal unitPrice) {
+        BigDecimal totalAmount = unitPrice.multiply(BigDecimal.valueOf(tickets));
 
-        // Update event tickets sold and current price
-        event.setTicketsSold(event.getTicketsSold() + ticketsRequested);
-        event.setCurrentPrice(pricingService.calculateCurrentPrice(event));
-        eventService.updateEvent(event);
+        // Create booking
+        return new Booking(user, event, tickets, totalAmount);
+    }
 
-        return savedBooking;
+    // Get a page of bookings, newest first, starting after the cursor of the previous page
+    public KeysetPage<Booking> getBookingsPage(String after, Integer limit) {
+        int pageSize = KeysetPage.pageSize(limit);
+        List<Booking> bookings = after == null || after.isBlank()
+                ? bookingRepository.findRecentBookings(Limit.of(pageSize + 1))
+                : bookingRepository.findRecentBookingsBefore(KeysetPage.timeOf(after), KeysetPage.idOf(after),
+                        Limit.of(pageSize + 1));
+        return KeysetPage.of(bookings, pageSize,
+                booking -> KeysetPage.cursorOf(booking.getBookingDate(), booking.getId()));
     }
 
-    // Get all bookings
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    // Pass every booking, with its event and user, to the action in id order without holding them all in memory
+    @Transactional(readOnly = true)
+    public void forEachBooking(Consumer<Booking> action) {
+        try (Stream<Booking> bookings = bookingRepository.streamAllWithEventAndUser()) {
+            int[] streamed = {0};
+            bookings.forEach(booking -> {
+                action.accept(booking);
+                if (++streamed[0] % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
     }
 
     // Get booking by ID
@@ -119,11 +260,15 @@ public class BookingService {
         // Update booking status
         booking.setStatus(BookingStatus.CANCELLED);
 
-        // Update event tickets sold
-        Event event = booking.getEvent();
-        event.setTicketsSold(event.getTicketsSold() - booking.getTicketsBooked());
-        event.setCurrentPrice(pricingService.calculateCurrentPrice(event));
-        eventService.updateEvent(event);
+        // Return tickets to the inventory
+        ticketInventoryService.release(booking.getEvent(), booking.getTicketsBooked());
+        salesVelocityTracker.recordCancellation(booking.getEvent().getId(), booking.getTicketsBooked(),
+                booking.getBookingDate());
+        typeaheadIndex.recordSale(booking.getEvent().getId(), -booking.getTicketsBooked());
+        eventCatalog.recordSale(booking.getEvent(), -booking.getTicketsBooked());
+        ticketCodeService.revoke(booking.getId());
+        admissionJournal.record(booking.getEvent().getId(), booking.getId(),
+                AdmissionJournal.ChangeType.REVOKED, booking.getTicketsBooked());
 
         return bookingRepository.save(booking);
     }
@@ -142,18 +287,26 @@ public class BookingService {
 
     // Verify QR code for entry
     public boolean verifyQRCodeForEntry(String qrCode) {
-        System.out.println("DEBUG: Verifying QR Code: " + qrCode);
+        return verifyTicketCode(qrCode).isValid();
+    }
 
-        Optional<Booking> bookingOpt = bookingRepository.findByQrCode(qrCode);
+    // Verify a ticket code, signed codes are checked in memory without a database query
+    public TicketCodeService.Verification verifyTicketCode(String qrCode) {
+        TicketCodeService.Verification verification = ticketCodeService.verify(qrCode);
+        if (verification.getResult() != TicketCodeService.Result.MALFORMED) {
+            return verification;
+        }
 
-        if (bookingOpt.isPresent()) {
-            Booking booking = bookingOpt.get();
-            System.out.println("DEBUG: Found booking with status: " + booking.getStatus());
-            return booking.getStatus() == BookingStatus.CONFIRMED;
-        } else {
-            System.out.println("DEBUG: No booking found for QR code");
-            return false;
+        // Codes issued before signed ticket codes are still looked up by value
+        Optional<Booking> bookingOpt = bookingRepository.findByQrCode(qrCode);
+        if (bookingOpt.isEmpty()) {
+            return verification;
         }
+        Booking booking = bookingOpt.get();
+        return new TicketCodeService.Verification(
+                booking.getStatus() == BookingStatus.CONFIRMED
+                        ? TicketCodeService.Result.VALID : TicketCodeService.Result.REVOKED,
+                booking.getId(), booking.getEvent().getId(), booking.getTicketsBooked(), null);
     }
 
     // Get confirmed bookings by user
@@ -167,15 +320,39 @@ public class BookingService {
         return revenue != null ? revenue : BigDecimal.ZERO;
     }
 
+    // Count bookings per status, zero for statuses without any
+    public Map<BookingStatus, Long> getBookingCountsByStatus() {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        for (BookingStatus status : BookingStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : bookingRepository.countBookingsGroupedByStatus()) {
+            counts.put((BookingStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // Get total tickets of confirmed bookings
+    public long getTotalTicketsSold() {
+        Long tickets = bookingRepository.getTotalTicketsSold();
+        return tickets != null ? tickets : 0;
+    }
+
+    // Get average value of confirmed bookings
+    public double getAverageBookingValue() {
+        Double average = bookingRepository.getAverageBookingValue();
+        return average != null ? average : 0.0;
+    }
+
     // Get revenue by user
     public BigDecimal getRevenueByUser(Long userId) {
         BigDecimal revenue = bookingRepository.getTotalRevenueByUserId(userId);
         return revenue != null ? revenue : BigDecimal.ZERO;
     }
 
-    // Get recent bookings
-    public List<Booking> getRecentBookings() {
-        return bookingRepository.findRecentBookings();
+    // Get the most recent bookings
+    public List<Booking> getRecentBookings(int limit) {
+        return bookingRepository.findRecentBookings(Limit.of(Math.max(1, Math.min(limit, KeysetPage.MAX_PAGE_SIZE))));
     }
 
     // Check if user has booked event
@@ -188,34 +365,6 @@ public class BookingService {
         return bookingRepository.findByBookingDateBetween(startDate, endDate);
     }
 
-    // Generate QR code data
-    private String generateQRCodeData(Booking booking) {
-        return String.format("BOOKING_%s_USER_%d_EVENT_%d_TICKETS_%d_REF_%s",
-                booking.getId(),
-                booking.getUser().getId(),
-                booking.getEvent().getId(),
-                booking.getTicketsBooked(),
-                booking.getBookingReference());
-    }
-
-    // Generate QR code image as Base64 string
-    public String generateQRCodeImage(String qrCodeData) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(qrCodeData, BarcodeFormat.QR_CODE, 300, 300);
-
-            BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(qrImage, "PNG", baos);
-            byte[] imageBytes = baos.toByteArray();
-
-            return Base64.getEncoder().encodeToString(imageBytes);
-        } catch (WriterException | java.io.IOException e) {
-            throw new RuntimeException("Failed to generate QR code", e);
-        }
-    }
-
     // Validate booking data
     private void validateBookingData(User user, Event event, Integer ticketsRequested) {
         if (user == null) {
@@ -231,4 +380,60 @@ public class BookingService {
             throw new IllegalArgumentException("Not enough tickets available");
         }
     }
-}
\ No newline at end of file
+
+    // One line of a batch booking request
+    public static class BookingLine {
+        private final Long userId;
+        private final Long eventId;
+        private final Integer tickets;
+
+        public BookingLine(Long userId, Long eventId, Integer tickets) {
+            this.userId = userId;
+            this.eventId = eventId;
+            this.tickets = tickets;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public Integer getTickets() {
+            return tickets;
+        }
+    }
+
+    // Result of one line of a batch booking request
+    public static class BookingLineResult {
+        private final Booking booking;
+        private final String message;
+
+        private BookingLineResult(Booking booking, String message) {
+            this.booking = booking;
+            this.message = message;
+        }
+
+        static BookingLineResult booked(Booking booking) {
+            return new BookingLineResult(booking, "Booking created successfully");
+        }
+
+        static BookingLineResult failed(String message) {
+            return new BookingLineResult(null, message);
+        }
+
+        public boolean isSuccess() {
+            return booking != null;
+        }
+
+        public Booking getBooking() {
+            return booking;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.BookingStatus;
+import com.eventbooking.repository.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Gate check-in: a scan verifies the signed ticket code and admits with one CAS in an in-memory admission index
+// Admissions are written behind to bookings.checked_in_at, and the earliest scan of a ticket wins
+@Service
+public class CheckInService {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Value("${booking.checkin.flush-batch-size:500}")
+    private int flushBatchSize = 500;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TicketCodeService ticketCodeService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AdmissionJournal admissionJournal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, AdmissionIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Admission> pending = new ConcurrentLinkedQueue<>();
+
+    // Load an event's confirmed bookings before doors open (replaces an index already loaded)
+    public int openEvent(Long eventId) {
+        AdmissionIndex index = load(eventId);
+        indexes.put(eventId, index);
+        System.out.println("🚪 Check-in open for event " + eventId + ": " + index.size() + " bookings indexed");
+        return index.size();
+    }
+
+    // Drop an event's index once doors close (admissions already queued are still written)
+    public void closeEvent(Long eventId) {
+        indexes.remove(eventId);
+    }
+
+    // Scan a ticket at a gate, the gate's event (if given) must match the ticket's
+    public ScanResult scan(String qrCode, Long gateEventId) {
+        return admit(bookingService.verifyTicketCode(qrCode), gateEventId, System.currentTimeMillis(), false);
+    }
+
+    // Apply a scan a gate made while offline, judged as of the time it was made
+    public ScanResult reconcile(String qrCode, Long gateEventId, long scannedAtMillis) {
+        TicketCodeService.Verification verification = bookingService.verifyTicketCode(qrCode);
+        if (verification.getResult() == TicketCodeService.Result.EXPIRED
+                && !toDateTime(scannedAtMillis).toLocalDate().isAfter(verification.getLastValidDay())) {
+            verification = verification.withResult(ticketCodeService.isRevoked(verification.getBookingId())
+                    ? TicketCodeService.Result.REVOKED : TicketCodeService.Result.VALID);
+        }
+        return admit(verification, gateEventId, scannedAtMillis, true);
+    }
+
+    // Admit a verified ticket at a time, the first scan wins (or the earliest, for offline scans)
+    private ScanResult admit(TicketCodeService.Verification verification, Long gateEventId, long at,
+                             boolean earliestWins) {
+        if (!verification.isValid()) {
+            return ScanResult.rejected(ScanStatus.INVALID, verification, null,
+                    "Invalid ticket (" + verification.getResult() + ")");
+        }
+        Long eventId = verification.getEventId();
+        if (gateEventId != null && !gateEventId.equals(eventId)) {
+            return ScanResult.rejected(ScanStatus.WRONG_EVENT, verification, null, "Ticket is for another event");
+        }
+
+        AdmissionIndex index = indexes.computeIfAbsent(eventId, this::load);
+        long admittedAt = index.admit(verification.getBookingId(), at, earliestWins);
+        if (admittedAt == AdmissionIndex.NOT_INDEXED) {
+            admittedAt = admitLate(index, verification, at, earliestWins);
+        }
+
+        if (admittedAt == AdmissionIndex.NOT_INDEXED) {
+            return ScanResult.rejected(ScanStatus.NOT_FOUND, verification, null, "No confirmed booking for this ticket");
+        }
+        if (admittedAt != AdmissionIndex.ADMITTED) {
+            return ScanResult.rejected(ScanStatus.ALREADY_CHECKED_IN, verification, toDateTime(admittedAt),
+                    "Ticket already checked in");
+        }
+        pending.add(new Admission(verification.getBookingId(), at));
+        admissionJournal.record(eventId, verification.getBookingId(), AdmissionJournal.ChangeType.CHECKED_IN,
+                verification.getTickets());
+        return new ScanResult(ScanStatus.ADMITTED, verification.getBookingId(), eventId,
+                verification.getTickets(), toDateTime(at), "Entry allowed");
+    }
+
+    // Bookings this node has admitted for an event, including admissions not yet written behind
+    public List<Long> admittedBookingIds(Long eventId) {
+        List<Long> admitted = new ArrayList<>();
+        AdmissionIndex index = indexes.get(eventId);
+        if (index == null) {
+            return admitted;
+        }
+        for (int slot = 0; slot < index.bookingIds.length; slot++) {
+            if (index.bookingIds[slot] != 0 && index.admittedAt.get(slot) != 0) {
+                admitted.add(index.bookingIds[slot]);
+            }
+        }
+        index.late.forEach((bookingId, admittedAt) -> {
+            if (admittedAt.get() != 0) {
+                admitted.add(bookingId);
+            }
+        });
+        return admitted;
+    }
+
+    // Get admission counts for an event
+    public Map<String, Object> getStats(Long eventId) {
+        Map<String, Object> stats = new HashMap<>();
+        AdmissionIndex index = indexes.get(eventId);
+        stats.put("eventId", eventId);
+        stats.put("open", index != null);
+        stats.put("bookings", index == null ? 0 : index.size());
+        stats.put("admittedBookings", index == null ? 0 : index.admittedBookings.get());
+        stats.put("admittedTickets", index == null ? 0 : index.admittedTickets.get());
+        stats.put("pendingWrites", pending.size());
+        return stats;
+    }
+
+    // Write queued admissions behind to the bookings table
+    @Scheduled(fixedDelayString = "${booking.checkin.flush-interval-ms:200}")
+    public void flush() {
+        List<Admission> batch = new ArrayList<>();
+        Admission admission;
+        while ((admission = pending.poll()) != null) {
+            batch.add(admission);
+            if (batch.size() == flushBatchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<Admission> batch) {
+        try {
+            // The earliest scan wins here too, a scan from another node is only replaced by an earlier one
+            jdbcTemplate.batchUpdate("UPDATE bookings SET checked_in_at = ? WHERE id = ?"
+                            + " AND (checked_in_at IS NULL OR checked_in_at > ?)",
+                    batch, batch.size(), (statement, admission) -> {
+                        Timestamp admittedAt = Timestamp.from(Instant.ofEpochMilli(admission.admittedAtMillis));
+                        statement.setTimestamp(1, admittedAt);
+                        statement.setLong(2, admission.bookingId);
+                        statement.setTimestamp(3, admittedAt);
+                    });
+        } catch (RuntimeException e) {
+            // Keep the admissions queued so the next flush retries them
+            pending.addAll(batch);
+            throw e;
+        }
+    }
+
+    private AdmissionIndex load(Long eventId) {
+        return new AdmissionIndex(bookingRepository.findAdmissionsByEventId(eventId));
+    }
+
+    // A booking made after the index was loaded, looked up once and then admitted in memory
+    private long admitLate(AdmissionIndex index, TicketCodeService.Verification verification, long at,
+                           boolean earliestWins) {
+        Long eventId = verification.getEventId();
+        AtomicLong admittedAt = index.late.computeIfAbsent(verification.getBookingId(), id -> {
+            Optional<Booking> bookingOpt = bookingService.getBookingById(id);
+            if (bookingOpt.isEmpty() || bookingOpt.get().getStatus() != BookingStatus.CONFIRMED
+                    || !eventId.equals(bookingOpt.get().getEvent().getId())) {
+                return null;
+            }
+            LocalDateTime checkedInAt = bookingOpt.get().getCheckedInAt();
+            return new AtomicLong(checkedInAt == null ? 0 : toMillis(checkedInAt));
+        });
+        if (admittedAt == null) {
+            return AdmissionIndex.NOT_INDEXED;
+        }
+        long current = admittedAt.get();
+        while (current == 0 || (earliestWins && at < current)) {
+            if (admittedAt.compareAndSet(current, at)) {
+                if (current == 0) {
+                    index.admittedBookings.incrementAndGet();
+                    index.admittedTickets.addAndGet(verification.getTickets());
+                }
+                return AdmissionIndex.ADMITTED;
+            }
+            current = admittedAt.get();
+        }
+        return current;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    // Booking ids in a power-of-two open-addressing table (0 marks an empty slot) with ticket counts and admission times,
+    // built once and never resized, so lookups need no locking
+    private static final class AdmissionIndex {
+        private static final long ADMITTED = 0;
+        private static final long NOT_INDEXED = -1;
+
+        private final long[] bookingIds;
+        private final int[] tickets;
+        private final AtomicLongArray admittedAt;
+        private final int mask;
+        private final int size;
+        private final AtomicInteger admittedBookings = new AtomicInteger();
+        private final AtomicInteger admittedTickets = new AtomicInteger();
+        private final ConcurrentHashMap<Long, AtomicLong> late = new ConcurrentHashMap<>();
+
+        private AdmissionIndex(List<Object[]> rows) {
+            int capacity = Integer.highestOneBit(Math.max(16, rows.size() * 2) - 1) << 1;
+            bookingIds = new long[capacity];
+            tickets = new int[capacity];
+            admittedAt = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+            size = rows.size();
+            for (Object[] row : rows) {
+                long bookingId = (Long) row[0];
+                int slot = home(bookingId);
+                while (bookingIds[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                bookingIds[slot] = bookingId;
+                tickets[slot] = (Integer) row[1];
+                if (row[2] != null) {
+                    admittedAt.set(slot, toMillis((LocalDateTime) row[2]));
+                    admittedBookings.incrementAndGet();
+                    admittedTickets.addAndGet(tickets[slot]);
+                }
+            }
+        }
+
+        // Admit a booking: ADMITTED if this scan won, otherwise the time of the scan that did
+        private long admit(long bookingId, long at, boolean earliestWins) {
+            int slot = home(bookingId);
+            while (bookingIds[slot] != bookingId) {
+                if (bookingIds[slot] == 0) {
+                    return NOT_INDEXED;
+                }
+                slot = (slot + 1) & mask;
+            }
+            long current = admittedAt.get(slot);
+            while (current == 0 || (earliestWins && at < current)) {
+                if (admittedAt.compareAndSet(slot, current, at)) {
+                    if (current == 0) {
+                        admittedBookings.incrementAndGet();
+                        admittedTickets.addAndGet(tickets[slot]);
+                    }
+                    return ADMITTED;
+                }
+                current = admittedAt.get(slot);
+            }
+            return current;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        // Sequential ids would cluster, spread them before masking
+        private int home(long bookingId) {
+            long hash = bookingId * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    private static final class Admission {
+        private final long bookingId;
+        private final long admittedAtMillis;
+
+        private Admission(long bookingId, long admittedAtMillis) {
+            this.bookingId = bookingId;
+            this.admittedAtMillis = admittedAtMillis;
+        }
+    }
+
+    public enum ScanStatus {
+        ADMITTED,
+        ALREADY_CHECKED_IN,
+        WRONG_EVENT,
+        NOT_FOUND,
+        INVALID
+    }
+
+    // Outcome of one gate scan
+    public static class ScanResult {
+        private final ScanStatus status;
+        private final Long bookingId;
+        private final Long eventId;
+        private final Integer tickets;
+        private final LocalDateTime checkedInAt;
+        private final String message;
+
+        public ScanResult(ScanStatus status, Long bookingId, Long eventId, Integer tickets,
+                          LocalDateTime checkedInAt, String message) {
+            this.status = status;
+            this.bookingId = bookingId;
+            this.eventId = eventId;
+            this.tickets = tickets;
+            this.checkedInAt = checkedInAt;
+            this.message = message;
+        }
+
+        private static ScanResult rejected(ScanStatus status, TicketCodeService.Verification verification,
+                                           LocalDateTime checkedInAt, String message) {
+            return new ScanResult(status, verification.getBookingId(), verification.getEventId(),
+                    verification.getTickets(), checkedInAt, message);
+        }
+
+        public boolean isAdmitted() {
+            return status == ScanStatus.ADMITTED;
+        }
+
+        public ScanStatus getStatus() {
+            return status;
+        }
+
+        public Long getBookingId() {
+            return bookingId;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public Integer getTickets() {
+            return tickets;
+        }
+
+        public LocalDateTime getCheckedInAt() {
+            return checkedInAt;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,596 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.repository.EventRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Columnar in-memory snapshot of the events behind GET /api/events/query, filtered, faceted and keyset paged in one pass
+// Rows follow event changes and ticket sales once they commit
+@Component
+public class EventCatalog {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_TAG_FACETS = 20;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private PricingService pricingService;
+
+    // Upper bounds of the price facet buckets, in whole currency units
+    @Value("${booking.catalog.price-buckets:500,1000,2000,5000}")
+    private long[] priceBuckets = {500, 1000, 2000, 5000};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock: the columns, a row per event (0 in ids marks a free row)
+    private int[] ids = new int[1024];
+    private int[] days = new int[1024];
+    private byte[] types = new byte[1024];
+    private int[] locations = new int[1024];
+    private long[] priceCents = new long[1024];
+    private byte[] priceBucketIds = new byte[1024];
+    private int[] totals = new int[1024];
+    private int[] solds = new int[1024];
+    private int rowCount;
+    private final HashMap<Long, Integer> rows = new HashMap<>();
+    private final ArrayDeque<Integer> freeRows = new ArrayDeque<>();
+
+    // Distinct locations (lowercase), so a location filter is matched once per location rather than per row
+    private final HashMap<String, Integer> locationIds = new HashMap<>();
+    private final List<String> locationNames = new ArrayList<>();
+
+    // Load every event once the sample data is loaded
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Event> events = eventRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            for (Event event : events) {
+                put(new Row(event));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("🗂️ Event catalogue loaded: " + events.size() + " events");
+    }
+
+    // Add or replace an event's row, applied once the current transaction commits
+    public void index(Event event) {
+        if (event.getId() == null) {
+            return;
+        }
+        // Copied now, so later changes to the entity do not leak into the catalogue
+        Row row = new Row(event);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                put(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Remove an event's row, applied once the current transaction commits
+    public void remove(Long eventId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer row = rows.remove(eventId);
+                if (row != null) {
+                    ids[row] = 0;
+                    freeRows.push(row);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Count booked (positive) or cancelled (negative) tickets and reprice the event, once the current transaction commits
+    public void recordSale(Event event, int tickets) {
+        if (event == null || event.getId() == null || tickets == 0) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            int sold;
+            int total;
+            lock.readLock().lock();
+            try {
+                Integer row = rows.get(event.getId());
+                if (row == null) {
+                    return;
+                }
+                total = totals[row];
+                sold = Math.max(0, Math.min(total, solds[row] + tickets));
+            } finally {
+                lock.readLock().unlock();
+            }
+            long price = toCents(pricingService.calculateCurrentPrice(event, sold, total));
+            lock.writeLock().lock();
+            try {
+                Integer row = rows.get(event.getId());
+                if (row != null) {
+                    solds[row] = Math.max(0, Math.min(totals[row], solds[row] + tickets));
+                    priceCents[row] = price;
+                    priceBucketIds[row] = (byte) priceBucket(price);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // One page of events matching the filter, in (date, id) order after the cursor, with facet counts if asked
+    public Page query(Filter filter, String after, int limit, boolean withFacets) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterKey = after == null || after.isBlank() ? Long.MIN_VALUE : parseCursor(after);
+        int typeMask = typeMask(filter.getTypes());
+        int fromDay = filter.getFrom() == null ? Integer.MIN_VALUE : (int) filter.getFrom().toEpochDay();
+        int toDay = filter.getTo() == null ? Integer.MAX_VALUE : (int) filter.getTo().toEpochDay();
+        long minCents = filter.getMinPrice() == null ? Long.MIN_VALUE : toCents(filter.getMinPrice());
+        long maxCents = filter.getMaxPrice() == null ? Long.MAX_VALUE : toCents(filter.getMaxPrice());
+        boolean availableOnly = filter.isAvailableOnly();
+        RoaringBitmap tagMatches = null;
+        if (!filter.getTags().isEmpty()) {
+            List<String> names = TagService.normalize(String.join(",", filter.getTags()));
+            tagMatches = filter.isMatchAllTags() ? tagIndex.matchAll(names) : tagIndex.matchAny(names);
+        }
+
+        int[] typeCounts = new int[EventType.values().length];
+        int[] priceCounts = new int[priceBuckets.length + 1];
+        int matched = 0;
+        int[] matchedIds = withFacets ? new int[64] : null;
+        // Max-heap of the smallest (date, id) keys after the cursor, one more than a page to tell if there is more
+        long[] heap = new long[pageSize + 1];
+        int heapSize = 0;
+
+        lock.readLock().lock();
+        try {
+            BitSet locationMatches = matchLocations(filter.getLocation());
+            // Columns in locals: the loop calls out to the bitmaps, so fields would be read again for every row
+            int[] ids = this.ids;
+            int[] days = this.days;
+            byte[] types = this.types;
+            int[] locations = this.locations;
+            long[] priceCents = this.priceCents;
+            byte[] priceBucketIds = this.priceBucketIds;
+            int[] totals = this.totals;
+            int[] solds = this.solds;
+            int rowCount = this.rowCount;
+            for (int row = 0; row < rowCount; row++) {
+                int id = ids[row];
+                int day = days[row];
+                // Non-short-circuit operators keep these checks free of hard-to-predict branches; free rows have id 0
+                if ((id == 0) | (day < fromDay) | (day > toDay) | (availableOnly & solds[row] >= totals[row])) {
+                    continue;
+                }
+                if ((locationMatches != null && !locationMatches.get(locations[row]))
+                        || (tagMatches != null && !tagMatches.contains(id))) {
+                    continue;
+                }
+                long price = priceCents[row];
+                int type = types[row];
+                boolean priceMatches = (price >= minCents) & (price <= maxCents);
+                boolean typeMatches = (typeMask & (1 << type)) != 0;
+                if (withFacets) {
+                    if (priceMatches) {
+                        typeCounts[type]++;
+                    }
+                    if (typeMatches) {
+                        priceCounts[priceBucketIds[row]]++;
+                    }
+                }
+                if (!(priceMatches & typeMatches)) {
+                    continue;
+                }
+
+                if (withFacets) {
+                    if (matched == matchedIds.length) {
+                        matchedIds = Arrays.copyOf(matchedIds, matched * 2);
+                    }
+                    matchedIds[matched] = id;
+                }
+                matched++;
+                long key = ((long) day << 32) | id;
+                if (key <= afterKey) {
+                    continue;
+                }
+                if (heapSize <= pageSize) {
+                    heap[heapSize] = key;
+                    siftUp(heap, heapSize++);
+                } else if (key < heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, heapSize);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long[] keys = Arrays.copyOf(heap, heapSize);
+        Arrays.sort(keys);
+        boolean hasMore = keys.length > pageSize;
+        List<Long> eventIds = new ArrayList<>(Math.min(keys.length, pageSize));
+        for (int i = 0; i < keys.length && i < pageSize; i++) {
+            eventIds.add(keys[i] & 0xFFFFFFFFL);
+        }
+        String nextCursor = hasMore ? cursorOf(keys[pageSize - 1]) : null;
+
+        Facets facets = null;
+        if (withFacets) {
+            Map<EventType, Integer> byType = new EnumMap<>(EventType.class);
+            for (EventType type : EventType.values()) {
+                byType.put(type, typeCounts[type.ordinal()]);
+            }
+            List<PriceBucket> byPrice = new ArrayList<>(priceCounts.length);
+            for (int i = 0; i < priceCounts.length; i++) {
+                BigDecimal min = i == 0 ? null : BigDecimal.valueOf(priceBuckets[i - 1]);
+                BigDecimal max = i == priceBuckets.length ? null : BigDecimal.valueOf(priceBuckets[i]);
+                byPrice.add(new PriceBucket(min, max, priceCounts[i]));
+            }
+            RoaringBitmap matches = RoaringBitmap.bitmapOfUnordered(Arrays.copyOf(matchedIds, matched));
+            facets = new Facets(byType, byPrice, tagIndex.facets(matches, MAX_TAG_FACETS));
+        }
+        return new Page(eventIds, nextCursor, matched, facets);
+    }
+
+    // Get catalogue size
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("events", rows.size());
+            stats.put("locations", locationNames.size());
+            stats.put("columnBytes", (long) ids.length * (4 + 4 + 1 + 4 + 8 + 1 + 4 + 4));
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Row event) {
+        Integer row = rows.get((long) event.id);
+        if (row == null) {
+            row = freeRows.isEmpty() ? rowCount++ : freeRows.pop();
+            if (row == ids.length) {
+                grow();
+            }
+            rows.put((long) event.id, row);
+        }
+        ids[row] = event.id;
+        days[row] = event.day;
+        types[row] = (byte) event.type.ordinal();
+        locations[row] = locationIds.computeIfAbsent(event.location, location -> {
+            locationNames.add(location);
+            return locationNames.size() - 1;
+        });
+        priceCents[row] = event.priceCents;
+        priceBucketIds[row] = (byte) priceBucket(event.priceCents);
+        totals[row] = event.total;
+        solds[row] = event.sold;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        days = Arrays.copyOf(days, capacity);
+        types = Arrays.copyOf(types, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        priceBucketIds = Arrays.copyOf(priceBucketIds, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        solds = Arrays.copyOf(solds, capacity);
+    }
+
+    // Ids of the locations containing the text (case-insensitive), null to match any
+    private BitSet matchLocations(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        String text = location.trim().toLowerCase(Locale.ROOT);
+        BitSet matches = new BitSet(locationNames.size());
+        for (int i = 0; i < locationNames.size(); i++) {
+            if (locationNames.get(i).contains(text)) {
+                matches.set(i);
+            }
+        }
+        return matches;
+    }
+
+    private int priceBucket(long cents) {
+        int bucket = 0;
+        while (bucket < priceBuckets.length && cents >= priceBuckets[bucket] * 100) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static int typeMask(Set<EventType> types) {
+        if (types.isEmpty()) {
+            return -1;
+        }
+        int mask = 0;
+        for (EventType type : types) {
+            mask |= 1 << type.ordinal();
+        }
+        return mask;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Cursors are the last row's date and id, e.g. 2025-06-15_42
+    private static String cursorOf(long key) {
+        return LocalDate.ofEpochDay(key >> 32) + "_" + (key & 0xFFFFFFFFL);
+    }
+
+    private static long parseCursor(String cursor) {
+        int separator = cursor.lastIndexOf('_');
+        try {
+            long day = LocalDate.parse(cursor.substring(0, Math.max(0, separator))).toEpochDay();
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw new NumberFormatException();
+            }
+            return (day << 32) | id;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    // The fields of an event the catalogue keeps
+    private static final class Row {
+        private final int id;
+        private final int day;
+        private final EventType type;
+        private final String location;
+        private final long priceCents;
+        private final int total;
+        private final int sold;
+
+        private Row(Event event) {
+            // Ids are ints in the tag bitmaps and the low half of a row's (date, id) key
+            if (event.getId() <= 0 || event.getId() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Event id out of range for the catalogue: " + event.getId());
+            }
+            id = event.getId().intValue();
+            day = event.getDate() == null ? 0 : (int) event.getDate().toEpochDay();
+            type = event.getType() == null ? EventType.values()[0] : event.getType();
+            location = event.getLocation() == null ? "" : event.getLocation().trim().toLowerCase(Locale.ROOT);
+            BigDecimal price = event.getCurrentPrice() != null ? event.getCurrentPrice() : event.getBasePrice();
+            priceCents = price == null ? 0 : toCents(price);
+            total = event.getTotalTickets() == null ? 0 : event.getTotalTickets();
+            sold = event.getTicketsSold() == null ? 0 : event.getTicketsSold();
+        }
+    }
+
+    // Filters of a catalogue query, each left unset matches everything
+    public static class Filter {
+        private Set<EventType> types = EnumSet.noneOf(EventType.class);
+        private LocalDate from;
+        private LocalDate to;
+        private String location;
+        private List<String> tags = Collections.emptyList();
+        private boolean matchAllTags = true;
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private boolean availableOnly;
+
+        public Set<EventType> getTypes() {
+            return types;
+        }
+
+        public void setTypes(Set<EventType> types) {
+            this.types = types;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public void setFrom(LocalDate from) {
+            this.from = from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public void setTo(LocalDate to) {
+            this.to = to;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public boolean isMatchAllTags() {
+            return matchAllTags;
+        }
+
+        public void setMatchAllTags(boolean matchAllTags) {
+            this.matchAllTags = matchAllTags;
+        }
+
+        public BigDecimal getMinPrice() {
+            return minPrice;
+        }
+
+        public void setMinPrice(BigDecimal minPrice) {
+            this.minPrice = minPrice;
+        }
+
+        public BigDecimal getMaxPrice() {
+            return maxPrice;
+        }
+
+        public void setMaxPrice(BigDecimal maxPrice) {
+            this.maxPrice = maxPrice;
+        }
+
+        public boolean isAvailableOnly() {
+            return availableOnly;
+        }
+
+        public void setAvailableOnly(boolean availableOnly) {
+            this.availableOnly = availableOnly;
+        }
+    }
+
+    // A page of event ids, the cursor for the next one (null on the last page) and facet counts
+    public static class Page {
+        private final List<Long> eventIds;
+        private final String nextCursor;
+        private final int matched;
+        private final Facets facets;
+
+        public Page(List<Long> eventIds, String nextCursor, int matched, Facets facets) {
+            this.eventIds = eventIds;
+            this.nextCursor = nextCursor;
+            this.matched = matched;
+            this.facets = facets;
+        }
+
+        public List<Long> getEventIds() {
+            return eventIds;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public int getMatched() {
+            return matched;
+        }
+
+        public Facets getFacets() {
+            return facets;
+        }
+    }
+
+    // Event counts per type, price bucket and tag
+    public static class Facets {
+        private final Map<EventType, Integer> types;
+        private final List<PriceBucket> prices;
+        private final List<TagIndex.TagCount> tags;
+
+        public Facets(Map<EventType, Integer> types, List<PriceBucket> prices, List<TagIndex.TagCount> tags) {
+            this.types = types;
+            this.prices = prices;
+            this.tags = tags;
+        }
+
+        public Map<EventType, Integer> getTypes() {
+            return types;
+        }
+
+        public List<PriceBucket> getPrices() {
+            return prices;
+        }
+
+        public List<TagIndex.TagCount> getTags() {
+            return tags;
+        }
+    }
+
+    // Events priced from min (inclusive, null for no lower bound) up to max (exclusive, null for no upper bound)
+    public static class PriceBucket {
+        private final BigDecimal min;
+        private final BigDecimal max;
+        private final int count;
+
+        public PriceBucket(BigDecimal min, BigDecimal max, int count) {
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public BigDecimal getMin() {
+            return min;
+        }
+
+        public BigDecimal getMax() {
+            return max;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory full-text index over event name, description, location and tags, ranked with BM25 and MaxScore pruning
+// Updated events get a new doc id and the old one is marked deleted, compacted once a quarter are dead
+@Component
+public class EventSearchIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int TAGS_WEIGHT = 2;
+    private static final int LOCATION_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int MIN_DOCS_TO_COMPACT = 1024;
+
+    // Postings keep the term frequency in the low bits and the doc length above it
+    private static final int TF_BITS = 8;
+    private static final int MAX_TF = (1 << TF_BITS) - 1;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "to", "with", "your", "you", "our", "this", "that", "all");
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final HashMap<String, Term> postings = new HashMap<>();
+    private final HashMap<Long, Integer> docIds = new HashMap<>();
+    private long[] eventIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int deletedCount;
+    private long totalLength;
+
+    // Index every event once the sample data is loaded
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Event> events = eventRepository.findAll();
+        for (Event event : events) {
+            indexNow(event.getId(), terms(event));
+        }
+        System.out.println("🔎 Search index built: " + events.size() + " events, " + termCount() + " terms");
+    }
+
+    // Add or replace an event, applied once the current transaction commits
+    public void index(Event event) {
+        if (event.getId() == null) {
+            return;
+        }
+        // Analyzed now, so later changes to the entity do not leak into the index
+        Long eventId = event.getId();
+        Map<String, Integer> terms = terms(event);
+        TransactionHooks.afterCommit(() -> indexNow(eventId, terms));
+    }
+
+    // Remove an event, applied once the current transaction commits
+    public void remove(Long eventId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDoc(eventId);
+                compactIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Best matches for a free-text query, highest score first
+    public List<Hit> search(String query, int limit) {
+        String[] terms = analyze(query).stream().distinct().toArray(String[]::new);
+        int k = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = docCount - deletedCount;
+            if (terms.length == 0 || liveDocs == 0) {
+                return new ArrayList<>();
+            }
+            float averageLength = (float) totalLength / liveDocs;
+            float lengthNorm = K1 * (1 - B);
+            float lengthSlope = K1 * B / averageLength;
+
+            // One cursor per tier of each query term in the index, ordered by the most it can add to a score
+            Cursor[] cursors = new Cursor[terms.length * 3];
+            int n = 0;
+            for (int t = 0; t < terms.length; t++) {
+                Term term = postings.get(terms[t]);
+                if (term == null) {
+                    continue;
+                }
+                int df = term.size();
+                float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                for (Postings list : term.tiers) {
+                    if (list.size > 0) {
+                        float maxTf = list.maxTf;
+                        float upperBound = idf * maxTf * (K1 + 1) / (maxTf + lengthNorm + lengthSlope * list.minLength);
+                        cursors[n++] = new Cursor(list, t, idf, upperBound);
+                    }
+                }
+            }
+            if (n == 0) {
+                return new ArrayList<>();
+            }
+            cursors = Arrays.copyOf(cursors, n);
+            Arrays.sort(cursors, (a, b) -> Float.compare(a.upperBound, b.upperBound));
+            // The most lists 0..i can add together: a doc is in one tier of a term, so each term counts its best tier
+            float[] boundBelow = new float[n];
+            float[] termBound = new float[terms.length];
+            float sum = 0;
+            for (int i = 0; i < n; i++) {
+                Cursor cursor = cursors[i];
+                sum += cursor.upperBound - termBound[cursor.term];
+                termBound[cursor.term] = cursor.upperBound;
+                boundBelow[i] = sum;
+            }
+
+            TopHits top = new TopHits(k);
+            int firstEssential = 0;
+            int doc = nextCandidate(cursors, firstEssential);
+            while (doc != Integer.MAX_VALUE) {
+                // Score the essential lists and find the next candidate, the lowest doc id among them, in one pass
+                float score = 0;
+                int next = Integer.MAX_VALUE;
+                for (int i = firstEssential; i < n; i++) {
+                    Cursor cursor = cursors[i];
+                    int current = cursor.doc();
+                    if (current == doc) {
+                        score += cursor.score(lengthNorm, lengthSlope);
+                        cursor.position++;
+                        current = cursor.doc();
+                    }
+                    next = Math.min(next, current);
+                }
+                if (!deleted.get(doc)) {
+                    // Non-essential lists are only probed while they could still lift the doc into the results
+                    for (int i = firstEssential - 1; i >= 0; i--) {
+                        if (score + boundBelow[i] <= top.threshold()) {
+                            break;
+                        }
+                        Cursor cursor = cursors[i];
+                        if (cursor.advanceTo(doc) == doc) {
+                            score += cursor.score(lengthNorm, lengthSlope);
+                        }
+                    }
+                    if (top.offer(doc, score) && boundBelow[firstEssential] <= top.threshold()) {
+                        // Lists that cannot lift a doc into the results on their own stop producing candidates
+                        while (firstEssential < n && boundBelow[firstEssential] <= top.threshold()) {
+                            firstEssential++;
+                        }
+                        next = nextCandidate(cursors, firstEssential);
+                    }
+                }
+                doc = next;
+            }
+
+            // The heap pops lowest first, so fill from the back
+            Hit[] hits = new Hit[top.size];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                hits[i] = new Hit(eventIds[top.docs[0]], top.scores[0]);
+                top.pop();
+            }
+            return new ArrayList<>(Arrays.asList(hits));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lowest current doc id among the essential lists
+    private static int nextCandidate(Cursor[] cursors, int firstEssential) {
+        int doc = Integer.MAX_VALUE;
+        for (int i = firstEssential; i < cursors.length; i++) {
+            doc = Math.min(doc, cursors[i].doc());
+        }
+        return doc;
+    }
+
+    // Get index size
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("events", docCount - deletedCount);
+            stats.put("terms", postings.size());
+            stats.put("deletedDocs", deletedCount);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lowercased, stop-word-free, stemmed tokens of a text
+    public static List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = text.substring(start, i).toLowerCase();
+                if (!STOP_WORDS.contains(token) && (token.length() > 1 || Character.isDigit(token.charAt(0)))) {
+                    tokens.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Light English suffix stripping: plurals, -ing and -ed (running, runs and run all become run)
+    static String stem(String token) {
+        int length = token.length();
+        if (length > 4 && token.endsWith("ies")) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (length > 4 && token.endsWith("sses")) {
+            return token.substring(0, length - 2);
+        }
+        if (length > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")
+                && !token.endsWith("is")) {
+            token = token.substring(0, length - 1);
+            length--;
+        }
+        String stem = null;
+        if (length > 5 && token.endsWith("ing")) {
+            stem = token.substring(0, length - 3);
+        } else if (length > 4 && token.endsWith("ed")) {
+            stem = token.substring(0, length - 2);
+        }
+        if (stem == null) {
+            return token;
+        }
+        // running -> runn -> run
+        int end = stem.length();
+        if (end > 2 && stem.charAt(end - 1) == stem.charAt(end - 2) && !isVowel(stem.charAt(end - 1))
+                && "lsz".indexOf(stem.charAt(end - 1)) < 0) {
+            return stem.substring(0, end - 1);
+        }
+        return stem;
+    }
+
+    private static boolean isVowel(char c) {
+        return "aeiou".indexOf(c) >= 0;
+    }
+
+    // Weighted term frequencies of an event's searchable fields
+    private static Map<String, Integer> terms(Event event) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, event.getName(), NAME_WEIGHT);
+        addTerms(terms, event.getTags(), TAGS_WEIGHT);
+        addTerms(terms, event.getLocation(), LOCATION_WEIGHT);
+        addTerms(terms, event.getDescription(), DESCRIPTION_WEIGHT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : analyze(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void indexNow(Long eventId, Map<String, Integer> terms) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(eventId);
+            int doc = docCount++;
+            if (doc == eventIds.length) {
+                eventIds = Arrays.copyOf(eventIds, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+            }
+            int length = 0;
+            for (int tf : terms.values()) {
+                length += tf;
+            }
+            eventIds[doc] = eventId;
+            docLengths[doc] = length;
+            totalLength += length;
+            docIds.put(eventId, doc);
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new Term()).add(doc, term.getValue(), length);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDoc(Long eventId) {
+        Integer doc = docIds.remove(eventId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    // Drop deleted docs from every postings list and renumber the rest
+    private void compactIfNeeded() {
+        if (docCount < MIN_DOCS_TO_COMPACT || deletedCount * 4 < docCount) {
+            return;
+        }
+        int[] newDoc = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                newDoc[doc] = -1;
+            } else {
+                newDoc[doc] = live;
+                eventIds[live] = eventIds[doc];
+                docLengths[live] = docLengths[doc];
+                docIds.put(eventIds[live], live);
+                live++;
+            }
+        }
+        postings.values().removeIf(list -> list.compact(newDoc) == 0);
+        docCount = live;
+        deletedCount = 0;
+        deleted.clear();
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A term's postings split by impact: matches in several fields, a name or tag
+    // match, and single mentions in a description or location, which are most of
+    // the list and score lowest, so they soon stop producing candidates and are only probed
+    private static final class Term {
+        private final Postings[] tiers = {new Postings(), new Postings(), new Postings()};
+
+        private void add(int doc, int tf, int length) {
+            tiers[tf > NAME_WEIGHT ? 0 : tf >= TAGS_WEIGHT ? 1 : 2].add(doc, tf, length);
+        }
+
+        private int size() {
+            return tiers[0].size + tiers[1].size + tiers[2].size;
+        }
+
+        // Keep live docs under their new ids, returns how many are left
+        private int compact(int[] newDoc) {
+            for (Postings tier : tiers) {
+                tier.compact(newDoc);
+            }
+            return size();
+        }
+    }
+
+    // Doc ids (ascending) and each doc's weighted term frequency and length packed
+    // into one int, so scoring reads the postings in order and nothing else
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] impacts = new int[4];
+        private int size;
+        private int maxTf;
+        private int minLength = Integer.MAX_VALUE;
+
+        private void add(int doc, int tf, int length) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                impacts = Arrays.copyOf(impacts, size * 2);
+            }
+            tf = Math.min(tf, MAX_TF);
+            docs[size] = doc;
+            impacts[size] = length << TF_BITS | tf;
+            size++;
+            maxTf = Math.max(maxTf, tf);
+            minLength = Math.min(minLength, length);
+        }
+
+        private void compact(int[] newDoc) {
+            int kept = 0;
+            maxTf = 0;
+            minLength = Integer.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                int doc = newDoc[docs[i]];
+                if (doc >= 0) {
+                    int impact = impacts[i];
+                    docs[kept] = doc;
+                    impacts[kept] = impact;
+                    kept++;
+                    maxTf = Math.max(maxTf, impact & MAX_TF);
+                    minLength = Math.min(minLength, impact >>> TF_BITS);
+                }
+            }
+            size = kept;
+        }
+    }
+
+    // A query term's position in its postings list
+    private static final class Cursor {
+        private final Postings list;
+        private final int term;
+        private final float idf;
+        private final float upperBound;
+        private int position;
+
+        private Cursor(Postings list, int term, float idf, float upperBound) {
+            this.list = list;
+            this.term = term;
+            this.idf = idf;
+            this.upperBound = upperBound;
+        }
+
+        private int doc() {
+            return position < list.size ? list.docs[position] : Integer.MAX_VALUE;
+        }
+
+        private float score(float lengthNorm, float lengthSlope) {
+            int impact = list.impacts[position];
+            float tf = impact & MAX_TF;
+            return idf * tf * (K1 + 1) / (tf + lengthNorm + lengthSlope * (impact >>> TF_BITS));
+        }
+
+        // Move to the first doc id >= target (galloping, then binary search), returns that doc id
+        private int advanceTo(int target) {
+            int[] docs = list.docs;
+            int size = list.size;
+            if (position >= size || docs[position] >= target) {
+                return doc();
+            }
+            int step = 1;
+            int low = position;
+            int high = position + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            high = Math.min(high, size);
+            int found = Arrays.binarySearch(docs, low + 1, high, target);
+            position = found >= 0 ? found : -found - 1;
+            return doc();
+        }
+    }
+
+    // Min-heap of the best k docs so far
+    private static final class TopHits {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        private TopHits(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        // Lowest score still in the results once full, anything has to beat it to get in
+        private float threshold() {
+            return size < docs.length ? 0 : scores[0];
+        }
+
+        private boolean offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+                return size == docs.length;
+            }
+            if (score <= scores[0]) {
+                return false;
+            }
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0);
+            return true;
+        }
+
+        private void pop() {
+            size--;
+            docs[0] = docs[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    // One search result
+    public static class Hit {
+        private final long eventId;
+        private final float score;
+
+        public Hit(long eventId, float score) {
+            this.eventId = eventId;
+            this.score = score;
+        }
+
+        public long getEventId() {
+            return eventId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
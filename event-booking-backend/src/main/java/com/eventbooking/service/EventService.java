@@ -3,11 +3,17 @@ package com.eventbooking.service;
 import com.eventbooking.model.Event;
 import com.eventbooking.model.EventType;
 import com.eventbooking.repository.EventRepository;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,7 +22,38 @@ public class EventService {
     @Autowired
     private EventRepository eventRepository;
 
-    // Create new event
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private SalesVelocityTracker salesVelocityTracker;
+
+    @Autowired
+    private AdmissionJournal admissionJournal;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TicketHoldService ticketHoldService;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private EventCatalog eventCatalog;
+
+    // Create new event (the indexes pick it up only once its tags are saved too)
+    @Transactional
     public Event createEvent(Event event) {
         // Set default image if not provided
         if (event.getEventImage() == null || event.getEventImage().isEmpty()) {
@@ -34,7 +71,13 @@ public class EventService {
         }
 
         validateEventData(event);
-        return eventRepository.save(event);
+        pricingService.precompute(event);
+        Event savedEvent = eventRepository.save(event);
+        tagService.syncTags(savedEvent);
+        eventSearchIndex.index(savedEvent);
+        typeaheadIndex.index(savedEvent);
+        eventCatalog.index(savedEvent);
+        return savedEvent;
     }
 
     // Get all events
@@ -47,15 +90,39 @@ public class EventService {
         return eventRepository.findById(id);
     }
 
+    // Get events by IDs (one IN query)
+    public List<Event> getEventsByIds(Collection<Long> ids) {
+        return eventRepository.findAllById(ids);
+    }
+
     // Update event
+    @Transactional
     public Event updateEvent(Event event) {
         validateEventData(event);
-        return eventRepository.save(event);
+        pricingService.precompute(event);
+        ticketInventoryService.syncEvent(event);
+        Event savedEvent = eventRepository.save(event);
+        tagService.syncTags(savedEvent);
+        eventSearchIndex.index(savedEvent);
+        typeaheadIndex.index(savedEvent);
+        eventCatalog.index(savedEvent);
+        return savedEvent;
     }
 
-    // Delete event
+    // Delete event (its tags and holds go in the same transaction, the in-memory state once it commits)
+    @Transactional
     public void deleteEvent(Long id) {
+        tagService.removeEvent(id);
+        ticketHoldService.removeEvent(id);
         eventRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> {
+            ticketInventoryService.evict(id);
+            salesVelocityTracker.evict(id);
+            admissionJournal.evict(id);
+        });
+        eventSearchIndex.remove(id);
+        typeaheadIndex.remove(id);
+        eventCatalog.remove(id);
     }
 
     // Get events by type
@@ -83,6 +150,32 @@ public class EventService {
         return eventRepository.findByNameContainingIgnoreCase(name);
     }
 
+    // Ranked full-text search over name, description, location and tags
+    public List<SearchResult> searchEventsRanked(String query, int limit) {
+        List<EventSearchIndex.Hit> hits = eventSearchIndex.search(query, limit);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (EventSearchIndex.Hit hit : hits) {
+            ids.add(hit.getEventId());
+        }
+        Map<Long, Event> events = new HashMap<>();
+        for (Event event : eventRepository.findAllById(ids)) {
+            events.put(event.getId(), event);
+        }
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for (EventSearchIndex.Hit hit : hits) {
+            Event event = events.get(hit.getEventId());
+            if (event != null) {
+                results.add(new SearchResult(event, hit.getScore()));
+            }
+        }
+        return results;
+    }
+
+    // Completions for the search box: event names, locations and tags starting with a prefix
+    public List<TypeaheadIndex.Suggestion> suggest(String prefix, int limit) {
+        return typeaheadIndex.suggest(prefix, limit);
+    }
+
     // Search events by location
     public List<Event> searchEventsByLocation(String location) {
         return eventRepository.findByLocationContainingIgnoreCase(location);
@@ -93,9 +186,51 @@ public class EventService {
         return eventRepository.findEventsWithAvailableTickets();
     }
 
-    // Search events by tags
-    public List<Event> searchEventsByTag(String tag) {
-        return eventRepository.findByTagsContaining(tag);
+    // One page of the catalogue query (filters, keyset cursor, facets), the page's events in (date, id) order
+    public CatalogPage queryEvents(EventCatalog.Filter filter, String after, int limit, boolean withFacets) {
+        EventCatalog.Page page = eventCatalog.query(filter, after, limit, withFacets);
+        Map<Long, Event> events = new HashMap<>();
+        for (Event event : eventRepository.findAllById(page.getEventIds())) {
+            events.put(event.getId(), event);
+        }
+        List<Event> results = new ArrayList<>(page.getEventIds().size());
+        for (Long id : page.getEventIds()) {
+            Event event = events.get(id);
+            if (event != null) {
+                results.add(event);
+            }
+        }
+        return new CatalogPage(results, page);
+    }
+
+    // Events having all (or any) of the tags, matched exactly on normalized tags, in id order
+    public List<Event> searchEventsByTags(Collection<String> tags, boolean matchAll) {
+        RoaringBitmap matches = matchTags(tags, matchAll);
+        List<Long> ids = new ArrayList<>(matches.getCardinality());
+        matches.forEach((int id) -> ids.add((long) id));
+        Map<Long, Event> events = new HashMap<>();
+        for (Event event : eventRepository.findAllById(ids)) {
+            events.put(event.getId(), event);
+        }
+        List<Event> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Event event = events.get(id);
+            if (event != null) {
+                results.add(event);
+            }
+        }
+        return results;
+    }
+
+    // Tag counts among the events having all (or any) of the tags; no tags counts over every event
+    public TagFacets getTagFacets(Collection<String> tags, boolean matchAll, int limit) {
+        RoaringBitmap matches = matchTags(tags, matchAll);
+        return new TagFacets(matches.getCardinality(), tagIndex.facets(matches, limit));
+    }
+
+    private RoaringBitmap matchTags(Collection<String> tags, boolean matchAll) {
+        List<String> names = TagService.normalize(String.join(",", tags));
+        return matchAll ? tagIndex.matchAll(names) : tagIndex.matchAny(names);
     }
 
     // Get popular events
@@ -114,12 +249,21 @@ public class EventService {
         return eventRepository.countTotalEvents();
     }
 
+    // Count upcoming events
+    public long getUpcomingEventsCount() {
+        return eventRepository.countByDateGreaterThanEqual(LocalDate.now());
+    }
+
+    // Count events with available tickets
+    public long getEventsWithAvailableTicketsCount() {
+        return eventRepository.countEventsWithAvailableTickets();
+    }
+
     // Check if event has available tickets
     public boolean hasAvailableTickets(Long eventId) {
         Optional<Event> eventOpt = eventRepository.findById(eventId);
         if (eventOpt.isPresent()) {
-            Event event = eventOpt.get();
-            return event.getAvailableTickets() > 0;
+            return ticketInventoryService.getAvailableTickets(eventOpt.get()) > 0;
         }
         return false;
     }
@@ -128,7 +272,7 @@ public class EventService {
     public Integer getAvailableTickets(Long eventId) {
         Optional<Event> eventOpt = eventRepository.findById(eventId);
         if (eventOpt.isPresent()) {
-            return eventOpt.get().getAvailableTickets();
+            return ticketInventoryService.getAvailableTickets(eventOpt.get());
         }
         return 0;
     }
@@ -138,8 +282,11 @@ public class EventService {
         Optional<Event> eventOpt = eventRepository.findById(eventId);
         if (eventOpt.isPresent()) {
             Event event = eventOpt.get();
-            event.setTicketsSold(event.getTicketsSold() + additionalTickets);
-            eventRepository.save(event);
+            if (additionalTickets > 0 && ticketInventoryService.reserve(event, additionalTickets) < 0) {
+                throw new RuntimeException("Not enough tickets available");
+            } else if (additionalTickets < 0) {
+                ticketInventoryService.release(event, -additionalTickets);
+            }
         }
     }
 
@@ -171,5 +318,64 @@ public class EventService {
         if (event.getDate().isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Event date cannot be in the past");
         }
+        // Throws on a tag too long for the tag dictionary
+        TagService.normalize(event.getTags());
+    }
+
+    // An event matched by a ranked search and its BM25 score
+    public static class SearchResult {
+        private final Event event;
+        private final float score;
+
+        public SearchResult(Event event, float score) {
+            this.event = event;
+            this.score = score;
+        }
+
+        public Event getEvent() {
+            return event;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    // A page of a catalogue query: its events, and the cursor, match count and facets it came with
+    public static class CatalogPage {
+        private final List<Event> events;
+        private final EventCatalog.Page page;
+
+        public CatalogPage(List<Event> events, EventCatalog.Page page) {
+            this.events = events;
+            this.page = page;
+        }
+
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        public EventCatalog.Page getPage() {
+            return page;
+        }
+    }
+
+    // How many events matched a tag filter and the most frequent tags among them
+    public static class TagFacets {
+        private final int matched;
+        private final List<TagIndex.TagCount> facets;
+
+        public TagFacets(int matched, List<TagIndex.TagCount> facets) {
+            this.matched = matched;
+            this.facets = facets;
+        }
+
+        public int getMatched() {
+            return matched;
+        }
+
+        public List<TagIndex.TagCount> getFacets() {
+            return facets;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package com.eventbooking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Deduplicates client retries with the same idempotency key: retries share the first request's future
+// Kept results expire booking.idempotency.ttl-seconds after they complete, at most booking.idempotency.max-entries of them
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${booking.idempotency.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+
+    @Value("${booking.idempotency.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Completed entries in the order they completed, which is also the order they expire in
+    private final ConcurrentLinkedQueue<Entry> completionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    // Run the action once per key, every request with the same key gets the same result
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, String fingerprint,
+                                            Supplier<CompletableFuture<T>> action, Predicate<T> keepResult) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Entry entry = new Entry(key, fingerprint);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new KeyReusedException("Idempotency-Key was already used for a different request");
+            }
+            return (CompletableFuture<T>) existing.result;
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (error != null || !keepResult.test(value)) {
+                entries.remove(key, entry);
+            } else {
+                keep(entry);
+            }
+            if (error != null) {
+                entry.result.completeExceptionally(error);
+            } else {
+                entry.result.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) entry.result;
+    }
+
+    // Get number of cached keys
+    public int size() {
+        return entries.size();
+    }
+
+    // Drop expired keys from the head of the queue
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        while ((entry = completionOrder.peek()) != null && entry.isExpired(now)) {
+            if (completionOrder.remove(entry)) {
+                completed.decrementAndGet();
+                entries.remove(entry.key, entry);
+            }
+        }
+    }
+
+    // Start a kept entry's TTL and make room by dropping the oldest completed keys
+    private void keep(Entry entry) {
+        entry.expiresAtMillis = System.currentTimeMillis() + ttlSeconds * 1000;
+        completionOrder.add(entry);
+        completed.incrementAndGet();
+        while (completed.get() > maxEntries) {
+            Entry oldest = completionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            completed.decrementAndGet();
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Never while in flight, set once the result is kept
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        private Entry(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    // Thrown when a key is replayed with a different request (mapped to 422 Unprocessable Entity)
+    public static class KeyReusedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public KeyReusedException(String message) {
+            super(message);
+        }
+    }
+}
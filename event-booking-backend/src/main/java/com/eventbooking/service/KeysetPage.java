@@ -0,0 +1,74 @@
+package com.eventbooking.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a list read by keyset, with the cursor (sort key of its last row) of the next page, null on the last one
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    // Rows to return for a requested page size, the default if none was given
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // Cut a page from rows read with one more than the page size
+    static <T> KeysetPage<T> of(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+        return new KeysetPage<>(items, cursorOf.apply(items.get(pageSize - 1)));
+    }
+
+    // Cursors of lists ordered by time and id are both, e.g. 2025-06-15T10:30:00.123456_42
+    static String cursorOf(LocalDateTime time, Long id) {
+        return time + "_" + id;
+    }
+
+    static LocalDateTime timeOf(String cursor) {
+        try {
+            return LocalDateTime.parse(cursor.substring(0, Math.max(0, cursor.lastIndexOf('_'))));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Id in a cursor, the whole cursor for lists ordered by id alone
+    static long idOf(String cursor) {
+        try {
+            long id = Long.parseLong(cursor.substring(cursor.lastIndexOf('_') + 1));
+            if (id < 0) {
+                throw new NumberFormatException();
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
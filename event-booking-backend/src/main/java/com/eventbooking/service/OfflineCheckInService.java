@@ -0,0 +1,254 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.BookingStatus;
+import com.eventbooking.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+// Snapshots and deltas of who may enter an event for gate scanners working offline, and reconciling their scans
+// Files are big-endian, id lists ascending varint gaps, each ending with a CRC32 of everything before it
+@Service
+public class OfflineCheckInService {
+
+    public static final int MAX_SCANS_PER_RECONCILE = 10_000;
+
+    // How far ahead of the server a gate's clock may run
+    public static final long MAX_CLOCK_SKEW_MILLIS = 60_000;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private AdmissionJournal admissionJournal;
+
+    // Everything a scanner needs to admit an event's tickets offline
+    // "EBSN" format(1) eventId(8) version(8) generatedAtMillis(8), confirmed (id gap, tickets), checked-in ids, revoked ids, crc32(4)
+    public Export exportSnapshot(Long eventId) {
+        // Journal from here on, so every change after the version read below reaches the deltas
+        admissionJournal.track(eventId);
+        long version = admissionJournal.currentVersion();
+        checkInService.flush();
+
+        List<Object[]> confirmed = new ArrayList<>(bookingRepository.findAdmissionsByEventId(eventId));
+        confirmed.sort(Comparator.comparingLong(row -> (Long) row[0]));
+        TreeSet<Long> checkedIn = new TreeSet<>(checkInService.admittedBookingIds(eventId));
+        for (Object[] row : confirmed) {
+            if (row[2] != null) {
+                checkedIn.add((Long) row[0]);
+            }
+        }
+        List<Long> revoked = bookingRepository.findIdsByEventIdAndStatus(eventId, BookingStatus.CANCELLED);
+
+        Writer out = new Writer(confirmed.size() * 4 + checkedIn.size() * 2 + revoked.size() * 2 + 64);
+        out.header('E', 'B', 'S', 'N');
+        out.fixed(eventId);
+        out.fixed(version);
+        out.fixed(System.currentTimeMillis());
+        out.varint(confirmed.size());
+        long previous = 0;
+        for (Object[] row : confirmed) {
+            long bookingId = (Long) row[0];
+            out.varint(bookingId - previous);
+            out.varint((Integer) row[1]);
+            previous = bookingId;
+        }
+        out.ids(checkedIn);
+        out.ids(revoked);
+        return new Export(out.finish(), version);
+    }
+
+    // Changes since a snapshot or delta version, null when that version is too old and a new snapshot is needed
+    // "EBDL" format(1) eventId(8) fromVersion(8) toVersion(8), (type: 0 added, 1 revoked, 2 checked in, booking id, tickets), crc32(4)
+    public Export exportDelta(Long eventId, long sinceVersion) {
+        List<AdmissionJournal.Change> changes = admissionJournal.changesSince(eventId, sinceVersion);
+        if (changes == null) {
+            return null;
+        }
+        long toVersion = changes.isEmpty() ? sinceVersion : changes.get(changes.size() - 1).getVersion();
+
+        Writer out = new Writer(changes.size() * 6 + 64);
+        out.header('E', 'B', 'D', 'L');
+        out.fixed(eventId);
+        out.fixed(sinceVersion);
+        out.fixed(toVersion);
+        out.varint(changes.size());
+        for (AdmissionJournal.Change change : changes) {
+            out.varint(change.getType().ordinal());
+            out.varint(change.getBookingId());
+            out.varint(change.getTickets());
+        }
+        return new Export(out.finish(), toVersion);
+    }
+
+    // Apply scans a gate made offline, in the order they were made, results in the order given
+    public ReconcileResult reconcile(Long eventId, List<OfflineScan> scans) {
+        if (scans.size() > MAX_SCANS_PER_RECONCILE) {
+            throw new IllegalArgumentException("At most " + MAX_SCANS_PER_RECONCILE + " scans per request");
+        }
+        // Checked before any scan is applied, the admission index reads 0 as not admitted and -1 as not indexed
+        long latest = System.currentTimeMillis() + MAX_CLOCK_SKEW_MILLIS;
+        for (OfflineScan scan : scans) {
+            if (scan.getScannedAtMillis() <= 0 || scan.getScannedAtMillis() > latest) {
+                throw new IllegalArgumentException("scannedAt must be a past time: " + scan.getScannedAtMillis());
+            }
+        }
+        Integer[] order = new Integer[scans.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> scans.get(i).getScannedAtMillis()));
+
+        CheckInService.ScanResult[] results = new CheckInService.ScanResult[scans.size()];
+        int admitted = 0;
+        int duplicates = 0;
+        for (int i : order) {
+            OfflineScan scan = scans.get(i);
+            CheckInService.ScanResult result = checkInService.reconcile(scan.getQrCode(), eventId,
+                    scan.getScannedAtMillis());
+            if (result.isAdmitted()) {
+                admitted++;
+            } else if (result.getStatus() == CheckInService.ScanStatus.ALREADY_CHECKED_IN) {
+                duplicates++;
+            }
+            results[i] = result;
+        }
+        return new ReconcileResult(Arrays.asList(results), admitted, duplicates,
+                scans.size() - admitted - duplicates);
+    }
+
+    // Fixed fields, varints and a trailing CRC32 into one growing buffer
+    private static final class Writer {
+        private final ByteArrayOutputStream out;
+
+        private Writer(int expectedSize) {
+            out = new ByteArrayOutputStream(expectedSize);
+        }
+
+        private void header(char a, char b, char c, char d) {
+            out.write(a);
+            out.write(b);
+            out.write(c);
+            out.write(d);
+            out.write(FORMAT_VERSION);
+        }
+
+        private void fixed(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        // Ascending ids as a count and the gaps between them
+        private void ids(Collection<Long> ids) {
+            varint(ids.size());
+            long previous = 0;
+            for (long id : ids) {
+                varint(id - previous);
+                previous = id;
+            }
+        }
+
+        private byte[] finish() {
+            CRC32 crc = new CRC32();
+            byte[] body = out.toByteArray();
+            crc.update(body);
+            byte[] file = Arrays.copyOf(body, body.length + 4);
+            int value = (int) crc.getValue();
+            for (int i = 0; i < 4; i++) {
+                file[body.length + i] = (byte) (value >>> (24 - i * 8));
+            }
+            return file;
+        }
+    }
+
+    // A snapshot or delta file and the version a scanner asks for the next delta from
+    public static class Export {
+        private final byte[] data;
+        private final long version;
+
+        public Export(byte[] data, long version) {
+            this.data = data;
+            this.version = version;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    // One scan a gate made while offline
+    public static class OfflineScan {
+        private final String qrCode;
+        private final long scannedAtMillis;
+
+        public OfflineScan(String qrCode, long scannedAtMillis) {
+            this.qrCode = qrCode;
+            this.scannedAtMillis = scannedAtMillis;
+        }
+
+        public String getQrCode() {
+            return qrCode;
+        }
+
+        public long getScannedAtMillis() {
+            return scannedAtMillis;
+        }
+    }
+
+    // Outcome of reconciling a batch of offline scans
+    public static class ReconcileResult {
+        private final List<CheckInService.ScanResult> results;
+        private final int admitted;
+        private final int duplicates;
+        private final int rejected;
+
+        public ReconcileResult(List<CheckInService.ScanResult> results, int admitted, int duplicates, int rejected) {
+            this.results = results;
+            this.admitted = admitted;
+            this.duplicates = duplicates;
+            this.rejected = rejected;
+        }
+
+        public List<CheckInService.ScanResult> getResults() {
+            return results;
+        }
+
+        public int getAdmitted() {
+            return admitted;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+    }
+}
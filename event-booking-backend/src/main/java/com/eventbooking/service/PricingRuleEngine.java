@@ -0,0 +1,385 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compiles PricingRules into immutable price curve tables, swapped in with one volatile write on reload
+@Service
+public class PricingRuleEngine {
+
+    // Sold percentage 0..100
+    private static final int PERCENTS = 101;
+
+    // Time decay steps further out than this are rejected
+    public static final int MAX_DAYS = 365;
+
+    // Velocity steps above this many tickets per window are rejected
+    private static final int MAX_WINDOW_TICKETS = 1_000_000;
+
+    // Distinct base prices per curve are few, the cache is simply dropped if it ever grows past this
+    private static final int MAX_PRICE_TABLES = 10_000;
+
+    @Value("${booking.pricing.rules-location:classpath:pricing-rules.json}")
+    private String rulesLocation = "classpath:pricing-rules.json";
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile RuleSet ruleSet = compile(defaultRules());
+
+    private volatile long todayEpochDay = LocalDate.now().toEpochDay();
+
+    @PostConstruct
+    public void loadRules() {
+        Resource resource = resourceLoader.getResource(rulesLocation);
+        if (!resource.exists()) {
+            System.out.println("⚠️ Pricing rules not found at " + rulesLocation + ", using the built-in rules");
+            return;
+        }
+        apply(read(resource));
+    }
+
+    // Re-read the rules file, the current rules stay in place if it is invalid
+    public PricingRules reload() {
+        Resource resource = resourceLoader.getResource(rulesLocation);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Pricing rules not found at " + rulesLocation);
+        }
+        PricingRules rules = read(resource);
+        apply(rules);
+        return rules;
+    }
+
+    // Compile and swap in new rules
+    public void apply(PricingRules rules) {
+        ruleSet = compile(rules);
+    }
+
+    // Get the rules currently in effect
+    public PricingRules getRules() {
+        return ruleSet.rules;
+    }
+
+    // Get the curve for an event: its own rule, else its type's rule, else the default rule
+    public PriceCurve curveFor(Event event) {
+        RuleSet current = ruleSet;
+        if (event.getId() != null && !current.byEvent.isEmpty()) {
+            PriceCurve curve = current.byEvent.get(event.getId());
+            if (curve != null) {
+                return curve;
+            }
+        }
+        if (event.getType() != null) {
+            PriceCurve curve = current.byType.get(event.getType());
+            if (curve != null) {
+                return curve;
+            }
+        }
+        return current.defaultCurve;
+    }
+
+    // Whole days until the event (0 on the day and after it, MAX_DAYS + 1 if it has no date)
+    public int daysUntil(Event event) {
+        if (event.getDate() == null) {
+            return MAX_DAYS + 1;
+        }
+        long days = event.getDate().toEpochDay() - todayEpochDay;
+        return (int) Math.max(0, Math.min(MAX_DAYS + 1, days));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void refreshToday() {
+        todayEpochDay = LocalDate.now().toEpochDay();
+    }
+
+    private PricingRules read(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return objectMapper.readValue(in, PricingRules.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read pricing rules from " + rulesLocation + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private static RuleSet compile(PricingRules rules) {
+        if (rules == null || rules.getDefaultRule() == null) {
+            throw new IllegalArgumentException("Pricing rules need a default rule");
+        }
+
+        Map<EventType, PriceCurve> byType = new EnumMap<>(EventType.class);
+        if (rules.getEventTypes() != null) {
+            rules.getEventTypes().forEach((type, rule) -> byType.put(type, new PriceCurve(rule)));
+        }
+        Map<Long, PriceCurve> byEvent = new HashMap<>();
+        if (rules.getEvents() != null) {
+            rules.getEvents().forEach((eventId, rule) -> byEvent.put(eventId, new PriceCurve(rule)));
+        }
+        return new RuleSet(rules, new PriceCurve(rules.getDefaultRule()), byType, byEvent);
+    }
+
+    // Built-in rules: +10% from 50% sold, +20% from 80% sold
+    private static PricingRules defaultRules() {
+        PricingRules.Curve curve = new PricingRules.Curve();
+        curve.setType(PricingRules.CurveType.STEP);
+        curve.getSteps().add(step(50, 10));
+        curve.getSteps().add(step(80, 20));
+        PricingRules rules = new PricingRules();
+        rules.getDefaultRule().getCurves().add(curve);
+        return rules;
+    }
+
+    private static PricingRules.Step step(int at, double adjustPercent) {
+        PricingRules.Step step = new PricingRules.Step();
+        step.setAt(at);
+        step.setAdjustPercent(adjustPercent);
+        return step;
+    }
+
+    private static final class RuleSet {
+        private final PricingRules rules;
+        private final PriceCurve defaultCurve;
+        private final Map<EventType, PriceCurve> byType;
+        private final Map<Long, PriceCurve> byEvent;
+
+        private RuleSet(PricingRules rules, PriceCurve defaultCurve,
+                        Map<EventType, PriceCurve> byType, Map<Long, PriceCurve> byEvent) {
+            this.rules = rules;
+            this.defaultCurve = defaultCurve;
+            this.byType = byType;
+            this.byEvent = byEvent;
+        }
+    }
+
+    // One compiled rule: adjustments in basis points by velocity step, days to the event and sold percentage, prices cached per base price
+    public static final class PriceCurve {
+        private final int[] soldBps = new int[PERCENTS];
+        private final int[] bucketByDay = new int[MAX_DAYS + 2];
+        private final int dayBuckets;
+        private int velocityWindow;
+        private int[] velocityThresholds = new int[0];
+        private int[] velocityStepBps = new int[] {0};
+        private final int[] levelIndex;
+        private final int[] levelBps;
+        private final ConcurrentHashMap<BigDecimal, BigDecimal[]> priceTables = new ConcurrentHashMap<>();
+
+        private PriceCurve(PricingRules.Rule rule) {
+            int[] dayBps = new int[MAX_DAYS + 2];
+            for (PricingRules.Curve curve : rule.getCurves()) {
+                if (curve.getType() == null) {
+                    throw new IllegalArgumentException("Pricing curve type is required");
+                }
+                switch (curve.getType()) {
+                    case STEP -> addSteps(soldBps, curve.getSteps(), 100);
+                    case LINEAR -> addLinear(curve);
+                    case TIME_DECAY -> addTimeDecay(dayBps, curve.getSteps());
+                    case VELOCITY -> addVelocity(curve);
+                }
+            }
+
+            // Collapse days with the same time adjustment into buckets
+            List<Integer> bucketBps = new ArrayList<>();
+            for (int day = 0; day < dayBps.length; day++) {
+                int bucket = bucketBps.indexOf(dayBps[day]);
+                if (bucket < 0) {
+                    bucket = bucketBps.size();
+                    bucketBps.add(dayBps[day]);
+                }
+                bucketByDay[day] = bucket;
+            }
+
+            dayBuckets = bucketBps.size();
+
+            // Number every distinct total adjustment
+            levelIndex = new int[velocityStepBps.length * dayBuckets * PERCENTS];
+            Map<Integer, Integer> levels = new HashMap<>();
+            for (int velocity = 0; velocity < velocityStepBps.length; velocity++) {
+                for (int bucket = 0; bucket < dayBuckets; bucket++) {
+                    for (int percent = 0; percent < PERCENTS; percent++) {
+                        // A price never goes below zero
+                        int bps = Math.max(-10_000,
+                                soldBps[percent] + bucketBps.get(bucket) + velocityStepBps[velocity]);
+                        levelIndex[(velocity * dayBuckets + bucket) * PERCENTS + percent] =
+                                levels.computeIfAbsent(bps, key -> levels.size());
+                    }
+                }
+            }
+            levelBps = new int[levels.size()];
+            levels.forEach((bps, level) -> levelBps[level] = bps);
+        }
+
+        // Sales velocity window the rule prices on in minutes, 0 if it ignores velocity
+        public int velocityWindow() {
+            return velocityWindow;
+        }
+
+        // Total adjustment in basis points of the base price
+        public int adjustmentBps(int soldPercent, int daysUntil, int ticketsInWindow) {
+            return levelBps[level(soldPercent, daysUntil, ticketsInWindow)];
+        }
+
+        // Price for a base price, allocation free once the base price has been seen
+        public BigDecimal price(BigDecimal basePrice, int soldPercent, int daysUntil, int ticketsInWindow) {
+            int level = level(soldPercent, daysUntil, ticketsInWindow);
+            BigDecimal[] prices = priceTable(basePrice);
+            BigDecimal price = prices[level];
+            if (price == null) {
+                // Racing threads compute the same immutable value, either write is fine
+                price = computePrice(basePrice, levelBps[level]);
+                prices[level] = price;
+            }
+            return price;
+        }
+
+        // Fill the price cache for a base price
+        public void precompute(BigDecimal basePrice) {
+            BigDecimal[] prices = priceTable(basePrice);
+            for (int level = 0; level < levelBps.length; level++) {
+                if (prices[level] == null) {
+                    prices[level] = computePrice(basePrice, levelBps[level]);
+                }
+            }
+        }
+
+        // Next sold percentage at which the sold adjustment goes up, or -1 if it never does
+        public int nextSoldPercent(int soldPercent) {
+            for (int percent = soldPercent + 1; percent < PERCENTS; percent++) {
+                if (soldBps[percent] > soldBps[soldPercent]) {
+                    return percent;
+                }
+            }
+            return -1;
+        }
+
+        private int level(int soldPercent, int daysUntil, int ticketsInWindow) {
+            int velocity = 0;
+            for (int step = velocityThresholds.length - 1; step >= 0; step--) {
+                if (ticketsInWindow >= velocityThresholds[step]) {
+                    velocity = step + 1;
+                    break;
+                }
+            }
+            return levelIndex[(velocity * dayBuckets + bucketByDay[daysUntil]) * PERCENTS + soldPercent];
+        }
+
+        private BigDecimal[] priceTable(BigDecimal basePrice) {
+            BigDecimal[] prices = priceTables.get(basePrice);
+            if (prices != null) {
+                return prices;
+            }
+            if (priceTables.size() >= MAX_PRICE_TABLES) {
+                priceTables.clear();
+            }
+            return priceTables.computeIfAbsent(basePrice, key -> new BigDecimal[levelBps.length]);
+        }
+
+        private static BigDecimal computePrice(BigDecimal basePrice, int bps) {
+            return basePrice.multiply(BigDecimal.valueOf(10_000L + bps)).movePointLeft(4)
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+
+        // Sold-percentage linear ramp
+        private void addLinear(PricingRules.Curve curve) {
+            double from = curve.getFromPercent();
+            double to = curve.getToPercent();
+            if (from < 0 || to > 100 || from >= to) {
+                throw new IllegalArgumentException("Linear pricing curve needs 0 <= fromPercent < toPercent <= 100");
+            }
+            for (int percent = 0; percent < PERCENTS; percent++) {
+                double share = Math.max(0, Math.min(1, (percent - from) / (to - from)));
+                soldBps[percent] += toBps(curve.getMaxAdjustPercent() * share);
+            }
+        }
+
+        // Highest step reached applies: "at" is tickets sold in the velocity window
+        private void addVelocity(PricingRules.Curve curve) {
+            if (velocityWindow != 0) {
+                throw new IllegalArgumentException("A pricing rule can have only one velocity curve");
+            }
+            int window = curve.getWindowMinutes();
+            if (window != SalesVelocityTracker.SHORT_WINDOW_MINUTES
+                    && window != SalesVelocityTracker.MEDIUM_WINDOW_MINUTES
+                    && window != SalesVelocityTracker.LONG_WINDOW_MINUTES) {
+                throw new IllegalArgumentException("Velocity pricing window must be 5, 15 or 60 minutes");
+            }
+            List<PricingRules.Step> sorted = sortedSteps(curve.getSteps(), MAX_WINDOW_TICKETS);
+            velocityWindow = window;
+            velocityThresholds = new int[sorted.size()];
+            velocityStepBps = new int[sorted.size() + 1];
+            for (int step = 0; step < sorted.size(); step++) {
+                velocityThresholds[step] = sorted.get(step).getAt();
+                velocityStepBps[step + 1] = toBps(sorted.get(step).getAdjustPercent());
+            }
+        }
+
+        // Highest step reached applies: "at" is a sold percentage
+        private static void addSteps(int[] bps, List<PricingRules.Step> steps, int maxAt) {
+            List<PricingRules.Step> sorted = sortedSteps(steps, maxAt);
+            int[] added = new int[bps.length];
+            for (PricingRules.Step step : sorted) {
+                for (int index = step.getAt(); index < bps.length; index++) {
+                    added[index] = toBps(step.getAdjustPercent());
+                }
+            }
+            for (int index = 0; index < bps.length; index++) {
+                bps[index] += added[index];
+            }
+        }
+
+        // Closest step applies: "at" is a number of days before the event
+        private static void addTimeDecay(int[] bps, List<PricingRules.Step> steps) {
+            List<PricingRules.Step> sorted = sortedSteps(steps, MAX_DAYS);
+            int[] added = new int[bps.length];
+            for (int index = sorted.size() - 1; index >= 0; index--) {
+                PricingRules.Step step = sorted.get(index);
+                for (int day = 0; day <= step.getAt(); day++) {
+                    added[day] = toBps(step.getAdjustPercent());
+                }
+            }
+            for (int day = 0; day < bps.length; day++) {
+                bps[day] += added[day];
+            }
+        }
+
+        private static List<PricingRules.Step> sortedSteps(List<PricingRules.Step> steps, int maxAt) {
+            if (steps == null || steps.isEmpty()) {
+                throw new IllegalArgumentException("Pricing curve needs at least one step");
+            }
+            List<PricingRules.Step> sorted = new ArrayList<>(steps);
+            sorted.sort(Comparator.comparingInt(PricingRules.Step::getAt));
+            for (PricingRules.Step step : sorted) {
+                if (step.getAt() < 0 || step.getAt() > maxAt) {
+                    throw new IllegalArgumentException("Pricing step must be between 0 and " + maxAt);
+                }
+            }
+            return sorted;
+        }
+
+        private static int toBps(double percent) {
+            return (int) Math.round(percent * 100);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.EventType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pricing rules as written in the rules file (booking.pricing.rules-location), see pricing-rules.json
+// Each rule's curves add up, and the most specific rule wins: per event, then per event type, then the default
+public class PricingRules {
+
+    private Rule defaultRule = new Rule();
+    private Map<EventType, Rule> eventTypes = new EnumMap<>(EventType.class);
+    private Map<Long, Rule> events = new HashMap<>();
+
+    public Rule getDefaultRule() {
+        return defaultRule;
+    }
+
+    public void setDefaultRule(Rule defaultRule) {
+        this.defaultRule = defaultRule;
+    }
+
+    public Map<EventType, Rule> getEventTypes() {
+        return eventTypes;
+    }
+
+    public void setEventTypes(Map<EventType, Rule> eventTypes) {
+        this.eventTypes = eventTypes;
+    }
+
+    public Map<Long, Rule> getEvents() {
+        return events;
+    }
+
+    public void setEvents(Map<Long, Rule> events) {
+        this.events = events;
+    }
+
+    public enum CurveType {
+        // Adjustment steps up at sold percentages ("at" is the sold percentage)
+        STEP,
+        // Adjustment grows linearly from 0 at fromPercent sold to maxAdjustPercent at toPercent sold
+        LINEAR,
+        // Adjustment applies within "at" days of the event (the closest step wins)
+        TIME_DECAY,
+        // Adjustment steps up with sales velocity ("at" is tickets sold in the last windowMinutes)
+        VELOCITY
+    }
+
+    public static class Rule {
+        private List<Curve> curves = new ArrayList<>();
+
+        public List<Curve> getCurves() {
+            return curves;
+        }
+
+        public void setCurves(List<Curve> curves) {
+            this.curves = curves;
+        }
+    }
+
+    public static class Curve {
+        private CurveType type;
+        private List<Step> steps = new ArrayList<>();
+        private double fromPercent;
+        private double toPercent = 100;
+        private double maxAdjustPercent;
+        private int windowMinutes = SalesVelocityTracker.MEDIUM_WINDOW_MINUTES;
+
+        public CurveType getType() {
+            return type;
+        }
+
+        public void setType(CurveType type) {
+            this.type = type;
+        }
+
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        public void setSteps(List<Step> steps) {
+            this.steps = steps;
+        }
+
+        public double getFromPercent() {
+            return fromPercent;
+        }
+
+        public void setFromPercent(double fromPercent) {
+            this.fromPercent = fromPercent;
+        }
+
+        public double getToPercent() {
+            return toPercent;
+        }
+
+        public void setToPercent(double toPercent) {
+            this.toPercent = toPercent;
+        }
+
+        public double getMaxAdjustPercent() {
+            return maxAdjustPercent;
+        }
+
+        public void setMaxAdjustPercent(double maxAdjustPercent) {
+            this.maxAdjustPercent = maxAdjustPercent;
+        }
+
+        public int getWindowMinutes() {
+            return windowMinutes;
+        }
+
+        public void setWindowMinutes(int windowMinutes) {
+            this.windowMinutes = windowMinutes;
+        }
+    }
+
+    public static class Step {
+        private int at;
+        private double adjustPercent;
+
+        public int getAt() {
+            return at;
+        }
+
+        public void setAt(int at) {
+            this.at = at;
+        }
+
+        public double getAdjustPercent() {
+            return adjustPercent;
+        }
+
+        public void setAdjustPercent(double adjustPercent) {
+            this.adjustPercent = adjustPercent;
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.eventbooking.service;
 
 import com.eventbooking.model.Event;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+// Dynamic pricing from the compiled rule curves and recent sales, with no double math or allocation per quote
 @Service
 public class PricingService {
 
-    // Constants for price adjustments
-    private static final double FIRST_THRESHOLD = 50.0;  // 50% sold
-    private static final double SECOND_THRESHOLD = 80.0; // 80% sold
-    private static final double FIRST_INCREASE = 0.10;   // 10% increase
-    private static final double SECOND_INCREASE = 0.20;  // 20% increase
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Autowired
+    private SalesVelocityTracker salesVelocityTracker;
+
+    // Precompute an event's prices (called when an event is created or repriced)
+    public void precompute(Event event) {
+        if (event.getBasePrice() != null) {
+            pricingRuleEngine.curveFor(event).precompute(event.getBasePrice());
+        }
+    }
 
     // Calculate current price based on booking percentage
     public BigDecimal calculateCurrentPrice(Event event) {
@@ -21,35 +30,23 @@ public class PricingService {
             throw new IllegalArgumentException("Event and base price cannot be null");
         }
 
-        double soldPercentage = event.getSoldPercentage();
-        BigDecimal basePrice = event.getBasePrice();
-        BigDecimal currentPrice = basePrice;
+        return calculateCurrentPrice(event, event.getTicketsSold(), event.getTotalTickets());
+    }
 
-        // Apply dynamic pricing based on sold percentage
-        if (soldPercentage >= SECOND_THRESHOLD) {
-            // 80% or more sold - apply 20% increase
-            currentPrice = basePrice.multiply(BigDecimal.valueOf(1 + SECOND_INCREASE));
-        } else if (soldPercentage >= FIRST_THRESHOLD) {
-            // 50% or more sold - apply 10% increase
-            currentPrice = basePrice.multiply(BigDecimal.valueOf(1 + FIRST_INCREASE));
+    // Calculate current price for given ticket counts (used by bookings and the ticket inventory)
+    public BigDecimal calculateCurrentPrice(Event event, int ticketsSold, int totalTickets) {
+        if (event == null || event.getBasePrice() == null) {
+            throw new IllegalArgumentException("Event and base price cannot be null");
         }
-        // If less than 50% sold, keep base price
 
-        // Round to 2 decimal places
-        return currentPrice.setScale(2, RoundingMode.HALF_UP);
+        PricingRuleEngine.PriceCurve curve = pricingRuleEngine.curveFor(event);
+        return curve.price(event.getBasePrice(), soldPercent(ticketsSold, totalTickets),
+                pricingRuleEngine.daysUntil(event), ticketsInWindow(curve, event));
     }
 
     // Calculate price increase percentage
     public double getPriceIncreasePercentage(Event event) {
-        double soldPercentage = event.getSoldPercentage();
-
-        if (soldPercentage >= SECOND_THRESHOLD) {
-            return SECOND_INCREASE * 100; // Return as percentage
-        } else if (soldPercentage >= FIRST_THRESHOLD) {
-            return FIRST_INCREASE * 100; // Return as percentage
-        }
-
-        return 0.0; // No increase
+        return adjustmentBps(event) / 100.0;
     }
 
     // Get price increase amount
@@ -60,28 +57,12 @@ public class PricingService {
 
     // Check if price increase is applicable
     public boolean isPriceIncreaseApplicable(Event event) {
-        return event.getSoldPercentage() >= FIRST_THRESHOLD;
+        return adjustmentBps(event) > 0;
     }
 
     // Get next price tier information
     public PriceTierInfo getNextPriceTierInfo(Event event) {
-        double soldPercentage = event.getSoldPercentage();
-
-        if (soldPercentage < FIRST_THRESHOLD) {
-            return new PriceTierInfo(
-                    FIRST_THRESHOLD,
-                    FIRST_INCREASE * 100,
-                    event.getBasePrice().multiply(BigDecimal.valueOf(1 + FIRST_INCREASE))
-            );
-        } else if (soldPercentage < SECOND_THRESHOLD) {
-            return new PriceTierInfo(
-                    SECOND_THRESHOLD,
-                    SECOND_INCREASE * 100,
-                    event.getBasePrice().multiply(BigDecimal.valueOf(1 + SECOND_INCREASE))
-            );
-        }
-
-        return null; // Already at highest tier
+        return nextTier(event, pricingRuleEngine.curveFor(event), pricingRuleEngine.daysUntil(event));
     }
 
     // Calculate total cost for multiple tickets
@@ -96,16 +77,76 @@ public class PricingService {
 
     // Get pricing summary for an event
     public PricingSummary getPricingSummary(Event event) {
+        return summary(event, pricingRuleEngine.curveFor(event), pricingRuleEngine.daysUntil(event));
+    }
+
+    // Quote an event for a number of tickets (summary, next tier and total from one curve lookup)
+    public PriceQuote quote(Event event, int numberOfTickets) {
+        if (numberOfTickets <= 0) {
+            throw new IllegalArgumentException("Number of tickets must be positive");
+        }
+
+        PricingRuleEngine.PriceCurve curve = pricingRuleEngine.curveFor(event);
+        int daysUntil = pricingRuleEngine.daysUntil(event);
+        PricingSummary summary = summary(event, curve, daysUntil);
+        return new PriceQuote(
+                event.getId(),
+                numberOfTickets,
+                summary,
+                nextTier(event, curve, daysUntil),
+                summary.getCurrentPrice().multiply(BigDecimal.valueOf(numberOfTickets))
+        );
+    }
+
+    private PricingSummary summary(Event event, PricingRuleEngine.PriceCurve curve, int daysUntil) {
+        int percent = soldPercent(event.getTicketsSold(), event.getTotalTickets());
+        int recentTickets = ticketsInWindow(curve, event);
+        BigDecimal currentPrice = curve.price(event.getBasePrice(), percent, daysUntil, recentTickets);
+        int bps = curve.adjustmentBps(percent, daysUntil, recentTickets);
         return new PricingSummary(
                 event.getBasePrice(),
-                calculateCurrentPrice(event),
-                getPriceIncreasePercentage(event),
-                getPriceIncreaseAmount(event),
+                currentPrice,
+                bps / 100.0,
+                currentPrice.subtract(event.getBasePrice()),
                 event.getSoldPercentage(),
-                isPriceIncreaseApplicable(event)
+                bps > 0
+        );
+    }
+
+    private PriceTierInfo nextTier(Event event, PricingRuleEngine.PriceCurve curve, int daysUntil) {
+        int nextPercent = curve.nextSoldPercent(soldPercent(event.getTicketsSold(), event.getTotalTickets()));
+        if (nextPercent < 0) {
+            return null; // Already at highest tier
+        }
+
+        int recentTickets = ticketsInWindow(curve, event);
+        return new PriceTierInfo(
+                nextPercent,
+                curve.adjustmentBps(nextPercent, daysUntil, recentTickets) / 100.0,
+                curve.price(event.getBasePrice(), nextPercent, daysUntil, recentTickets)
         );
     }
 
+    private int adjustmentBps(Event event) {
+        PricingRuleEngine.PriceCurve curve = pricingRuleEngine.curveFor(event);
+        return curve.adjustmentBps(soldPercent(event.getTicketsSold(), event.getTotalTickets()),
+                pricingRuleEngine.daysUntil(event), ticketsInWindow(curve, event));
+    }
+
+    // Tickets sold in the curve's velocity window (only looked up for rules that price on velocity)
+    private int ticketsInWindow(PricingRuleEngine.PriceCurve curve, Event event) {
+        int window = curve.velocityWindow();
+        return window == 0 ? 0 : salesVelocityTracker.ticketsInWindow(event.getId(), window);
+    }
+
+    // Integer sold percentage, rounded down (exact against whole-percent thresholds)
+    private static int soldPercent(int ticketsSold, int totalTickets) {
+        if (totalTickets <= 0 || ticketsSold <= 0) {
+            return 0;
+        }
+        return (int) Math.min(100, (long) ticketsSold * 100 / totalTickets);
+    }
+
     // Inner class for price tier information
     public static class PriceTierInfo {
         private final double thresholdPercentage;
@@ -175,4 +216,42 @@ public class PricingService {
             return priceIncreased;
         }
     }
-}
\ No newline at end of file
+
+    // Inner class for one line of a bulk price quote
+    public static class PriceQuote {
+        private final Long eventId;
+        private final int tickets;
+        private final PricingSummary pricingSummary;
+        private final PriceTierInfo nextTier;
+        private final BigDecimal totalCost;
+
+        public PriceQuote(Long eventId, int tickets, PricingSummary pricingSummary,
+                          PriceTierInfo nextTier, BigDecimal totalCost) {
+            this.eventId = eventId;
+            this.tickets = tickets;
+            this.pricingSummary = pricingSummary;
+            this.nextTier = nextTier;
+            this.totalCost = totalCost;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public int getTickets() {
+            return tickets;
+        }
+
+        public PricingSummary getPricingSummary() {
+            return pricingSummary;
+        }
+
+        public PriceTierInfo getNextTier() {
+            return nextTier;
+        }
+
+        public BigDecimal getTotalCost() {
+            return totalCost;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Renders booking QR codes on a small worker pool into an LRU cache bounded by bytes, keyed by booking reference
+@Service
+public class QrCodeService {
+
+    public static final int IMAGE_SIZE = 300;
+
+    @Value("${booking.qr.render-threads:2}")
+    private int renderThreads = 2;
+
+    @Value("${booking.qr.queue-capacity:256}")
+    private int queueCapacity = 256;
+
+    @Value("${booking.qr.cache-max-bytes:16777216}")
+    private long cacheMaxBytes = 16L * 1024 * 1024;
+
+    @Value("${booking.qr.http-max-age-seconds:86400}")
+    private long httpMaxAgeSeconds = 86400;
+
+    private ThreadPoolExecutor renderPool;
+
+    // Access-ordered, so iteration starts at the least recently viewed ticket
+    private final LinkedHashMap<String, CachedImage> cache = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long cachedBytes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder renders = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        renderPool = new ThreadPoolExecutor(renderThreads, renderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "qr-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        renderPool.shutdownNow();
+    }
+
+    // Get the PNG for a booking, rendered on the worker pool unless it is cached
+    public CompletableFuture<byte[]> getPng(String bookingReference, String qrCodeData) {
+        byte[] cached = cached(bookingReference, qrCodeData);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(bookingReference, render);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            renderPool.execute(() -> renderInto(render, bookingReference, qrCodeData));
+        } catch (RejectedExecutionException e) {
+            // Pool is saturated, render on the caller instead of queueing without bound
+            renderInto(render, bookingReference, qrCodeData);
+        }
+        return render;
+    }
+
+    // Render a new booking's QR code in the background if the pool has room
+    public void prerender(String bookingReference, String qrCodeData) {
+        if (bookingReference == null || qrCodeData == null || cached(bookingReference, qrCodeData) != null) {
+            return;
+        }
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(bookingReference, render) != null) {
+            return;
+        }
+        try {
+            renderPool.execute(() -> renderInto(render, bookingReference, qrCodeData));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(bookingReference, render);
+        }
+    }
+
+    // Lazy image URL handed out instead of inline Base64
+    public String imageUrl(Long bookingId) {
+        return "/api/bookings/" + bookingId + "/qr.png";
+    }
+
+    // Strong ETag for a booking's QR image, changes when the ticket is reissued or changes status
+    public String eTag(Booking booking) {
+        String qrCode = booking.getQrCode();
+        return "\"" + booking.getBookingReference() + "-" + booking.getStatus()
+                + "-" + Integer.toHexString(qrCode == null ? 0 : qrCode.hashCode()) + "\"";
+    }
+
+    // Check an If-None-Match header against an ETag ("*", a single tag or a list)
+    public boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison is what If-None-Match uses
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // An image never changes under its ETag, so clients skip revalidation until it expires
+    public CacheControl cacheControl() {
+        return CacheControl.maxAge(httpMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate().immutable();
+    }
+
+    // Get cache and render counts
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (cache) {
+            stats.put("cachedImages", cache.size());
+            stats.put("cachedBytes", cachedBytes);
+        }
+        stats.put("cacheHits", hits.sum());
+        stats.put("renders", renders.sum());
+        stats.put("queuedRenders", renderPool.getQueue().size());
+        return stats;
+    }
+
+    private void renderInto(CompletableFuture<byte[]> render, String bookingReference, String qrCodeData) {
+        try {
+            byte[] png = QrPngEncoder.encode(qrCodeData, IMAGE_SIZE);
+            renders.increment();
+            put(bookingReference, new CachedImage(qrCodeData, png));
+            render.complete(png);
+        } catch (RuntimeException e) {
+            render.completeExceptionally(e);
+        } finally {
+            inFlight.remove(bookingReference, render);
+        }
+    }
+
+    private byte[] cached(String bookingReference, String qrCodeData) {
+        synchronized (cache) {
+            CachedImage image = cache.get(bookingReference);
+            // A reissued QR code (new payload, same reference) is rendered again
+            return image != null && image.qrCodeData.equals(qrCodeData) ? image.png : null;
+        }
+    }
+
+    private void put(String bookingReference, CachedImage image) {
+        synchronized (cache) {
+            CachedImage previous = cache.put(bookingReference, image);
+            cachedBytes += image.png.length - (previous == null ? 0 : previous.png.length);
+            Iterator<CachedImage> eldest = cache.values().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().png.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static final class CachedImage {
+        private final String qrCodeData;
+        private final byte[] png;
+
+        private CachedImage(String qrCodeData, byte[] png) {
+            this.qrCodeData = qrCodeData;
+            this.png = png;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.eventbooking.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Writes QR codes as 1-bit grayscale PNGs straight from ZXing's module matrix, pixel for pixel like QRCodeWriter
+public final class QrPngEncoder {
+
+    private static final int QUIET_ZONE_MODULES = 4;
+
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+
+    // Deflaters hold native memory, so a few are shared instead of one per thread
+    private static final int MAX_IDLE_WORKSPACES = 4;
+
+    private static final ConcurrentLinkedQueue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    private QrPngEncoder() {
+    }
+
+    // Encode data as a size x size PNG
+    public static byte[] encode(String data, int size) {
+        ByteMatrix modules;
+        try {
+            modules = Encoder.encode(data, ErrorCorrectionLevel.L).getMatrix();
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to generate QR code", e);
+        }
+
+        Workspace workspace = workspaces.poll();
+        if (workspace == null) {
+            workspace = new Workspace();
+        }
+        try {
+            return workspace.write(modules, size);
+        } finally {
+            if (workspaces.size() < MAX_IDLE_WORKSPACES) {
+                workspaces.offer(workspace);
+            } else {
+                workspace.deflater.end();
+            }
+        }
+    }
+
+    private static final class Workspace {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32 crc = new CRC32();
+        private byte[] pixels = new byte[0];
+        private byte[] out = new byte[4096];
+        private int length;
+
+        private byte[] write(ByteMatrix modules, int size) {
+            int moduleCount = modules.getWidth();
+            int sideWithQuietZone = moduleCount + QUIET_ZONE_MODULES * 2;
+            int side = Math.max(size, sideWithQuietZone);
+            int scale = side / sideWithQuietZone;
+            int padding = (side - moduleCount * scale) / 2;
+
+            // Filter byte (0 = none) then 1 bit per pixel, 1 is white
+            int rowBytes = 1 + (side + 7) / 8;
+            int pixelBytes = rowBytes * side;
+            if (pixels.length < pixelBytes) {
+                pixels = new byte[pixelBytes];
+            }
+            Arrays.fill(pixels, 0, pixelBytes, (byte) 0xFF);
+            for (int y = 0; y < side; y++) {
+                pixels[y * rowBytes] = 0;
+            }
+            for (int moduleY = 0; moduleY < moduleCount; moduleY++) {
+                int rowStart = (padding + moduleY * scale) * rowBytes;
+                for (int moduleX = 0; moduleX < moduleCount; moduleX++) {
+                    if (modules.get(moduleX, moduleY) == 1) {
+                        clearBits(pixels, rowStart + 1, padding + moduleX * scale, scale);
+                    }
+                }
+                for (int copy = 1; copy < scale; copy++) {
+                    System.arraycopy(pixels, rowStart, pixels, rowStart + copy * rowBytes, rowBytes);
+                }
+            }
+
+            length = 0;
+            put(SIGNATURE, 0, SIGNATURE.length);
+
+            int ihdr = beginChunk('I', 'H', 'D', 'R');
+            putInt(side);
+            putInt(side);
+            putByte(1); // bit depth
+            putByte(0); // grayscale
+            putByte(0); // deflate
+            putByte(0); // adaptive filtering
+            putByte(0); // not interlaced
+            endChunk(ihdr);
+
+            int idat = beginChunk('I', 'D', 'A', 'T');
+            deflater.reset();
+            deflater.setInput(pixels, 0, pixelBytes);
+            deflater.finish();
+            while (!deflater.finished()) {
+                ensureCapacity(1024);
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            endChunk(idat);
+
+            endChunk(beginChunk('I', 'E', 'N', 'D'));
+            return Arrays.copyOf(out, length);
+        }
+
+        // Clear count bits starting at bit "from" of the row (MSB first)
+        private static void clearBits(byte[] row, int rowOffset, int from, int count) {
+            for (int bit = from; bit < from + count; bit++) {
+                row[rowOffset + (bit >>> 3)] &= (byte) ~(0x80 >>> (bit & 7));
+            }
+        }
+
+        // Reserve the length field and write the chunk type, returns where the length goes
+        private int beginChunk(char a, char b, char c, char d) {
+            int start = length;
+            putInt(0);
+            putByte(a);
+            putByte(b);
+            putByte(c);
+            putByte(d);
+            return start;
+        }
+
+        // Patch in the data length and append the CRC of type and data
+        private void endChunk(int start) {
+            int dataLength = length - start - 8;
+            int end = length;
+            length = start;
+            putInt(dataLength);
+            length = end;
+            crc.reset();
+            crc.update(out, start + 4, dataLength + 4);
+            putInt((int) crc.getValue());
+        }
+
+        private void putInt(int value) {
+            ensureCapacity(4);
+            out[length++] = (byte) (value >>> 24);
+            out[length++] = (byte) (value >>> 16);
+            out[length++] = (byte) (value >>> 8);
+            out[length++] = (byte) value;
+        }
+
+        private void putByte(int value) {
+            ensureCapacity(1);
+            out[length++] = (byte) value;
+        }
+
+        private void put(byte[] bytes, int offset, int count) {
+            ensureCapacity(count);
+            System.arraycopy(bytes, offset, out, length, count);
+            length += count;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > out.length) {
+                out = Arrays.copyOf(out, Math.max(out.length * 2, length + extra));
+            }
+        }
+    }
+}
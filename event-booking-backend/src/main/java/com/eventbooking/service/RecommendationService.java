@@ -14,6 +14,9 @@ public class RecommendationService {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private TagIndex tagIndex;
+
     // Get recommended events based on event similarity (simple implementation)
     public List<Event> getRecommendedEvents(Long eventId, int limit) {
         Optional<Event> baseEventOpt = eventService.getEventById(eventId);
@@ -117,9 +120,7 @@ public class RecommendationService {
         }
 
         // Tags similarity (30% weight)
-        if (event1.getTags() != null && event2.getTags() != null) {
-            similarity += calculateTagsSimilarity(event1.getTags(), event2.getTags()) * 0.3;
-        }
+        similarity += calculateTagsSimilarity(event1, event2) * 0.3;
 
         // Name similarity (10% weight)
         if (event1.getName() != null && event2.getName() != null) {
@@ -129,26 +130,9 @@ public class RecommendationService {
         return similarity;
     }
 
-    // Calculate tags similarity
-    private double calculateTagsSimilarity(String tags1, String tags2) {
-        if (tags1 == null || tags2 == null) return 0.0;
-
-        Set<String> tagSet1 = Arrays.stream(tags1.toLowerCase().split(","))
-                .map(String::trim)
-                .collect(Collectors.toSet());
-
-        Set<String> tagSet2 = Arrays.stream(tags2.toLowerCase().split(","))
-                .map(String::trim)
-                .collect(Collectors.toSet());
-
-        // Calculate Jaccard similarity
-        Set<String> intersection = new HashSet<>(tagSet1);
-        intersection.retainAll(tagSet2);
-
-        Set<String> union = new HashSet<>(tagSet1);
-        union.addAll(tagSet2);
-
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    // Calculate tags similarity (Jaccard over the normalized tags, from the tag index)
+    private double calculateTagsSimilarity(Event event1, Event event2) {
+        return tagIndex.similarity(event1.getId(), event2.getId());
     }
 
     // Calculate basic text similarity
@@ -197,8 +181,7 @@ public class RecommendationService {
             reasons.add("same location");
         }
 
-        if (baseEvent.getTags() != null && recommendedEvent.getTags() != null &&
-                calculateTagsSimilarity(baseEvent.getTags(), recommendedEvent.getTags()) > 0.3) {
+        if (calculateTagsSimilarity(baseEvent, recommendedEvent) > 0.3) {
             reasons.add("similar interests");
         }
 
@@ -4,15 +4,27 @@ import com.eventbooking.model.Event;
 import com.eventbooking.model.Review;
 import com.eventbooking.model.User;
 import com.eventbooking.repository.ReviewRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ReviewService {
 
+    // Streamed reviews are dropped from the persistence context after every this many
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -41,9 +53,30 @@ public class ReviewService {
         Review review = new Review(user, event, rating, comment);
         return reviewRepository.save(review);
     }
-    // Get all reviews
-    public List<Review> getAllReviews() {
-        return reviewRepository.findAll();
+
+    // Get a page of reviews, newest first, starting after the cursor of the previous page
+    public KeysetPage<Review> getReviewsPage(String after, Integer limit) {
+        int pageSize = KeysetPage.pageSize(limit);
+        List<Review> reviews = after == null || after.isBlank()
+                ? reviewRepository.findRecentReviews(Limit.of(pageSize + 1))
+                : reviewRepository.findRecentReviewsBefore(KeysetPage.timeOf(after), KeysetPage.idOf(after),
+                        Limit.of(pageSize + 1));
+        return KeysetPage.of(reviews, pageSize,
+                review -> KeysetPage.cursorOf(review.getReviewDate(), review.getId()));
+    }
+
+    // Pass every review, with its event and user, to the action in id order without holding them all in memory
+    @Transactional(readOnly = true)
+    public void forEachReview(Consumer<Review> action) {
+        try (Stream<Review> reviews = reviewRepository.streamAllWithEventAndUser()) {
+            int[] streamed = {0};
+            reviews.forEach(review -> {
+                action.accept(review);
+                if (++streamed[0] % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
     }
 
     // Get review by ID
@@ -121,23 +154,37 @@ public class ReviewService {
         return reviewRepository.findHighRatedReviews(4);
     }
 
-    // Get recent reviews
-    public List<Review> getRecentReviews() {
-        return reviewRepository.findRecentReviews();
+    // Get the most recent reviews
+    public List<Review> getRecentReviews(int limit) {
+        return reviewRepository.findRecentReviews(Limit.of(Math.max(1, Math.min(limit, KeysetPage.MAX_PAGE_SIZE))));
     }
 
     // Get rating distribution for an event
     public RatingDistribution getRatingDistribution(Long eventId) {
-        List<Review> reviews = reviewRepository.findByEventId(eventId);
+        return toRatingDistribution(reviewRepository.countRatingsByEventId(eventId));
+    }
 
-        int[] distribution = new int[6]; // Index 0 unused, 1-5 for ratings
-        int totalReviews = reviews.size();
+    // Get rating distribution across all reviews
+    public RatingDistribution getOverallRatingDistribution() {
+        return toRatingDistribution(reviewRepository.countRatings());
+    }
 
-        for (Review review : reviews) {
-            distribution[review.getRating()]++;
+    // Counts, total and average (rounded to one decimal) from review counts per rating
+    private RatingDistribution toRatingDistribution(List<Object[]> countsByRating) {
+        int[] distribution = new int[6]; // Index 0 unused, 1-5 for ratings
+        int totalReviews = 0;
+        long ratingSum = 0;
+        for (Object[] row : countsByRating) {
+            int rating = ((Number) row[0]).intValue();
+            int count = ((Number) row[1]).intValue();
+            if (rating >= 1 && rating <= 5) {
+                distribution[rating] = count;
+                totalReviews += count;
+                ratingSum += (long) rating * count;
+            }
         }
-
-        return new RatingDistribution(distribution, totalReviews, getAverageRatingForEvent(eventId));
+        double averageRating = totalReviews == 0 ? 0.0 : Math.round(ratingSum * 10.0 / totalReviews) / 10.0;
+        return new RatingDistribution(distribution, totalReviews, averageRating);
     }
 
     // Get event review summary
@@ -145,11 +192,8 @@ public class ReviewService {
         Double avgRating = getAverageRatingForEvent(eventId);
         Integer reviewCount = getReviewCountForEvent(eventId);
         RatingDistribution distribution = getRatingDistribution(eventId);
-        List<Review> recentReviews = reviewRepository.findByEventIdOrderByReviewDateDesc(eventId);
-
         // Get only top 5 recent reviews for summary
-        List<Review> topRecentReviews = recentReviews.size() > 5 ?
-                recentReviews.subList(0, 5) : recentReviews;
+        List<Review> topRecentReviews = reviewRepository.findByEventIdOrderByReviewDateDesc(eventId, Limit.of(5));
 
         return new ReviewSummary(avgRating, reviewCount, distribution, topRecentReviews);
     }
@@ -0,0 +1,186 @@
+package com.eventbooking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Tickets sold per event over the last 5, 15 and 60 minutes, in a ring of one-minute slots updated with CAS
+// Window totals are cached per event and rebuilt at most once per minute and once per booking
+@Component
+public class SalesVelocityTracker {
+
+    public static final int SHORT_WINDOW_MINUTES = 5;
+    public static final int MEDIUM_WINDOW_MINUTES = 15;
+    public static final int LONG_WINDOW_MINUTES = 60;
+
+    private static final int SLOTS = LONG_WINDOW_MINUTES;
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    private final ConcurrentHashMap<Long, Ring> rings = new ConcurrentHashMap<>();
+
+    // Wall clock in milliseconds, replaced by simulations
+    private LongSupplier clock = System::currentTimeMillis;
+
+    // Count booked tickets, once the current transaction commits
+    public void record(Long eventId, int tickets) {
+        if (eventId == null || tickets == 0) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> recordNow(eventId, tickets));
+    }
+
+    // Take cancelled tickets off the minute they were booked in, if that minute is still in the window
+    public void recordCancellation(Long eventId, int tickets, LocalDateTime bookedAt) {
+        if (eventId == null || tickets <= 0 || bookedAt == null) {
+            return;
+        }
+        long bookedMinute = bookedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / MILLIS_PER_MINUTE;
+        TransactionHooks.afterCommit(() -> {
+            Ring ring = rings.get(eventId);
+            long minute = currentMinute();
+            if (ring != null && bookedMinute <= minute && minute - bookedMinute < SLOTS) {
+                ring.remove(bookedMinute, tickets);
+            }
+        });
+    }
+
+    // Net tickets sold in the last 5, 15 or 60 minutes (including the current minute)
+    public int ticketsInWindow(Long eventId, int windowMinutes) {
+        if (eventId == null) {
+            return 0;
+        }
+        Ring ring = rings.get(eventId);
+        if (ring == null) {
+            return 0;
+        }
+        Window window = ring.window(currentMinute());
+        return switch (windowMinutes) {
+            case SHORT_WINDOW_MINUTES -> window.shortTotal;
+            case MEDIUM_WINDOW_MINUTES -> window.mediumTotal;
+            case LONG_WINDOW_MINUTES -> window.longTotal;
+            default -> throw new IllegalArgumentException("Sales velocity window must be 5, 15 or 60 minutes");
+        };
+    }
+
+    // Get tickets per minute over each window
+    public Map<String, Object> getVelocity(Long eventId) {
+        Map<String, Object> velocity = new HashMap<>();
+        velocity.put("last5Minutes", (double) ticketsInWindow(eventId, SHORT_WINDOW_MINUTES) / SHORT_WINDOW_MINUTES);
+        velocity.put("last15Minutes", (double) ticketsInWindow(eventId, MEDIUM_WINDOW_MINUTES) / MEDIUM_WINDOW_MINUTES);
+        velocity.put("last60Minutes", (double) ticketsInWindow(eventId, LONG_WINDOW_MINUTES) / LONG_WINDOW_MINUTES);
+        return velocity;
+    }
+
+    // Forget a deleted event
+    public void evict(Long eventId) {
+        rings.remove(eventId);
+    }
+
+    private void recordNow(Long eventId, int tickets) {
+        rings.computeIfAbsent(eventId, id -> new Ring()).add(currentMinute(), tickets);
+    }
+
+    private long currentMinute() {
+        return clock.getAsLong() / MILLIS_PER_MINUTE;
+    }
+
+    private static final class Ring {
+        private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+        private final AtomicInteger writes = new AtomicInteger();
+        private volatile Window window = new Window(-1, -1, 0, 0, 0);
+
+        private void add(long minute, int tickets) {
+            int index = (int) (minute % SLOTS);
+            while (true) {
+                long slot = slots.get(index);
+                long count = minuteOf(slot) == minute ? countOf(slot) : 0;
+                if (slots.compareAndSet(index, slot, pack(minute, count + tickets))) {
+                    break;
+                }
+            }
+            writes.incrementAndGet();
+        }
+
+        // Slots only go down to zero, a minute recorded before a restart has nothing left to take off
+        private void remove(long minute, int tickets) {
+            int index = (int) (minute % SLOTS);
+            while (true) {
+                long slot = slots.get(index);
+                if (minuteOf(slot) != minute) {
+                    return;
+                }
+                if (slots.compareAndSet(index, slot, pack(minute, Math.max(0, countOf(slot) - tickets)))) {
+                    break;
+                }
+            }
+            writes.incrementAndGet();
+        }
+
+        private Window window(long minute) {
+            Window current = window;
+            int version = writes.get();
+            if (current.minute == minute && current.version == version) {
+                return current;
+            }
+
+            // Tagged with the write count read before summing, a booking that lands
+            // meanwhile leaves the snapshot stale and the next read rebuilds it
+            int shortTotal = 0;
+            int mediumTotal = 0;
+            int longTotal = 0;
+            for (int age = 0; age < SLOTS; age++) {
+                long slotMinute = minute - age;
+                long slot = slots.get((int) (slotMinute % SLOTS));
+                if (minuteOf(slot) != slotMinute) {
+                    continue;
+                }
+                int count = countOf(slot);
+                longTotal += count;
+                if (age < MEDIUM_WINDOW_MINUTES) {
+                    mediumTotal += count;
+                }
+                if (age < SHORT_WINDOW_MINUTES) {
+                    shortTotal += count;
+                }
+            }
+            Window rebuilt = new Window(minute, version, shortTotal, mediumTotal, longTotal);
+            window = rebuilt;
+            return rebuilt;
+        }
+
+        private static long pack(long minute, long count) {
+            return (minute << 32) | (count & 0xFFFFFFFFL);
+        }
+
+        private static long minuteOf(long slot) {
+            return slot >>> 32;
+        }
+
+        private static int countOf(long slot) {
+            return (int) slot;
+        }
+    }
+
+    private static final class Window {
+        private final long minute;
+        private final int version;
+        private final int shortTotal;
+        private final int mediumTotal;
+        private final int longTotal;
+
+        private Window(long minute, int version, int shortTotal, int mediumTotal, int longTotal) {
+            this.minute = minute;
+            this.version = version;
+            this.shortTotal = shortTotal;
+            this.mediumTotal = mediumTotal;
+            this.longTotal = longTotal;
+        }
+    }
+}
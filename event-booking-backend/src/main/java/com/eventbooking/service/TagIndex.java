@@ -0,0 +1,304 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.EventTag;
+import com.eventbooking.model.Tag;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory tag index: a RoaringBitmap of event ids per tag, so tag filters and facet counts are bitmap operations
+// Built from event_tags at startup and kept in step once each change commits
+@Component
+public class TagIndex {
+
+    private static final int[] NO_TAGS = new int[0];
+
+    // Facets walk the matched events' own tags when at most this share of tagged events matched
+    private static final int FORWARD_FACETS_DIVISOR = 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock, tags are indexed by their id
+    private final HashMap<String, Integer> tagIds = new HashMap<>();
+    private String[] tagNames = new String[64];
+    private RoaringBitmap[] tagEvents = new RoaringBitmap[64];
+    private int[][] eventTags = new int[0][];
+    private final RoaringBitmap taggedEvents = new RoaringBitmap();
+
+    // Replace the index with the tag dictionary and every event_tags row
+    void load(List<Tag> tags, List<EventTag> rows) {
+        lock.writeLock().lock();
+        try {
+            tagIds.clear();
+            Arrays.fill(tagNames, null);
+            Arrays.fill(tagEvents, null);
+            eventTags = new int[0][];
+            taggedEvents.clear();
+            for (Tag tag : tags) {
+                defineTag(tag);
+            }
+            HashMap<Integer, List<Integer>> byEvent = new HashMap<>();
+            for (EventTag row : rows) {
+                int event = Math.toIntExact(row.getEventId());
+                int tag = Math.toIntExact(row.getTagId());
+                tagEvents[tag].add(event);
+                byEvent.computeIfAbsent(event, e -> new ArrayList<>()).add(tag);
+            }
+            for (Map.Entry<Integer, List<Integer>> entry : byEvent.entrySet()) {
+                int[] ids = entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+                setEventTags(entry.getKey(), ids);
+                taggedEvents.add(entry.getKey());
+            }
+            for (RoaringBitmap events : tagEvents) {
+                if (events != null) {
+                    events.runOptimize();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Id of a tag in the dictionary by its normalized name, null if there is none
+    public Long getTagId(String name) {
+        lock.readLock().lock();
+        try {
+            Integer id = tagIds.get(name);
+            return id == null ? null : id.longValue();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Set an event's tags, applied once the current transaction commits
+    public void index(Long eventId, List<Tag> tags) {
+        int event = Math.toIntExact(eventId);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeEvent(event);
+                int[] ids = new int[tags.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = defineTag(tags.get(i));
+                    tagEvents[ids[i]].add(event);
+                }
+                Arrays.sort(ids);
+                if (ids.length > 0) {
+                    setEventTags(event, ids);
+                    taggedEvents.add(event);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Drop an event from the index, applied once the current transaction commits
+    public void remove(Long eventId) {
+        int event = Math.toIntExact(eventId);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeEvent(event);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Ids of events having every one of the tags (normalized names); no tags matches every tagged event
+    public RoaringBitmap matchAll(Collection<String> tags) {
+        lock.readLock().lock();
+        try {
+            if (tags.isEmpty()) {
+                return taggedEvents.clone();
+            }
+            List<RoaringBitmap> bitmaps = new ArrayList<>(tags.size());
+            for (String tag : tags) {
+                Integer id = tagIds.get(tag);
+                if (id == null) {
+                    return new RoaringBitmap();
+                }
+                bitmaps.add(tagEvents[id]);
+            }
+            // Smallest first: every AND after it can only shrink the result
+            bitmaps.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            RoaringBitmap result = bitmaps.get(0).clone();
+            for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+                result.and(bitmaps.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of events having at least one of the tags (normalized names); no tags matches every tagged event
+    public RoaringBitmap matchAny(Collection<String> tags) {
+        lock.readLock().lock();
+        try {
+            if (tags.isEmpty()) {
+                return taggedEvents.clone();
+            }
+            List<RoaringBitmap> bitmaps = new ArrayList<>(tags.size());
+            for (String tag : tags) {
+                Integer id = tagIds.get(tag);
+                if (id != null) {
+                    bitmaps.add(tagEvents[id]);
+                }
+            }
+            return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Most frequent tags among the given events, with how many of them have each
+    public List<TagCount> facets(RoaringBitmap events, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] tagCounts = new int[tagEvents.length];
+            int matched = events.getCardinality();
+            if (matched <= taggedEvents.getCardinality() / FORWARD_FACETS_DIVISOR) {
+                events.forEach((int event) -> {
+                    int[] ids = event < eventTags.length ? eventTags[event] : null;
+                    if (ids != null) {
+                        for (int id : ids) {
+                            tagCounts[id]++;
+                        }
+                    }
+                });
+            } else {
+                for (int id = 0; id < tagEvents.length; id++) {
+                    if (tagEvents[id] != null) {
+                        tagCounts[id] = RoaringBitmap.andCardinality(tagEvents[id], events);
+                    }
+                }
+            }
+            List<TagCount> counts = new ArrayList<>();
+            for (int id = 0; id < tagCounts.length; id++) {
+                if (tagCounts[id] > 0) {
+                    counts.add(new TagCount(tagNames[id], tagCounts[id]));
+                }
+            }
+            counts.sort(Comparator.comparingInt(TagCount::getCount).reversed().thenComparing(TagCount::getTag));
+            return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Jaccard similarity of two events' tags (shared tags over all their distinct tags)
+    public double similarity(Long eventId1, Long eventId2) {
+        if (eventId1 == null || eventId2 == null) {
+            return 0.0;
+        }
+        lock.readLock().lock();
+        try {
+            int[] tags1 = tagsOf(Math.toIntExact(eventId1));
+            int[] tags2 = tagsOf(Math.toIntExact(eventId2));
+            int shared = 0;
+            for (int i = 0, j = 0; i < tags1.length && j < tags2.length; ) {
+                if (tags1[i] < tags2[j]) {
+                    i++;
+                } else if (tags1[i] > tags2[j]) {
+                    j++;
+                } else {
+                    shared++;
+                    i++;
+                    j++;
+                }
+            }
+            int union = tags1.length + tags2.length - shared;
+            return union == 0 ? 0.0 : (double) shared / union;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Get index size
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (RoaringBitmap events : tagEvents) {
+                if (events != null) {
+                    bytes += events.getLongSizeInBytes();
+                }
+            }
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("tags", tagIds.size());
+            stats.put("taggedEvents", taggedEvents.getCardinality());
+            stats.put("bitmapBytes", bytes);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int defineTag(Tag tag) {
+        int id = Math.toIntExact(tag.getId());
+        if (id >= tagEvents.length) {
+            int capacity = Math.max(id + 1, tagEvents.length * 2);
+            tagNames = Arrays.copyOf(tagNames, capacity);
+            tagEvents = Arrays.copyOf(tagEvents, capacity);
+        }
+        if (tagEvents[id] == null) {
+            tagIds.put(tag.getName(), id);
+            tagNames[id] = tag.getName();
+            tagEvents[id] = new RoaringBitmap();
+        }
+        return id;
+    }
+
+    private void removeEvent(int event) {
+        int[] ids = tagsOf(event);
+        for (int id : ids) {
+            tagEvents[id].remove(event);
+        }
+        if (ids.length > 0) {
+            eventTags[event] = null;
+            taggedEvents.remove(event);
+        }
+    }
+
+    private int[] tagsOf(int event) {
+        int[] ids = event < eventTags.length ? eventTags[event] : null;
+        return ids != null ? ids : NO_TAGS;
+    }
+
+    private void setEventTags(int event, int[] ids) {
+        if (event >= eventTags.length) {
+            eventTags = Arrays.copyOf(eventTags, Math.max(event + 1024, eventTags.length + (eventTags.length >> 3)));
+        }
+        eventTags[event] = ids;
+    }
+
+    // A tag and how many events in a result have it
+    public static class TagCount {
+        private final String tag;
+        private final int count;
+
+        public TagCount(String tag, int count) {
+            this.tag = tag;
+            this.count = count;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventTag;
+import com.eventbooking.model.Tag;
+import com.eventbooking.repository.EventRepository;
+import com.eventbooking.repository.EventTagRepository;
+import com.eventbooking.repository.TagRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps the tag dictionary and event_tags rows in step with each event's comma-separated tags, and the TagIndex with them
+@Service
+public class TagService {
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EventTagRepository eventTagRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    // Normalize the tags of events saved without tag rows (the sample data), then build the index
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        List<Event> untagged = eventRepository.findEventsWithoutTagRows();
+        Map<String, Tag> known = new HashMap<>();
+        for (Tag tag : tagRepository.findAll()) {
+            known.put(tag.getName(), tag);
+        }
+        List<EventTag> rows = new ArrayList<>();
+        for (Event event : untagged) {
+            for (String name : normalize(event.getTags())) {
+                Tag tag = known.computeIfAbsent(name, n -> tagRepository.save(new Tag(n)));
+                rows.add(new EventTag(event.getId(), tag.getId()));
+            }
+        }
+        eventTagRepository.saveAll(rows);
+        eventTagRepository.flush();
+
+        tagIndex.load(new ArrayList<>(known.values()), eventTagRepository.findAll());
+        System.out.println("🏷️ Tag index built: " + known.size() + " tags (" + untagged.size() + " events normalized)");
+    }
+
+    // Write an event's tag rows from its tags string, interning new tags into the dictionary
+    @Transactional
+    public void syncTags(Event event) {
+        List<Tag> tags = new ArrayList<>();
+        Set<Long> wanted = new HashSet<>();
+        for (String name : normalize(event.getTags())) {
+            Tag tag = intern(name);
+            tags.add(tag);
+            wanted.add(tag.getId());
+        }
+
+        // Only rows that changed are written, so an update that keeps the tags touches nothing
+        List<EventTag> stale = new ArrayList<>();
+        Set<Long> existing = new HashSet<>();
+        for (EventTag row : eventTagRepository.findByEventId(event.getId())) {
+            existing.add(row.getTagId());
+            if (!wanted.contains(row.getTagId())) {
+                stale.add(row);
+            }
+        }
+        eventTagRepository.deleteAll(stale);
+        List<EventTag> added = new ArrayList<>();
+        for (Long tagId : wanted) {
+            if (!existing.contains(tagId)) {
+                added.add(new EventTag(event.getId(), tagId));
+            }
+        }
+        eventTagRepository.saveAll(added);
+        tagIndex.index(event.getId(), tags);
+    }
+
+    // Delete an event's tag rows (before the event itself, they reference it)
+    @Transactional
+    public void removeEvent(Long eventId) {
+        eventTagRepository.deleteByEventId(eventId);
+        tagIndex.remove(eventId);
+    }
+
+    // Distinct normalized tags of a comma-separated list: trimmed, lowercase, runs of whitespace as one space
+    public static List<String> normalize(String tags) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tags == null) {
+            return new ArrayList<>();
+        }
+        for (String tag : tags.split(",")) {
+            String name = tag.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.length() > Tag.MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Tag must not exceed " + Tag.MAX_NAME_LENGTH + " characters: " + name);
+            }
+            names.add(name);
+        }
+        return new ArrayList<>(names);
+    }
+
+    private Tag intern(String name) {
+        Long id = tagIndex.getTagId(name);
+        if (id != null) {
+            Tag tag = new Tag(name);
+            tag.setId(id);
+            return tag;
+        }
+        return tagRepository.findByName(name).orElseGet(() -> tagRepository.save(new Tag(name)));
+    }
+}
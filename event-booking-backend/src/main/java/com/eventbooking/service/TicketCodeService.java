@@ -0,0 +1,247 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.BookingStatus;
+import com.eventbooking.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Signed ticket codes gates can check without a database: varint fields and a truncated HMAC-SHA256, Base45 encoded
+// Cancelled bookings are kept in a revoked bitset loaded at startup
+@Service
+public class TicketCodeService {
+
+    private static final byte VERSION = 1;
+
+    private static final int MAC_BYTES = 10;
+
+    private static final int MIN_KEY_BYTES = 32;
+
+    @Value("${booking.qr.signing-key:}")
+    private String signingKey = "";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private SecretKeySpec key;
+
+    private ThreadLocal<Mac> macs;
+
+    // Bit per booking id, replaced by a larger copy when an id does not fit
+    private volatile AtomicLongArray revoked = new AtomicLongArray(64);
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes;
+        if (signingKey == null || signingKey.isBlank()) {
+            keyBytes = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+            System.out.println("⚠️ booking.qr.signing-key is not set, ticket codes signed with a random key"
+                    + " will not verify after a restart or on other nodes");
+        } else {
+            keyBytes = Base64.getDecoder().decode(signingKey.trim());
+            if (keyBytes.length < MIN_KEY_BYTES) {
+                throw new IllegalArgumentException("booking.qr.signing-key must be at least "
+                        + MIN_KEY_BYTES + " bytes (Base64)");
+            }
+        }
+        key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    // Load cancelled bookings into the revoked set
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevoked() {
+        for (Long bookingId : bookingRepository.findIdsByStatus(BookingStatus.CANCELLED)) {
+            revokeNow(bookingId);
+        }
+    }
+
+    // Signed code for a saved booking, valid until the day after the event
+    public String sign(Booking booking) {
+        LocalDate eventDate = booking.getEvent().getDate();
+        LocalDate lastValidDay = eventDate != null ? eventDate.plusDays(1) : LocalDate.now().plusYears(1);
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(32);
+        payload.write(VERSION);
+        writeVarint(payload, booking.getId());
+        writeVarint(payload, booking.getEvent().getId());
+        writeVarint(payload, booking.getTicketsBooked());
+        writeVarint(payload, lastValidDay.toEpochDay());
+        byte[] body = payload.toByteArray();
+
+        byte[] code = Arrays.copyOf(body, body.length + MAC_BYTES);
+        System.arraycopy(mac(body, body.length), 0, code, body.length, MAC_BYTES);
+        return Base45.encode(code);
+    }
+
+    // Check a code's signature, expiry and revocation without touching the database
+    public Verification verify(String code) {
+        byte[] bytes;
+        try {
+            bytes = Base45.decode(code);
+        } catch (IllegalArgumentException e) {
+            return Verification.failed(Result.MALFORMED);
+        }
+        if (bytes.length <= MAC_BYTES + 1 || bytes[0] != VERSION) {
+            return Verification.failed(Result.MALFORMED);
+        }
+
+        int bodyLength = bytes.length - MAC_BYTES;
+        byte[] expected = Arrays.copyOf(mac(bytes, bodyLength), MAC_BYTES);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, bodyLength, bytes.length))) {
+            return Verification.failed(Result.BAD_SIGNATURE);
+        }
+
+        long[] fields = new long[4];
+        int position = 1;
+        for (int field = 0; field < fields.length; field++) {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                if (position >= bodyLength || shift > 56) {
+                    return Verification.failed(Result.MALFORMED);
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            fields[field] = value;
+        }
+
+        Verification verification = new Verification(Result.VALID, fields[0], fields[1], (int) fields[2],
+                LocalDate.ofEpochDay(fields[3]));
+        if (LocalDate.now().isAfter(verification.lastValidDay)) {
+            return verification.withResult(Result.EXPIRED);
+        }
+        if (isRevoked(verification.bookingId)) {
+            return verification.withResult(Result.REVOKED);
+        }
+        return verification;
+    }
+
+    // Revoke a booking's code once the current transaction commits
+    public void revoke(Long bookingId) {
+        TransactionHooks.afterCommit(() -> revokeNow(bookingId));
+    }
+
+    public boolean isRevoked(long bookingId) {
+        AtomicLongArray bits = revoked;
+        long word = bookingId >>> 6;
+        return word < bits.length() && (bits.get((int) word) & (1L << bookingId)) != 0;
+    }
+
+    private synchronized void revokeNow(long bookingId) {
+        int word = (int) (bookingId >>> 6);
+        AtomicLongArray bits = revoked;
+        if (word >= bits.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, bits.length() * 2));
+            for (int i = 0; i < bits.length(); i++) {
+                grown.set(i, bits.get(i));
+            }
+            revoked = grown;
+            bits = grown;
+        }
+        long bit = 1L << bookingId;
+        bits.getAndAccumulate(word, bit, (current, add) -> current | add);
+    }
+
+    private byte[] mac(byte[] data, int length) {
+        Mac mac = macs.get();
+        mac.update(data, 0, length);
+        return mac.doFinal();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public enum Result {
+        VALID,
+        MALFORMED,
+        BAD_SIGNATURE,
+        EXPIRED,
+        REVOKED
+    }
+
+    // Outcome of checking a ticket code (ids are only set once the signature checked out)
+    public static class Verification {
+        private final Result result;
+        private final Long bookingId;
+        private final Long eventId;
+        private final Integer tickets;
+        private final LocalDate lastValidDay;
+
+        public Verification(Result result, Long bookingId, Long eventId, Integer tickets, LocalDate lastValidDay) {
+            this.result = result;
+            this.bookingId = bookingId;
+            this.eventId = eventId;
+            this.tickets = tickets;
+            this.lastValidDay = lastValidDay;
+        }
+
+        public static Verification failed(Result result) {
+            return new Verification(result, null, null, null, null);
+        }
+
+        public Verification withResult(Result result) {
+            return new Verification(result, bookingId, eventId, tickets, lastValidDay);
+        }
+
+        public boolean isValid() {
+            return result == Result.VALID;
+        }
+
+        public Result getResult() {
+            return result;
+        }
+
+        public Long getBookingId() {
+            return bookingId;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public Integer getTickets() {
+            return tickets;
+        }
+
+        public LocalDate getLastValidDay() {
+            return lastValidDay;
+        }
+    }
+}
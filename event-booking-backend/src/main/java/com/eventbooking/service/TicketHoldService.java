@@ -0,0 +1,207 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.TicketHold;
+import com.eventbooking.model.User;
+import com.eventbooking.repository.EventRepository;
+import com.eventbooking.repository.TicketHoldRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Checkout holds: tickets are taken when the hold is placed, then booked or handed back when it expires
+// Expiry runs off a timing wheel, so there is no timer per hold and no sweep over all holds
+@Service
+public class TicketHoldService {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
+
+    @Autowired
+    private TicketHoldRepository ticketHoldRepository;
+
+    @Value("${booking.holds.ttl-seconds:600}")
+    private long holdTtlSeconds = 600;
+
+    private final ConcurrentHashMap<String, TicketHold> holds = new ConcurrentHashMap<>();
+
+    private final TimingWheel<TicketHold> expiryWheel =
+            new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+
+    // Hold tickets for a user
+    @RetryOnConflict
+    @Transactional
+    public TicketHold createHold(User user, Long eventId, Integer tickets) {
+        if (tickets == null || tickets <= 0) {
+            throw new IllegalArgumentException("Number of tickets must be positive");
+        }
+
+        Optional<Event> eventOpt = eventRepository.findById(eventId);
+        if (!eventOpt.isPresent()) {
+            throw new RuntimeException("Event not found");
+        }
+
+        Event event = eventOpt.get();
+        int ticketsSold = ticketInventoryService.reserve(event, tickets);
+        if (ticketsSold < 0) {
+            throw new RuntimeException("Not enough tickets available. Available: "
+                    + ticketInventoryService.getAvailableTickets(event));
+        }
+
+        // The price is locked in for as long as the hold lasts
+        BigDecimal unitPrice = pricingService.calculateCurrentPrice(
+                event, ticketsSold - tickets, event.getTotalTickets());
+        long expiresAtMillis = System.currentTimeMillis() + holdTtlSeconds * 1000;
+        TicketHold hold = new TicketHold(UUID.randomUUID().toString(), user.getId(), event, tickets,
+                unitPrice, expiresAtMillis);
+
+        ticketHoldRepository.save(hold);
+        // Armed only once saved, a rolled back hold already had its tickets handed back
+        TransactionHooks.afterCommit(() -> {
+            holds.put(hold.getHoldId(), hold);
+            schedule(hold);
+        });
+        return hold;
+    }
+
+    // Re-arm the holds left by the last run, their tickets are still counted as sold (lapsed ones are handed back)
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreHolds() {
+        List<TicketHold> restored = ticketHoldRepository.findAllWithEvent();
+        for (TicketHold hold : restored) {
+            holds.put(hold.getHoldId(), hold);
+            schedule(hold);
+        }
+        System.out.println("⏳ Restored " + restored.size() + " ticket holds");
+    }
+
+    // Get an active hold
+    public Optional<TicketHold> getHold(String holdId) {
+        TicketHold hold = holds.get(holdId);
+        if (hold == null || hold.isExpired(System.currentTimeMillis())) {
+            return Optional.empty();
+        }
+        return Optional.of(hold);
+    }
+
+    // Release a hold before it expires
+    public TicketHold releaseHold(String holdId) {
+        TicketHold hold = holds.remove(holdId);
+        if (hold == null) {
+            throw new RuntimeException("Hold not found or already expired");
+        }
+
+        ticketHoldRepository.deleteById(holdId);
+        ticketInventoryService.release(hold.getEvent(), hold.getTickets());
+        return hold;
+    }
+
+    // Take a hold out of the store to turn it into a booking (put back if the booking rolls back)
+    public TicketHold consumeHold(String holdId, Long userId) {
+        TicketHold hold = holds.get(holdId);
+        if (hold == null || hold.isExpired(System.currentTimeMillis())) {
+            throw new RuntimeException("Hold not found or already expired");
+        }
+        if (!hold.getUserId().equals(userId)) {
+            throw new RuntimeException("Hold belongs to another user");
+        }
+        if (!holds.remove(holdId, hold)) {
+            throw new RuntimeException("Hold not found or already expired");
+        }
+
+        // Deleted in the booking's transaction, so a rollback keeps the row as well
+        ticketHoldRepository.deleteById(holdId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        holds.put(hold.getHoldId(), hold);
+                        schedule(hold);
+                    }
+                }
+            });
+        }
+        return hold;
+    }
+
+    // Drop the holds of an event being deleted, its tickets go with it
+    @Transactional
+    public void removeEvent(Long eventId) {
+        ticketHoldRepository.deleteByEventId(eventId);
+        TransactionHooks.afterCommit(() -> holds.values().removeIf(hold -> hold.getEventId().equals(eventId)));
+    }
+
+    // Get number of active holds
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    // Expire due holds and hand their tickets back, one release per event
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expireHolds() {
+        List<TicketHold> due = new ArrayList<>();
+        synchronized (expiryWheel) {
+            expiryWheel.advance(System.currentTimeMillis(), due::add);
+        }
+        releaseExpired(due);
+    }
+
+    // Arm a hold's expiry, handing it back straight away if it has already lapsed
+    private void schedule(TicketHold hold) {
+        boolean scheduled = false;
+        if (!hold.isExpired(System.currentTimeMillis())) {
+            synchronized (expiryWheel) {
+                scheduled = expiryWheel.add(hold, hold.getExpiresAtMillis());
+            }
+        }
+        if (!scheduled) {
+            releaseExpired(List.of(hold));
+        }
+    }
+
+    private void releaseExpired(List<TicketHold> due) {
+        Map<Long, Integer> ticketsByEvent = new HashMap<>();
+        Map<Long, Event> events = new HashMap<>();
+        List<String> expiredIds = new ArrayList<>();
+        for (TicketHold hold : due) {
+            // Skip holds that were already released or booked
+            if (holds.remove(hold.getHoldId(), hold)) {
+                expiredIds.add(hold.getHoldId());
+                ticketsByEvent.merge(hold.getEventId(), hold.getTickets(), Integer::sum);
+                events.putIfAbsent(hold.getEventId(), hold.getEvent());
+            }
+        }
+
+        if (expiredIds.isEmpty()) {
+            return;
+        }
+        ticketHoldRepository.deleteAllByIdInBatch(expiredIds);
+        ticketsByEvent.forEach((eventId, tickets) ->
+                ticketInventoryService.release(events.get(eventId), tickets));
+    }
+}
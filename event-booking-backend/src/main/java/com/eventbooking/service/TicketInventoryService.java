@@ -0,0 +1,275 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.repository.EventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Arbitrates every ticket reservation and release: a CAS on a packed counter in MEMORY mode,
+// a guarded UPDATE in DATABASE mode, a @Version check with retry in OPTIMISTIC mode
+@Service
+public class TicketInventoryService {
+
+    public enum Mode {
+        MEMORY,
+        DATABASE,
+        OPTIMISTIC
+    }
+
+    @Value("${booking.inventory.mode:MEMORY}")
+    private Mode mode = Mode.MEMORY;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private BookingConflictMetrics conflictMetrics;
+
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    private final Set<Long> dirtyEvents = ConcurrentHashMap.newKeySet();
+
+    // Reserve tickets for an event, returns tickets sold after the reservation or -1 if sold out
+    public int reserve(Event event, int tickets) {
+        if (tickets <= 0) {
+            throw new IllegalArgumentException("Number of tickets must be positive");
+        }
+
+        if (mode == Mode.DATABASE) {
+            if (eventRepository.reserveTickets(event.getId(), tickets) == 0) {
+                return -1;
+            }
+            // Read back, the caller's snapshot misses reservations other buyers made since it was loaded
+            dirtyEvents.add(event.getId());
+            return eventRepository.findTicketsSoldById(event.getId());
+        }
+
+        if (mode == Mode.OPTIMISTIC) {
+            conflictMetrics.recordAttempt(event.getId());
+            int sold = event.getTicketsSold();
+            if (event.getTotalTickets() - sold < tickets) {
+                return -1;
+            }
+            event.setTicketsSold(sold + tickets);
+            event.setCurrentPrice(pricingService.calculateCurrentPrice(
+                    event, sold + tickets, event.getTotalTickets()));
+            // Flush now so a version conflict fails this attempt instead of the commit
+            try {
+                eventRepository.saveAndFlush(event);
+            } catch (OptimisticLockingFailureException e) {
+                throw new ObjectOptimisticLockingFailureException(Event.class, event.getId(), e);
+            }
+            return sold + tickets;
+        }
+
+        Slot slot = slotFor(event);
+        while (true) {
+            long state = slot.state.get();
+            int total = totalOf(state);
+            int sold = soldOf(state);
+            if (total - sold < tickets) {
+                return -1;
+            }
+            if (slot.state.compareAndSet(state, pack(total, sold + tickets))) {
+                dirtyEvents.add(event.getId());
+                releaseOnRollback(event.getId(), slot, tickets);
+                return sold + tickets;
+            }
+        }
+    }
+
+    // Release previously reserved tickets (in memory mode, once the current transaction commits)
+    public void release(Event event, int tickets) {
+        if (mode != Mode.MEMORY) {
+            eventRepository.releaseTickets(event.getId(), tickets);
+            dirtyEvents.add(event.getId());
+            return;
+        }
+
+        Long eventId = event.getId();
+        Slot slot = slotFor(event);
+        TransactionHooks.afterCommit(() -> releaseNow(eventId, slot, tickets));
+    }
+
+    // Get tickets sold as seen by the inventory
+    public int getTicketsSold(Event event) {
+        if (mode != Mode.MEMORY) {
+            return event.getTicketsSold();
+        }
+        return soldOf(slotFor(event).state.get());
+    }
+
+    // Get available tickets as seen by the inventory
+    public int getAvailableTickets(Event event) {
+        if (mode != Mode.MEMORY) {
+            return event.getAvailableTickets();
+        }
+        long state = slotFor(event).state.get();
+        return totalOf(state) - soldOf(state);
+    }
+
+    // Sync an edited event with the inventory (called before the event is saved)
+    public void syncEvent(Event event) {
+        if (event.getId() == null) {
+            return;
+        }
+
+        Slot slot = slots.get(event.getId());
+        if (slot == null) {
+            return;
+        }
+
+        slot.pricing = pricingSnapshot(event);
+        while (true) {
+            long state = slot.state.get();
+            int sold = soldOf(state);
+            if (slot.state.compareAndSet(state, pack(event.getTotalTickets(), sold))) {
+                // The inventory owns tickets sold, never let a stale entity overwrite it
+                event.setTicketsSold(sold);
+                event.setCurrentPrice(pricingService.calculateCurrentPrice(
+                        event, sold, event.getTotalTickets()));
+                return;
+            }
+        }
+    }
+
+    // Drop an event from the inventory (called when the event is deleted)
+    public void evict(Long eventId) {
+        slots.remove(eventId);
+        dirtyEvents.remove(eventId);
+    }
+
+    // Write changed counters (or, in the other modes, refreshed prices) behind to the events table
+    @Scheduled(fixedDelayString = "${booking.inventory.flush-interval-ms:200}")
+    public void flush() {
+        Iterator<Long> iterator = dirtyEvents.iterator();
+        while (iterator.hasNext()) {
+            Long eventId = iterator.next();
+            iterator.remove();
+
+            if (mode != Mode.MEMORY) {
+                refreshCurrentPrice(eventId);
+                continue;
+            }
+
+            Slot slot = slots.get(eventId);
+            if (slot == null) {
+                continue;
+            }
+
+            long state = slot.state.get();
+            int total = totalOf(state);
+            int sold = soldOf(state);
+            BigDecimal currentPrice = pricingService.calculateCurrentPrice(slot.pricing, sold, total);
+            try {
+                eventRepository.updateTicketsSold(eventId, sold, currentPrice);
+            } catch (RuntimeException e) {
+                // Keep the counter dirty so the next flush retries it
+                dirtyEvents.add(eventId);
+                throw e;
+            }
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Recompute the price of an event whose tickets sold changed in the database
+    private void refreshCurrentPrice(Long eventId) {
+        eventRepository.findById(eventId).ifPresent(event -> {
+            BigDecimal currentPrice = pricingService.calculateCurrentPrice(event);
+            if (event.getCurrentPrice() == null || currentPrice.compareTo(event.getCurrentPrice()) != 0) {
+                eventRepository.updateCurrentPrice(eventId, event.getTicketsSold(), currentPrice);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Give reserved tickets back if the reserving transaction rolls back
+    private void releaseOnRollback(Long eventId, Slot slot, int tickets) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    releaseNow(eventId, slot, tickets);
+                }
+            }
+        });
+    }
+
+    private void releaseNow(Long eventId, Slot slot, int tickets) {
+        while (true) {
+            long state = slot.state.get();
+            int sold = Math.max(0, soldOf(state) - tickets);
+            if (slot.state.compareAndSet(state, pack(totalOf(state), sold))) {
+                dirtyEvents.add(eventId);
+                return;
+            }
+        }
+    }
+
+    private Slot slotFor(Event event) {
+        if (event == null || event.getId() == null) {
+            throw new IllegalArgumentException("Event is required");
+        }
+        return slots.computeIfAbsent(event.getId(), id -> new Slot(event));
+    }
+
+    private static long pack(int total, int sold) {
+        return ((long) total << 32) | (sold & 0xFFFFFFFFL);
+    }
+
+    private static int totalOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int soldOf(long state) {
+        return (int) state;
+    }
+
+    // Detached copy of the fields pricing rules look at, so slots never hold on to managed entities
+    private static Event pricingSnapshot(Event event) {
+        Event snapshot = new Event();
+        snapshot.setId(event.getId());
+        snapshot.setType(event.getType());
+        snapshot.setDate(event.getDate());
+        snapshot.setBasePrice(event.getBasePrice());
+        return snapshot;
+    }
+
+    // Per-event counter, seeded from the persisted event the first time it is touched
+    private static final class Slot {
+        private final AtomicLong state;
+        private volatile Event pricing;
+
+        private Slot(Event event) {
+            int sold = event.getTicketsSold() != null ? event.getTicketsSold() : 0;
+            this.state = new AtomicLong(pack(event.getTotalTickets(), sold));
+            this.pricing = pricingSnapshot(event);
+        }
+    }
+}
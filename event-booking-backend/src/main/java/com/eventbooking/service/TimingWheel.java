@@ -0,0 +1,100 @@
+package com.eventbooking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel: O(1) adds, overflow levels created on demand, one bucket per level per tick
+// Not thread safe, callers synchronize
+class TimingWheel<T> {
+
+    private final Level<T> root;
+
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.root = new Level<>(tickMillis, wheelSize, startMillis);
+    }
+
+    // Schedule an item, returns false if it is already due
+    boolean add(T item, long expiresAtMillis) {
+        return root.add(new Entry<>(item, expiresAtMillis));
+    }
+
+    // Move the wheel forward to now, handing every item that is due to the consumer
+    void advance(long nowMillis, Consumer<T> expired) {
+        while (root.start + root.tickMillis <= nowMillis) {
+            root.drainCurrent(entry -> expired.accept(entry.item));
+            root.start += root.tickMillis;
+            root.cascade(expired);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long expiresAtMillis;
+
+        private Entry(T item, long expiresAtMillis) {
+            this.item = item;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private static final class Level<T> {
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long intervalMillis;
+        private final List<Entry<T>>[] buckets;
+        private long start;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.intervalMillis = tickMillis * wheelSize;
+            this.buckets = (List<Entry<T>>[]) new List<?>[wheelSize];
+            this.start = startMillis - (startMillis % tickMillis);
+        }
+
+        private boolean add(Entry<T> entry) {
+            if (entry.expiresAtMillis < start) {
+                return false;
+            }
+            if (entry.expiresAtMillis < start + intervalMillis) {
+                int index = (int) ((entry.expiresAtMillis / tickMillis) % wheelSize);
+                if (buckets[index] == null) {
+                    buckets[index] = new ArrayList<>();
+                }
+                buckets[index].add(entry);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(intervalMillis, wheelSize, start);
+            }
+            return overflow.add(entry);
+        }
+
+        // Hand out the bucket that starts at the current time
+        private void drainCurrent(Consumer<Entry<T>> consumer) {
+            int index = (int) ((start / tickMillis) % wheelSize);
+            List<Entry<T>> bucket = buckets[index];
+            if (bucket != null) {
+                buckets[index] = null;
+                bucket.forEach(consumer);
+            }
+        }
+
+        // When this level enters a new overflow bucket, move that bucket's items down into this level
+        private void cascade(Consumer<T> expired) {
+            if (overflow == null || start % intervalMillis != 0) {
+                return;
+            }
+            overflow.start = start;
+            overflow.cascade(expired);
+            overflow.drainCurrent(entry -> {
+                if (!add(entry)) {
+                    expired.accept(entry.item);
+                }
+            });
+        }
+    }
+}
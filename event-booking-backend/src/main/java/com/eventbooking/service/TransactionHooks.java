@@ -0,0 +1,25 @@
+package com.eventbooking.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Hooks for in-memory state that must only change once the database has
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    // Run once the current transaction commits (not at all if it rolls back), straight away outside one
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
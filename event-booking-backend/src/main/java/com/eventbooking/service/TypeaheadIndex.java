@@ -0,0 +1,878 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix completions for the search box over event names, locations and tags, in a burst trie
+// whose nodes keep their heaviest completions, re-weighed as events change and sell
+@Component
+public class TypeaheadIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // A node's completions stay in one sorted array until there are more than this many
+    private static final int BUCKET_CAPACITY = 512;
+
+    private static final int NONE = -1;
+
+    // An event's tags are up to four term ids packed into a long, 16 bits each (all bits set: empty)
+    private static final int TAG_BITS = 16;
+    private static final int TAG_SLOTS = 4;
+    private static final int NO_TAG = (1 << TAG_BITS) - 1;
+    private static final long NO_TAGS = -1L;
+
+    public enum Kind {
+        EVENT,
+        LOCATION,
+        TAG
+    }
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Everything below is guarded by lock. A completion id is an event id, or -1 - term for a location or tag
+
+    // Every text once as UTF-8, each ended by a 0 byte
+    private byte[] texts = new byte[1 << 16];
+    private int textsSize;
+    private int garbageBytes;
+
+    // Per event, indexed by event id (ids come from a sequence, so an array is the smallest map);
+    // the weight is worked out from tickets sold and the day rather than stored
+    private int[] eventText = new int[0];
+    private int[] eventSold = new int[0];
+    private char[] eventDay = new char[0];
+    private int[] eventLocation = new int[0];
+    private long[] eventTags = new long[0];
+    private final HashMap<Integer, int[]> wideTags = new HashMap<>();
+    private int eventCount;
+
+    // Locations and tags, shared by all events that have them
+    private final HashMap<String, Integer> termIds = new HashMap<>();
+    private String[] termKeys = new String[16];
+    private int[] termText = new int[16];
+    private long[] termWeight = new long[16];
+    private int[] termEvents = new int[16];
+    private Kind[] termKinds = new Kind[16];
+    private int termCount;
+    private final ArrayDeque<Integer> freeTerms = new ArrayDeque<>();
+
+    private final Node root = new Node();
+    private Node[] path = new Node[64];
+    private int today = (int) LocalDate.now().toEpochDay();
+
+    // Index every event once the sample data is loaded
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Event> events = eventRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            for (Event event : events) {
+                addEvent(new EventFields(event));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("🔤 Typeahead index built: " + events.size() + " events, " + termCount + " locations and tags");
+    }
+
+    // Add or replace an event's completions, applied once the current transaction commits
+    public void index(Event event) {
+        if (event.getId() == null) {
+            return;
+        }
+        // Copied now, so later changes to the entity do not leak into the index
+        EventFields fields = new EventFields(event);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeEvent(fields.id);
+                addEvent(fields);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Remove an event's completions, applied once the current transaction commits
+    public void remove(Long eventId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeEvent(Math.toIntExact(eventId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Count booked (positive) or cancelled (negative) tickets towards an event's weight, once the current transaction commits
+    public void recordSale(Long eventId, int tickets) {
+        if (eventId == null || tickets == 0) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                int id = Math.toIntExact(eventId);
+                if (hasEvent(id)) {
+                    reweighEvent(id, Math.max(0, eventSold[id] + tickets));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Heaviest completions starting with a prefix (case-insensitive), heaviest first
+    public List<Suggestion> suggest(String prefix, int limit) {
+        byte[] key = foldedKey(prefix == null ? "" : prefix.stripLeading());
+        int k = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        List<Suggestion> suggestions = new ArrayList<>(k);
+        if (key.length == 0) {
+            return suggestions;
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int depth = 0; depth < key.length; depth++) {
+                if (!node.burst) {
+                    // The rest of the prefix is matched in this node's sorted bucket
+                    int[] best = new int[k];
+                    int found = bestInBucket(node, key, best);
+                    for (int i = 0; i < found; i++) {
+                        suggestions.add(suggestion(best[i]));
+                    }
+                    return suggestions;
+                }
+                node = node.child(key[depth] & 0xFF);
+                if (node == null) {
+                    return suggestions;
+                }
+            }
+            // Everything under this node starts with the prefix
+            for (int i = 0; i < Math.min(k, node.topSize); i++) {
+                suggestions.add(suggestion(node.top[i]));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Re-weigh every event as days pass (events move closer, or into the past)
+    @Scheduled(cron = "${booking.typeahead.reweigh-cron:0 5 0 * * *}")
+    public void reweighAll() {
+        lock.writeLock().lock();
+        try {
+            today = (int) LocalDate.now().toEpochDay();
+            Arrays.fill(termWeight, 0, termCount, 0);
+            for (int id = 0; id < eventText.length; id++) {
+                if (hasEvent(id)) {
+                    int weight = eventWeightOf(id);
+                    if (eventLocation[id] != NONE) {
+                        termWeight[eventLocation[id]] += weight;
+                    }
+                    for (int term : tagsOf(id)) {
+                        termWeight[term] += weight;
+                    }
+                }
+            }
+            recomputeAll(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Get index size and an estimate of the memory it holds
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("events", eventCount);
+            stats.put("locationsAndTags", termCount - freeTerms.size());
+            stats.put("trieNodes", countNodes(root));
+            stats.put("estimatedBytes", estimatedBytes());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Event weight: tickets sold, scaled down by days until the event; past events weigh nothing
+    private int eventWeightOf(int id) {
+        int daysUntil = eventDay[id] - today;
+        if (daysUntil < 0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, 1 + (eventSold[id] + 1L) * 1000 / (daysUntil + 7));
+    }
+
+    private void addEvent(EventFields fields) {
+        int id = fields.id;
+        ensureEventCapacity(id);
+        eventText[id] = appendText(fields.name);
+        eventSold[id] = fields.sold;
+        eventDay[id] = fields.day;
+        int weight = eventWeightOf(id);
+        eventLocation[id] = fields.location.isEmpty() ? NONE : acquireTerm(Kind.LOCATION, fields.location, weight);
+        int[] tags = new int[fields.tags.size()];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = acquireTerm(Kind.TAG, fields.tags.get(i), weight);
+        }
+        setTags(id, tags);
+        eventCount++;
+        insert(id);
+    }
+
+    private void removeEvent(int id) {
+        if (!hasEvent(id)) {
+            return;
+        }
+        removeCompletion(id);
+        int weight = eventWeightOf(id);
+        if (eventLocation[id] != NONE) {
+            releaseTerm(eventLocation[id], weight);
+        }
+        for (int term : tagsOf(id)) {
+            releaseTerm(term, weight);
+        }
+        setTags(id, new int[0]);
+        freeText(eventText[id]);
+        eventText[id] = NONE;
+        eventCount--;
+        compactTextsIfNeeded();
+    }
+
+    // New tickets sold for an event, its change in weight carried over to its location and tags
+    private void reweighEvent(int id, int sold) {
+        int old = eventWeightOf(id);
+        eventSold[id] = sold;
+        int delta = eventWeightOf(id) - old;
+        if (delta == 0) {
+            return;
+        }
+        reorder(id, old);
+        if (eventLocation[id] != NONE) {
+            changeTermWeight(eventLocation[id], delta);
+        }
+        for (int term : tagsOf(id)) {
+            changeTermWeight(term, delta);
+        }
+    }
+
+    private void changeTermWeight(int term, long delta) {
+        long old = termWeight[term];
+        termWeight[term] += delta;
+        reorder(-1 - term, old);
+    }
+
+    // Term ids of an event's tags
+    private int[] tagsOf(int id) {
+        long packed = eventTags[id];
+        if (packed == NO_TAGS) {
+            int[] wide = wideTags.get(id);
+            return wide != null ? wide : new int[0];
+        }
+        int count = 0;
+        int[] tags = new int[TAG_SLOTS];
+        for (int slot = 0; slot < TAG_SLOTS; slot++) {
+            int term = (int) (packed >>> (slot * TAG_BITS)) & NO_TAG;
+            if (term != NO_TAG) {
+                tags[count++] = term;
+            }
+        }
+        return Arrays.copyOf(tags, count);
+    }
+
+    // Pack an event's tag term ids into its long, or keep them aside when they do not fit
+    private void setTags(int id, int[] tags) {
+        wideTags.remove(id);
+        long packed = NO_TAGS;
+        boolean fits = tags.length <= TAG_SLOTS;
+        for (int slot = 0; fits && slot < tags.length; slot++) {
+            fits = tags[slot] < NO_TAG;
+            packed &= ~((long) NO_TAG << (slot * TAG_BITS));
+            packed |= (long) tags[slot] << (slot * TAG_BITS);
+        }
+        if (!fits) {
+            packed = NO_TAGS;
+            wideTags.put(id, tags);
+        }
+        eventTags[id] = packed;
+    }
+
+    // A location or tag with one more event
+    private int acquireTerm(Kind kind, String text, int weight) {
+        String key = kind.ordinal() + text.toLowerCase(Locale.ROOT);
+        Integer existing = termIds.get(key);
+        if (existing != null) {
+            termEvents[existing]++;
+            changeTermWeight(existing, weight);
+            return existing;
+        }
+        int term;
+        if (freeTerms.isEmpty()) {
+            term = termCount++;
+            if (term == termText.length) {
+                int capacity = term * 2;
+                termKeys = Arrays.copyOf(termKeys, capacity);
+                termText = Arrays.copyOf(termText, capacity);
+                termWeight = Arrays.copyOf(termWeight, capacity);
+                termEvents = Arrays.copyOf(termEvents, capacity);
+                termKinds = Arrays.copyOf(termKinds, capacity);
+            }
+        } else {
+            term = freeTerms.pop();
+        }
+        termIds.put(key, term);
+        termKeys[term] = key;
+        termText[term] = appendText(text);
+        termWeight[term] = weight;
+        termEvents[term] = 1;
+        termKinds[term] = kind;
+        insert(-1 - term);
+        return term;
+    }
+
+    // A location or tag with one event less, dropped with its last event
+    private void releaseTerm(int term, int weight) {
+        if (--termEvents[term] > 0) {
+            changeTermWeight(term, -weight);
+            return;
+        }
+        removeCompletion(-1 - term);
+        termIds.remove(termKeys[term]);
+        termKeys[term] = null;
+        freeText(termText[term]);
+        termText[term] = NONE;
+        freeTerms.push(term);
+    }
+
+    // Add a completion to its bucket, bursting the bucket if it is full, and offer it to the lists above
+    private void insert(int id) {
+        Node node = root;
+        int depth = 0;
+        while (node.burst) {
+            int b = byteAt(id, depth);
+            if (b == 0) {
+                break;
+            }
+            pushPath(depth, node);
+            Node child = node.child(b);
+            node = child != null ? child : node.addChild(b);
+            depth++;
+        }
+        pushPath(depth, node);
+        node.insertAt(bucketPosition(node, id), id);
+        if (!node.burst && node.size > BUCKET_CAPACITY) {
+            burst(node, depth);
+        }
+        for (int i = depth; i >= 0; i--) {
+            if (!offer(path[i], id)) {
+                break;
+            }
+        }
+    }
+
+    // Take a completion out of its bucket and rebuild the lists that held it
+    private void removeCompletion(int id) {
+        int depth = findPath(id);
+        Node node = path[depth];
+        node.removeAt(bucketPosition(node, id));
+        for (int i = depth; i >= 0; i--) {
+            if (!path[i].topContains(id)) {
+                break;
+            }
+            recompute(path[i]);
+        }
+    }
+
+    // Fix up the lists on a completion's path after its weight changed from old
+    private void reorder(int id, long old) {
+        long weight = weightOf(id);
+        if (weight == old) {
+            return;
+        }
+        int depth = findPath(id);
+        for (int i = depth; i >= 0; i--) {
+            Node node = path[i];
+            if (weight > old) {
+                // Heavier: moves up in lists that have it, may enter the ones that do not
+                if (!offer(node, id)) {
+                    break;
+                }
+            } else {
+                // Lighter: lists that have it are rebuilt, something else may now belong in them
+                if (!node.topContains(id)) {
+                    break;
+                }
+                recompute(node);
+            }
+        }
+    }
+
+    // Nodes from the root to the completion's bucket into path, returns the bucket's depth
+    private int findPath(int id) {
+        Node node = root;
+        int depth = 0;
+        while (node.burst) {
+            int b = byteAt(id, depth);
+            if (b == 0) {
+                break;
+            }
+            pushPath(depth, node);
+            node = node.child(b);
+            depth++;
+        }
+        pushPath(depth, node);
+        return depth;
+    }
+
+    private void pushPath(int depth, Node node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = node;
+    }
+
+    // Move a full bucket's completions down into children by their next byte (keys that end here stay)
+    private void burst(Node node, int depth) {
+        int[] ids = node.ids;
+        int size = node.size;
+        node.burst = true;
+        node.ids = new int[4];
+        node.size = 0;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            int b = byteAt(id, depth);
+            if (b == 0) {
+                node.append(id);
+            } else {
+                Node child = node.child(b);
+                (child != null ? child : node.addChild(b)).append(id);
+            }
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            Node child = node.children[i];
+            if (child.size > BUCKET_CAPACITY) {
+                burst(child, depth + 1);
+            }
+            recompute(child);
+        }
+    }
+
+    // Put a completion into a node's list if it belongs there, returns whether the list has it
+    private boolean offer(Node node, int id) {
+        int position = node.topIndexOf(id);
+        if (position < 0) {
+            if (node.topSize == MAX_SUGGESTIONS && !heavier(id, node.top[MAX_SUGGESTIONS - 1])) {
+                return false;
+            }
+            position = node.topSize < MAX_SUGGESTIONS ? node.topSize++ : MAX_SUGGESTIONS - 1;
+            node.top[position] = id;
+        }
+        while (position > 0 && heavier(id, node.top[position - 1])) {
+            node.top[position] = node.top[position - 1];
+            node.top[--position] = id;
+        }
+        return true;
+    }
+
+    // A node's list from its own bucket and its children's lists
+    private void recompute(Node node) {
+        node.topSize = 0;
+        for (int i = 0; i < node.size; i++) {
+            offer(node, node.ids[i]);
+        }
+        for (int c = 0; c < node.childCount; c++) {
+            Node child = node.children[c];
+            for (int i = 0; i < child.topSize; i++) {
+                offer(node, child.top[i]);
+            }
+        }
+    }
+
+    private void recomputeAll(Node node) {
+        for (int i = 0; i < node.childCount; i++) {
+            recomputeAll(node.children[i]);
+        }
+        recompute(node);
+    }
+
+    // Heaviest completions in a bucket whose keys start with the prefix, returns how many were found
+    private int bestInBucket(Node node, byte[] prefix, int[] best) {
+        int low = 0;
+        int high = node.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(node.ids[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int found = 0;
+        for (int i = low; i < node.size && comparePrefix(node.ids[i], prefix) == 0; i++) {
+            int id = node.ids[i];
+            if (found == best.length && !heavier(id, best[found - 1])) {
+                continue;
+            }
+            int position = found < best.length ? found++ : found - 1;
+            while (position > 0 && heavier(id, best[position - 1])) {
+                best[position] = best[position - 1];
+                position--;
+            }
+            best[position] = id;
+        }
+        return found;
+    }
+
+    // Where a completion is (or goes) in a bucket sorted by key, then id
+    private int bucketPosition(Node node, int id) {
+        int low = 0;
+        int high = node.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKeys(node.ids[mid], id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean heavier(int a, int b) {
+        long weightA = weightOf(a);
+        long weightB = weightOf(b);
+        return weightA != weightB ? weightA > weightB : a < b;
+    }
+
+    private long weightOf(int id) {
+        return id >= 0 ? eventWeightOf(id) : termWeight[-1 - id];
+    }
+
+    private int textOf(int id) {
+        return id >= 0 ? eventText[id] : termText[-1 - id];
+    }
+
+    private int byteAt(int id, int index) {
+        return fold(texts[textOf(id) + index]);
+    }
+
+    private int compareKeys(int a, int b) {
+        int textA = textOf(a);
+        int textB = textOf(b);
+        for (int i = 0; ; i++) {
+            int byteA = fold(texts[textA + i]);
+            int byteB = fold(texts[textB + i]);
+            if (byteA != byteB) {
+                return byteA - byteB;
+            }
+            if (byteA == 0) {
+                return Integer.compare(a, b);
+            }
+        }
+    }
+
+    // Negative if the key sorts before every key with the prefix, 0 if it has it, positive if after
+    private int comparePrefix(int id, byte[] prefix) {
+        int text = textOf(id);
+        for (int i = 0; i < prefix.length; i++) {
+            int b = fold(texts[text + i]);
+            int p = prefix[i] & 0xFF;
+            if (b != p) {
+                return b - p;
+            }
+        }
+        return 0;
+    }
+
+    // ASCII letters compare case-insensitively, other bytes as they are
+    private static int fold(byte b) {
+        int value = b & 0xFF;
+        return value >= 'A' && value <= 'Z' ? value + ('a' - 'A') : value;
+    }
+
+    private static byte[] foldedKey(String text) {
+        byte[] key = text.replace("\0", "").toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) fold(key[i]);
+        }
+        return key;
+    }
+
+    private Suggestion suggestion(int id) {
+        int start = textOf(id);
+        int end = start;
+        while (texts[end] != 0) {
+            end++;
+        }
+        String text = new String(texts, start, end - start, StandardCharsets.UTF_8);
+        if (id >= 0) {
+            return new Suggestion(text, Kind.EVENT, (long) id, eventWeightOf(id));
+        }
+        return new Suggestion(text, termKinds[-1 - id], null, termWeight[-1 - id]);
+    }
+
+    private boolean hasEvent(int id) {
+        return id < eventText.length && eventText[id] != NONE;
+    }
+
+    private void ensureEventCapacity(int id) {
+        if (id < eventText.length) {
+            return;
+        }
+        // Grown by an eighth, the arrays are most of the index
+        int capacity = Math.max(id + 1024, eventText.length + (eventText.length >> 3));
+        int from = eventText.length;
+        eventText = Arrays.copyOf(eventText, capacity);
+        Arrays.fill(eventText, from, capacity, NONE);
+        eventSold = Arrays.copyOf(eventSold, capacity);
+        eventDay = Arrays.copyOf(eventDay, capacity);
+        eventLocation = Arrays.copyOf(eventLocation, capacity);
+        eventTags = Arrays.copyOf(eventTags, capacity);
+        Arrays.fill(eventTags, from, capacity, NO_TAGS);
+    }
+
+    private int appendText(String text) {
+        byte[] bytes = text.replace("\0", "").getBytes(StandardCharsets.UTF_8);
+        if (textsSize + bytes.length + 1 > texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(textsSize + bytes.length + 1, texts.length + (texts.length >> 3)));
+        }
+        int start = textsSize;
+        System.arraycopy(bytes, 0, texts, start, bytes.length);
+        texts[start + bytes.length] = 0;
+        textsSize += bytes.length + 1;
+        return start;
+    }
+
+    private void freeText(int start) {
+        int end = start;
+        while (texts[end] != 0) {
+            end++;
+        }
+        garbageBytes += end - start + 1;
+    }
+
+    // Copy live texts into a new array once half of it is left over from removed ones
+    private void compactTextsIfNeeded() {
+        if (garbageBytes < (1 << 20) || garbageBytes * 2 < textsSize) {
+            return;
+        }
+        byte[] old = texts;
+        texts = new byte[Math.max(1 << 16, textsSize - garbageBytes + (1 << 16))];
+        textsSize = 0;
+        garbageBytes = 0;
+        for (int id = 0; id < eventText.length; id++) {
+            if (eventText[id] != NONE) {
+                eventText[id] = copyText(old, eventText[id]);
+            }
+        }
+        for (int term = 0; term < termCount; term++) {
+            if (termKeys[term] != null) {
+                termText[term] = copyText(old, termText[term]);
+            }
+        }
+    }
+
+    private int copyText(byte[] from, int start) {
+        int end = start;
+        while (from[end] != 0) {
+            end++;
+        }
+        int length = end - start + 1;
+        System.arraycopy(from, start, texts, textsSize, length);
+        textsSize += length;
+        return textsSize - length;
+    }
+
+    private int countNodes(Node node) {
+        int count = 1;
+        for (int i = 0; i < node.childCount; i++) {
+            count += countNodes(node.children[i]);
+        }
+        return count;
+    }
+
+    // Bytes held in arrays (object headers included), the term map and tag lists that do not fit a long are left out
+    private long estimatedBytes() {
+        long bytes = 16 + texts.length;
+        bytes += 16 + 4L * eventText.length + 16 + 4L * eventSold.length + 16 + 2L * eventDay.length
+                + 16 + 4L * eventLocation.length + 16 + 8L * eventTags.length;
+        bytes += termText.length * (4 + 8 + 4 + 4 + 4L);
+        return bytes + nodeBytes(root);
+    }
+
+    private long nodeBytes(Node node) {
+        long bytes = 40 + 16 + 4L * node.ids.length + 16 + 4L * node.top.length
+                + 16 + node.labels.length + 16 + 4L * node.children.length;
+        for (int i = 0; i < node.childCount; i++) {
+            bytes += nodeBytes(node.children[i]);
+        }
+        return bytes;
+    }
+
+    // The fields of an event the index uses
+    private static final class EventFields {
+        private final int id;
+        private final String name;
+        private final String location;
+        private final List<String> tags;
+        private final char day;
+        private final int sold;
+
+        private EventFields(Event event) {
+            id = Math.toIntExact(event.getId());
+            name = event.getName() == null ? "" : event.getName().trim();
+            location = event.getLocation() == null ? "" : event.getLocation().trim();
+            // Days since 1970 fit a char until 2149
+            day = event.getDate() == null ? 0
+                    : (char) Math.max(0, Math.min(Character.MAX_VALUE, event.getDate().toEpochDay()));
+            sold = event.getTicketsSold() == null ? 0 : Math.max(0, event.getTicketsSold());
+            Map<String, String> distinct = new LinkedHashMap<>();
+            if (event.getTags() != null) {
+                for (String tag : event.getTags().split(",")) {
+                    if (!tag.isBlank()) {
+                        distinct.putIfAbsent(tag.trim().toLowerCase(Locale.ROOT), tag.trim());
+                    }
+                }
+            }
+            tags = new ArrayList<>(distinct.values());
+        }
+    }
+
+    // A trie node: children by next key byte once burst, a bucket of completions sorted by key, and its best list
+    private static final class Node {
+        private static final byte[] NO_LABELS = new byte[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private boolean burst;
+        private byte[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private int[] ids = new int[4];
+        private int size;
+        private final int[] top = new int[MAX_SUGGESTIONS];
+        private int topSize;
+
+        private Node child(int b) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int label = labels[mid] & 0xFF;
+                if (label < b) {
+                    low = mid + 1;
+                } else if (label > b) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private Node addChild(int b) {
+            if (childCount == children.length) {
+                int capacity = Math.max(4, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            int position = childCount;
+            while (position > 0 && (labels[position - 1] & 0xFF) > b) {
+                labels[position] = labels[position - 1];
+                children[position] = children[position - 1];
+                position--;
+            }
+            Node child = new Node();
+            labels[position] = (byte) b;
+            children[position] = child;
+            childCount++;
+            return child;
+        }
+
+        private void append(int id) {
+            insertAt(size, id);
+        }
+
+        private void insertAt(int position, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private void removeAt(int position) {
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        private int topIndexOf(int id) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean topContains(int id) {
+            return topIndexOf(id) >= 0;
+        }
+    }
+
+    // One completion offered to the search box
+    public static class Suggestion {
+        private final String text;
+        private final Kind type;
+        private final Long eventId;
+        private final long weight;
+
+        public Suggestion(String text, Kind type, Long eventId, long weight) {
+            this.text = text;
+            this.type = type;
+            this.eventId = eventId;
+            this.weight = weight;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public Kind getType() {
+            return type;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+}
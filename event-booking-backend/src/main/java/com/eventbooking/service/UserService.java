@@ -3,15 +3,28 @@ package com.eventbooking.service;
 import com.eventbooking.model.Role;
 import com.eventbooking.model.User;
 import com.eventbooking.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
+    // Streamed users are dropped from the persistence context after every this many
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -50,11 +63,38 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    // Find users by IDs (one IN query)
+    public List<User> findAllById(Collection<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+
     // Get all users
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // Get a page of users in id order, starting after the cursor (the last id) of the previous page
+    public KeysetPage<User> getUsersPage(String after, Integer limit) {
+        int pageSize = KeysetPage.pageSize(limit);
+        long afterId = after == null || after.isBlank() ? 0 : KeysetPage.idOf(after);
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return KeysetPage.of(users, pageSize, user -> String.valueOf(user.getId()));
+    }
+
+    // Pass every user to the action in id order without holding them all in memory
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<User> action) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            int[] streamed = {0};
+            users.forEach(user -> {
+                action.accept(user);
+                if (++streamed[0] % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+
     // Get users by role
     public List<User> getUsersByRole(Role role) {
         return userRepository.findByRole(role);
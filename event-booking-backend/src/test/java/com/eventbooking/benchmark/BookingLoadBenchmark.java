@@ -0,0 +1,95 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.service.EventService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Load test for POST /api/bookings, run once per execution mode and compare:
+// mvn test -Dtest=BookingLoadBenchmark -Dbenchmarks=true [-Dspring.threads.virtual.enabled=true on Java 21+]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BookingLoadBenchmark {
+
+    private static final int CLIENTS = 64;
+    private static final int REQUESTS_PER_CLIENT = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Autowired
+    private EventService eventService;
+
+    @Test
+    void measureBookingLatency() throws Exception {
+        Event event = eventService.createEvent(new Event("Load Test", "Load test", EventType.LIVE_SHOW, "load",
+                LocalDate.now().plusDays(30), LocalTime.of(20, 0), "Load Test Arena",
+                CLIENTS * REQUESTS_PER_CLIENT, new BigDecimal("100.00")));
+        String body = "{\"userId\":2,\"eventId\":" + event.getId() + ",\"ticketsRequested\":1}";
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/bookings"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[REQUESTS_PER_CLIENT];
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    long begin = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    latencies[i] = System.nanoTime() - begin;
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Booking failed: " + response.body());
+                    }
+                }
+                return latencies;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        long[] all = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        Arrays.sort(all);
+        System.out.printf("mode=%s java=%d  %,.0f bookings/s  p50=%.2fms  p99=%.2fms  max=%.2fms%n",
+                virtualThreadsEnabled ? "VIRTUAL" : "PLATFORM", Runtime.version().feature(),
+                all.length * 1e9 / elapsedNanos,
+                all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+    }
+}
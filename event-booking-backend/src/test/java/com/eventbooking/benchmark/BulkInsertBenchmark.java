@@ -0,0 +1,150 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.Event;
+import com.eventbooking.model.PooledSequenceGenerator;
+import com.eventbooking.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+// Rows per second for bulk booking inserts, one IDENTITY insert per row against pooled sequence ids and JDBC batches
+// Run with: mvn test -Dtest=BulkInsertBenchmark -Dbenchmarks=true [-Dbenchmark.rows=1000000]
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BulkInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int CHUNK = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Value("${spring.jpa.properties.eventbooking.id.allocation-size:50}")
+    private int allocationSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareBookingInserts() {
+        jdbcTemplate.execute("CREATE TABLE identity_bookings (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "user_id BIGINT NOT NULL, event_id BIGINT NOT NULL, tickets_booked INT NOT NULL, "
+                + "total_amount DECIMAL(10,2) NOT NULL, qr_code VARCHAR(500), booking_date TIMESTAMP NOT NULL, "
+                + "status VARCHAR(255) NOT NULL, booking_reference VARCHAR(255) UNIQUE)");
+        try {
+            report("before (IDENTITY, row by row)", this::insertRowByRow);
+            report("after (pooled ids, JDBC batches)", this::insertJdbcBatched);
+            report("after (pooled ids, through JPA)", this::insertBatched);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE identity_bookings");
+        }
+    }
+
+    private void insertRowByRow(int rows) {
+        String sql = "INSERT INTO identity_bookings (user_id, event_id, tickets_booked, total_amount, "
+                + "booking_date, status, booking_reference) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement insert = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < rows; i++) {
+                    Booking booking = newBooking();
+                    insert.setLong(1, 2L);
+                    insert.setLong(2, 1L);
+                    insert.setInt(3, booking.getTicketsBooked());
+                    insert.setBigDecimal(4, booking.getTotalAmount());
+                    insert.setTimestamp(5, Timestamp.valueOf(booking.getBookingDate()));
+                    insert.setString(6, booking.getStatus().name());
+                    insert.setString(7, booking.getBookingReference());
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        keys.next();
+                    }
+                }
+            }
+            return null;
+        }));
+    }
+
+    private void insertJdbcBatched(int rows) {
+        String sql = "INSERT INTO bookings (id, user_id, event_id, tickets_booked, total_amount, "
+                + "booking_date, status, booking_reference) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                long nextId = 0;
+                long lastId = -1;
+                for (int i = 0; i < rows; i++) {
+                    if (nextId > lastId) {
+                        // One sequence call per block of ids, each value is the top of its block as with the pooled optimizer
+                        lastId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR bookings_seq", Long.class);
+                        nextId = Math.max(lastId - allocationSize + 1, PooledSequenceGenerator.FIRST_ID);
+                    }
+                    Booking booking = newBooking();
+                    insert.setLong(1, nextId++);
+                    insert.setLong(2, 2L);
+                    insert.setLong(3, 1L);
+                    insert.setInt(4, booking.getTicketsBooked());
+                    insert.setBigDecimal(5, booking.getTotalAmount());
+                    insert.setTimestamp(6, Timestamp.valueOf(booking.getBookingDate()));
+                    insert.setString(7, booking.getStatus().name());
+                    insert.setString(8, booking.getBookingReference());
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            return null;
+        }));
+    }
+
+    private void insertBatched(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(newBooking());
+                if ((i + 1) % 1_000 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+
+    private Booking newBooking() {
+        User user = entityManager.getReference(User.class, 2L);
+        Event event = entityManager.getReference(Event.class, 1L);
+        return new Booking(user, event, 1, new BigDecimal("350.00"));
+    }
+
+    private void report(String name, RowWriter writer) {
+        long startNanos = System.nanoTime();
+        for (int written = 0; written < ROWS; written += CHUNK) {
+            writer.write(Math.min(CHUNK, ROWS - written));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        System.out.printf("%-32s %,d rows in %,d ms   %,10.0f rows/s%n",
+                name, ROWS, elapsedNanos / 1_000_000, ROWS * 1e9 / elapsedNanos);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(int rows);
+    }
+}
@@ -0,0 +1,111 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.service.BookingService;
+import com.eventbooking.service.CheckInService;
+import com.eventbooking.service.EventService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Gate scans per second and latency, every ticket of one event scanned twice from several gates
+// Run with: mvn test -Dtest=CheckInBenchmark -Dbenchmarks=true [-Dbenchmark.tickets=50000]
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CheckInBenchmark {
+
+    private static final int TICKETS = Integer.getInteger("benchmark.tickets", 50_000);
+    private static final int GATES = 8;
+    private static final int CHUNK = 5_000;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Test
+    void scanTickets() throws Exception {
+        Event event = eventService.createEvent(new Event("Gate Benchmark", "Check-in benchmark", EventType.LIVE_SHOW,
+                "test", LocalDate.now().plusDays(1), LocalTime.of(19, 0), "Test Arena",
+                TICKETS, new BigDecimal("100.00")));
+        List<String> codes = new ArrayList<>();
+        for (int booked = 0; booked < TICKETS; booked += CHUNK) {
+            List<BookingService.BookingLine> lines = new ArrayList<>();
+            for (int i = booked; i < Math.min(TICKETS, booked + CHUNK); i++) {
+                lines.add(new BookingService.BookingLine(2L, event.getId(), 1));
+            }
+            bookingService.createBookings(lines).forEach(line -> codes.add(line.getBooking().getQrCode()));
+        }
+
+        long openStart = System.nanoTime();
+        checkInService.openEvent(event.getId());
+        System.out.printf("index loaded: %,d bookings in %,d ms%n",
+                codes.size(), (System.nanoTime() - openStart) / 1_000_000);
+
+        double admitted = measure("first scans (admitted)", codes, event.getId(), CheckInService.ScanStatus.ADMITTED);
+        measure("repeat scans (rejected)", codes, event.getId(), CheckInService.ScanStatus.ALREADY_CHECKED_IN);
+
+        long flushStart = System.nanoTime();
+        checkInService.flush();
+        System.out.printf("write-behind: %,d admissions in %,d ms%n",
+                codes.size(), (System.nanoTime() - flushStart) / 1_000_000);
+        assertTrue(admitted > 5_000, "gates should sustain more than 5,000 scans/s");
+    }
+
+    // Each gate scans its share of the codes, returns scans per second
+    private double measure(String name, List<String> codes, Long eventId, CheckInService.ScanStatus expected)
+            throws Exception {
+        long[] latencies = new long[codes.size()];
+        ExecutorService executor = Executors.newFixedThreadPool(GATES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> gates = new ArrayList<>();
+        for (int gate = 0; gate < GATES; gate++) {
+            int first = gate;
+            gates.add(executor.submit(() -> {
+                start.await();
+                for (int i = first; i < codes.size(); i += GATES) {
+                    long scanStart = System.nanoTime();
+                    CheckInService.ScanResult result = checkInService.scan(codes.get(i), eventId);
+                    latencies[i] = System.nanoTime() - scanStart;
+                    assertEquals(expected, result.getStatus());
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> gate : gates) {
+            gate.get(120, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        double scansPerSecond = codes.size() * 1e9 / elapsedNanos;
+        System.out.printf("%-26s %,10.0f scans/s   p50 %6.1f us   p99 %6.1f us   max %8.1f us%n", name,
+                scansPerSecond, latencies[latencies.length / 2] / 1000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1000.0, latencies[latencies.length - 1] / 1000.0);
+        return scansPerSecond;
+    }
+}
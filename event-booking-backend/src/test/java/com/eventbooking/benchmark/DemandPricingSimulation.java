@@ -0,0 +1,156 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.service.PricingRuleEngine;
+import com.eventbooking.service.PricingRules;
+import com.eventbooking.service.PricingService;
+import com.eventbooking.service.SalesVelocityTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Price trajectory of a synthetic on-sale under the demand pricing rules, on a simulated clock
+// Run with: mvn test -Dtest=DemandPricingSimulation -Dbenchmarks=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class DemandPricingSimulation {
+
+    private static final long EVENT_ID = 900_001L;
+    private static final int TOTAL_TICKETS = 5_000;
+    private static final BigDecimal BASE_PRICE = new BigDecimal("1200.00");
+    private static final int SIMULATED_MINUTES = 120;
+    private static final int QUOTES = 10_000_000;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Autowired
+    private SalesVelocityTracker salesVelocityTracker;
+
+    private long blackhole;
+
+    @Test
+    void replayOnSale() {
+        PricingRules original = pricingRuleEngine.getRules();
+        LongSupplier originalClock = (LongSupplier) ReflectionTestUtils.getField(salesVelocityTracker, "clock");
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        try {
+            pricingRuleEngine.apply(demandRules());
+            ReflectionTestUtils.setField(salesVelocityTracker, "clock", (LongSupplier) now::get);
+
+            Event event = new Event();
+            event.setId(EVENT_ID);
+            event.setType(EventType.LIVE_SHOW);
+            event.setDate(LocalDate.now().plusDays(30));
+            event.setBasePrice(BASE_PRICE);
+
+            // Bookings of 1 to 4 tickets, about 1 a second at opening, decaying with a 20 minute half-life
+            Random random = new Random(42);
+            int sold = 0;
+            BigDecimal peakPrice = BASE_PRICE;
+            System.out.println(" minute   sold%   tickets/min (5m)   price");
+            for (int second = 0; second < SIMULATED_MINUTES * 60 && sold < TOTAL_TICKETS; second++) {
+                double bookingsPerSecond = Math.pow(0.5, second / 1200.0) + 0.05;
+                int bookings = poisson(random, bookingsPerSecond);
+                for (int b = 0; b < bookings && sold < TOTAL_TICKETS; b++) {
+                    int tickets = Math.min(1 + random.nextInt(4), TOTAL_TICKETS - sold);
+                    sold += tickets;
+                    salesVelocityTracker.record(EVENT_ID, tickets);
+                }
+
+                BigDecimal price = pricingService.calculateCurrentPrice(event, sold, TOTAL_TICKETS);
+                peakPrice = peakPrice.max(price);
+                if (second % 300 == 0) {
+                    System.out.printf("%7d %7.1f %18.1f %9s%n", second / 60, sold * 100.0 / TOTAL_TICKETS,
+                            salesVelocityTracker.ticketsInWindow(EVENT_ID, SalesVelocityTracker.SHORT_WINDOW_MINUTES)
+                                    / (double) SalesVelocityTracker.SHORT_WINDOW_MINUTES, price);
+                }
+                now.addAndGet(1_000);
+            }
+            assertTrue(peakPrice.compareTo(BASE_PRICE) > 0, "the rush should push the price up");
+
+            double bytesPerQuote = measureQuotes(event, sold);
+            assertTrue(bytesPerQuote < 0.01, "velocity-aware quotes should not allocate");
+        } finally {
+            ReflectionTestUtils.setField(salesVelocityTracker, "clock", originalClock);
+            salesVelocityTracker.evict(EVENT_ID);
+            pricingRuleEngine.apply(original);
+        }
+    }
+
+    private double measureQuotes(Event event, int sold) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up so the JIT has compiled the quote path before measuring
+        for (int i = 0; i < QUOTES; i++) {
+            blackhole += pricingService.calculateCurrentPrice(event, sold, TOTAL_TICKETS).hashCode();
+        }
+
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < QUOTES; i++) {
+            blackhole += pricingService.calculateCurrentPrice(event, sold, TOTAL_TICKETS).hashCode();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+        double bytesPerQuote = (double) allocatedBytes / QUOTES;
+        System.out.printf("velocity-aware quote %6.1f ns/quote   %6.2f bytes/quote%n",
+                (double) elapsedNanos / QUOTES, bytesPerQuote);
+        return bytesPerQuote;
+    }
+
+    // Default sold-percentage tiers plus up to +15% while more than 300, 600 or 900 tickets sold in 5 minutes
+    private static PricingRules demandRules() {
+        PricingRules.Curve tiers = new PricingRules.Curve();
+        tiers.setType(PricingRules.CurveType.STEP);
+        tiers.setSteps(List.of(step(50, 10), step(80, 20)));
+
+        PricingRules.Curve velocity = new PricingRules.Curve();
+        velocity.setType(PricingRules.CurveType.VELOCITY);
+        velocity.setWindowMinutes(SalesVelocityTracker.SHORT_WINDOW_MINUTES);
+        velocity.setSteps(List.of(step(300, 5), step(600, 10), step(900, 15)));
+
+        PricingRules rules = new PricingRules();
+        rules.getDefaultRule().setCurves(List.of(tiers));
+        PricingRules.Rule liveShows = new PricingRules.Rule();
+        liveShows.setCurves(List.of(tiers, velocity));
+        rules.getEventTypes().put(EventType.LIVE_SHOW, liveShows);
+        return rules;
+    }
+
+    private static PricingRules.Step step(int at, double adjustPercent) {
+        PricingRules.Step step = new PricingRules.Step();
+        step.setAt(at);
+        step.setAdjustPercent(adjustPercent);
+        return step;
+    }
+
+    private static int poisson(Random random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,109 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.model.Tag;
+import com.eventbooking.service.EventCatalog;
+import com.eventbooking.service.TagIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Catalogue query latency over 1M synthetic events, with facets and deep cursor pages
+// Run with: mvn test -Dtest=EventCatalogBenchmark -Dbenchmarks=true [-Dbenchmark.events=1000000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EventCatalogBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 1_000_000);
+    private static final int LOCATIONS = 500;
+    private static final int TAGS = 200;
+    private static final int QUERIES = 500;
+    private static final int DEEP_QUERIES = 20;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void query() {
+        TagIndex tagIndex = new TagIndex();
+        EventCatalog catalog = new EventCatalog();
+        ReflectionTestUtils.setField(catalog, "tagIndex", tagIndex);
+        List<Tag> tags = new ArrayList<>(TAGS);
+        for (int i = 0; i < TAGS; i++) {
+            Tag tag = new Tag("tag" + i);
+            tag.setId((long) i);
+            tags.add(tag);
+        }
+
+        EventType[] types = EventType.values();
+        LocalDate today = LocalDate.now();
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= EVENTS; id++) {
+            Event event = new Event("Event " + id, null, types[random.nextInt(types.length)], null,
+                    today.plusDays(random.nextInt(730)), LocalTime.of(19, 0), "City " + random.nextInt(LOCATIONS),
+                    100 + random.nextInt(900), BigDecimal.valueOf(100 + random.nextInt(9_900)));
+            event.setId(id);
+            event.setTicketsSold(random.nextInt(event.getTotalTickets() + 1));
+            catalog.index(event);
+            Tag first = tags.get(random.nextInt(TAGS));
+            Tag second = tags.get(random.nextInt(TAGS));
+            tagIndex.index(id, first == second ? List.of(first) : List.of(first, second));
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        long[] firstPages = new long[QUERIES];
+        long[] deepPages = new long[DEEP_QUERIES];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < QUERIES; i++) {
+                EventCatalog.Filter filter = randomFilter(types, today);
+                long start = System.nanoTime();
+                catalog.query(filter, null, 20, true);
+                firstPages[i] = System.nanoTime() - start;
+            }
+            for (int i = 0; i < deepPages.length; i++) {
+                EventCatalog.Filter filter = new EventCatalog.Filter();
+                filter.setAvailableOnly(true);
+                String cursor = null;
+                long start = 0;
+                for (int page = 0; page < 50; page++) {
+                    start = System.nanoTime();
+                    cursor = catalog.query(filter, cursor, 20, false).getNextCursor();
+                }
+                deepPages[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(firstPages);
+        Arrays.sort(deepPages);
+
+        System.out.println("🗂️ Catalogue over " + EVENTS + " events: built in " + buildMillis + " ms, " + catalog.getStats());
+        System.out.printf("   filtered page with facets p50 %.2f ms, p99 %.2f ms%n",
+                firstPages[QUERIES / 2] / 1e6, firstPages[QUERIES * 99 / 100] / 1e6);
+        System.out.printf("   50th page without facets p50 %.2f ms, p99 %.2f ms%n",
+                deepPages[deepPages.length / 2] / 1e6, deepPages[deepPages.length * 99 / 100] / 1e6);
+
+        assertEquals(EVENTS, catalog.query(new EventCatalog.Filter(), null, 1, false).getMatched());
+    }
+
+    private EventCatalog.Filter randomFilter(EventType[] types, LocalDate today) {
+        EventCatalog.Filter filter = new EventCatalog.Filter();
+        LocalDate from = today.plusDays(random.nextInt(600));
+        filter.setFrom(from);
+        filter.setTo(from.plusDays(30 + random.nextInt(90)));
+        filter.setTypes(EnumSet.of(types[random.nextInt(types.length)]));
+        filter.setMaxPrice(BigDecimal.valueOf(1_000 + random.nextInt(9_000)));
+        if (random.nextBoolean()) {
+            filter.setTags(List.of("tag" + random.nextInt(TAGS)));
+        }
+        return filter;
+    }
+}
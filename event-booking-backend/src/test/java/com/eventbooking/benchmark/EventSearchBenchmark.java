@@ -0,0 +1,95 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.service.EventSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ranked search latency over 1M synthetic events with Zipf distributed words
+// Run with: mvn test -Dtest=EventSearchBenchmark -Dbenchmarks=true [-Dbenchmark.events=1000000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EventSearchBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 1_000_000);
+    private static final int VOCABULARY = 20_000;
+    private static final int STOP_WORD_RANKS = 100;
+    private static final int QUERIES = 20_000;
+    private static final int WARMUP_QUERIES = 20_000;
+
+    private final Random random = new Random(42);
+    private final String[] words = new String[VOCABULARY];
+    private final double[] cumulative = new double[VOCABULARY];
+
+    @Test
+    void rankedSearch() {
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "w" + Integer.toString(i, 36) + "x";
+            cumulative[i] = (i == 0 ? 0 : cumulative[i - 1]) + 1.0 / (i + 1 + STOP_WORD_RANKS);
+        }
+
+        EventSearchIndex index = new EventSearchIndex();
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= EVENTS; id++) {
+            Event event = new Event(text(3), text(20), EventType.LIVE_SHOW, text(3).replace(' ', ','),
+                    LocalDate.now().plusDays(1), LocalTime.of(19, 0), text(2), 100, new BigDecimal("100.00"));
+            event.setId(id);
+            index.index(event);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        String[] queries = new String[WARMUP_QUERIES + QUERIES];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = text(2 + random.nextInt(2));
+        }
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.search(queries[i], 20);
+        }
+
+        long[] nanos = new long[QUERIES];
+        int empty = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            List<EventSearchIndex.Hit> hits = index.search(queries[WARMUP_QUERIES + i], 20);
+            nanos[i] = System.nanoTime() - start;
+            if (hits.isEmpty()) {
+                empty++;
+            }
+        }
+        Arrays.sort(nanos);
+
+        System.out.println("🔎 Event search over " + EVENTS + " events (" + index.getStats().get("terms")
+                + " terms, built in " + buildMillis + " ms)");
+        System.out.printf("   p50 %.1f µs, p99 %.1f µs, max %.1f µs, %d queries with no hits%n",
+                nanos[QUERIES / 2] / 1000.0, nanos[QUERIES * 99 / 100] / 1000.0, nanos[QUERIES - 1] / 1000.0, empty);
+
+        List<EventSearchIndex.Hit> hits = index.search(words[0] + " " + words[1], 20);
+        assertFalse(hits.isEmpty());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+    }
+
+    // Space-separated words drawn from the Zipf vocabulary
+    private String text(int wordCount) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            int found = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[VOCABULARY - 1]);
+            text.append(words[Math.min(found >= 0 ? found : -found - 1, VOCABULARY - 1)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.repository.BookingRepository;
+import com.eventbooking.service.BookingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Peak heap listing every booking, loaded at once against the NDJSON stream, and keyset page latency
+// Run with: mvn test -Dtest=ListExportBenchmark -Dbenchmarks=true [-Dbenchmark.rows=200000]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:listexport;LAZY_QUERY_EXECUTION=TRUE")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ListExportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int USERS = 10_000;
+    private static final int EVENTS = 1_000;
+    private static final int CHUNK = 20_000;
+    private static final long FIRST_ID = 10_000_000L;
+    private static final int PAGES = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void listBookings() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, role, created_date) "
+                + "SELECT ?1 + X, 'Export User ' || X, 'export' || X || '@example.com', 'secret', 'USER', "
+                + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, ?2 - 1)", FIRST_ID, USERS);
+        jdbcTemplate.update("INSERT INTO events (id, name, description, type, tags, date, time, location, "
+                + "total_tickets, tickets_sold, base_price, current_price) "
+                + "SELECT ?1 + X, 'Export Event ' || X, 'Export benchmark', 'MOVIE', 'test', "
+                + "DATEADD('DAY', MOD(X, 365), CURRENT_DATE), TIME '19:00:00', 'Test Arena', 100000, 0, 100, 100 "
+                + "FROM SYSTEM_RANGE(0, ?2 - 1)", FIRST_ID, EVENTS);
+        for (int from = 0; from < ROWS; from += CHUNK) {
+            jdbcTemplate.update("INSERT INTO bookings (id, user_id, event_id, tickets_booked, total_amount, qr_code, "
+                    + "qr_code_hash, booking_date, status, booking_reference) "
+                    + "SELECT ?1 + X, ?1 + MOD(X, ?2), ?1 + MOD(X * 7, ?3), 1 + MOD(X, 4), 100, 'EXPORT-QR-' || X, "
+                    + "HASH('SHA-256', 'EXPORT-QR-' || X), DATEADD('SECOND', -MOD(X * 31, 31536000), CURRENT_TIMESTAMP), "
+                    + "'CONFIRMED', 'EXPORT' || X FROM SYSTEM_RANGE(?4, ?5)",
+                    FIRST_ID, USERS, EVENTS, from, Math.min(ROWS, from + CHUNK) - 1);
+        }
+        long bookings = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Long.class);
+
+        long[] before = measure(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Booking booking : bookingRepository.findAll()) {
+                rows.add(toMap(booking));
+            }
+            try {
+                objectMapper.writeValue(OutputStream.nullOutputStream(), rows);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        long[] lines = new long[1];
+        long[] after = measure(() -> {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/bookings?format=ndjson")).build();
+            try (InputStream in = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+                byte[] buffer = new byte[65_536];
+                for (int read; (read = in.read(buffer)) > 0; ) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines[0]++;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        List<String> cursors = jdbcTemplate.query("SELECT booking_date, id FROM bookings ORDER BY RAND() LIMIT ?",
+                (row, i) -> row.getTimestamp(1).toLocalDateTime() + "_" + row.getLong(2), PAGES);
+        long[] pages = new long[PAGES];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < PAGES; i++) {
+                long start = System.nanoTime();
+                bookingService.getBookingsPage(cursors.get(i), 20);
+                pages[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(pages);
+
+        System.out.println("📤 Listing " + bookings + " bookings:");
+        System.out.printf("   before (load all, map per row)  %,d ms, peak heap +%,d MB%n", before[0], before[1] >> 20);
+        System.out.printf("   after (NDJSON stream)           %,d ms, peak heap +%,d MB%n", after[0], after[1] >> 20);
+        System.out.printf("   keyset page of 20 at a random depth p50 %.2f ms, p99 %.2f ms%n",
+                pages[PAGES / 2] / 1e6, pages[PAGES * 99 / 100] / 1e6);
+
+        assertEquals(bookings, lines[0]);
+    }
+
+    // Milliseconds taken and peak heap in use above the starting point, sampled after forced GCs
+    private long[] measure(Runnable listing) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        long[] peak = {0};
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                System.gc();
+                peak[0] = Math.max(peak[0], memory.getHeapMemoryUsage().getUsed() - baseline);
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        long start = System.nanoTime();
+        sampler.start();
+        listing.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        sampler.interrupt();
+        sampler.join();
+        return new long[] {millis, peak[0]};
+    }
+
+    // The row the old endpoint built for each booking
+    private Map<String, Object> toMap(Booking booking) {
+        Map<String, Object> bookingMap = new HashMap<>();
+        bookingMap.put("id", booking.getId());
+        bookingMap.put("ticketsBooked", booking.getTicketsBooked());
+        bookingMap.put("totalAmount", booking.getTotalAmount());
+        bookingMap.put("qrCode", booking.getQrCode());
+        bookingMap.put("bookingDate", booking.getBookingDate());
+        bookingMap.put("status", booking.getStatus());
+        bookingMap.put("bookingReference", booking.getBookingReference());
+        Map<String, Object> eventMap = new HashMap<>();
+        eventMap.put("id", booking.getEvent().getId());
+        eventMap.put("name", booking.getEvent().getName());
+        eventMap.put("date", booking.getEvent().getDate());
+        eventMap.put("time", booking.getEvent().getTime());
+        eventMap.put("location", booking.getEvent().getLocation());
+        bookingMap.put("event", eventMap);
+        Map<String, Object> userMap = new HashMap<>();
+        userMap.put("id", booking.getUser().getId());
+        userMap.put("name", booking.getUser().getName());
+        userMap.put("email", booking.getUser().getEmail());
+        bookingMap.put("user", userMap);
+        return bookingMap;
+    }
+}
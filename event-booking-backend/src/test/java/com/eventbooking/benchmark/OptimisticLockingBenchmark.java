@@ -0,0 +1,136 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.model.User;
+import com.eventbooking.repository.BookingRepository;
+import com.eventbooking.repository.EventRepository;
+import com.eventbooking.service.BookingConflictMetrics;
+import com.eventbooking.service.BookingService;
+import com.eventbooking.service.EventService;
+import com.eventbooking.service.PricingService;
+import com.eventbooking.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+// Bookings per second under moderate contention, pessimistic row locks against optimistic retries
+// Run with: mvn test -Dtest=OptimisticLockingBenchmark -Dbenchmarks=true
+@SpringBootTest(properties = "booking.inventory.mode=OPTIMISTIC")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class OptimisticLockingBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS = 4;
+    private static final int BOOKINGS_PER_THREAD = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingConflictMetrics conflictMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void comparePessimisticAndOptimisticBookings() throws Exception {
+        User user = userService.findById(2L).orElseThrow();
+
+        // Lock the event row for the whole transaction, every other booking for it waits
+        run("pessimistic row lock", (eventId, tickets) -> transactionTemplate.executeWithoutResult(status -> {
+            Event event = entityManager.find(Event.class, eventId, LockModeType.PESSIMISTIC_WRITE);
+            if (event.getAvailableTickets() < tickets) {
+                throw new RuntimeException("Not enough tickets available");
+            }
+            BigDecimal unitPrice = pricingService.calculateCurrentPrice(event);
+            event.setTicketsSold(event.getTicketsSold() + tickets);
+            event.setCurrentPrice(pricingService.calculateCurrentPrice(event));
+            bookingRepository.save(new Booking(user, event, tickets, unitPrice.multiply(BigDecimal.valueOf(tickets))));
+        }));
+
+        // Version check on write, losers are retried by the conflict retry aspect
+        run("optimistic + retry", (eventId, tickets) -> bookingService.createBooking(user, eventId, tickets));
+        System.out.println("optimistic conflicts: " + conflictMetrics.getSnapshot());
+    }
+
+    private void run(String name, BiConsumer<Long, Integer> book) throws Exception {
+        List<Long> eventIds = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            eventIds.add(eventService.createEvent(new Event("Benchmark " + name, "Benchmark", EventType.LIVE_SHOW,
+                    "benchmark", LocalDate.now().plusDays(30), LocalTime.of(20, 0), "Benchmark Hall",
+                    THREADS * BOOKINGS_PER_THREAD, new BigDecimal("100.00"))).getId());
+        }
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    try {
+                        book.accept(eventIds.get((thread + i) % EVENTS), 1);
+                        booked.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        int ticketsSold = eventIds.stream()
+                .mapToInt(id -> eventRepository.findById(id).orElseThrow().getTicketsSold())
+                .sum();
+        System.out.printf("%-22s %,8.0f bookings/s   booked=%d   failed=%d   tickets sold=%d%n",
+                name, booked.get() * 1e9 / elapsedNanos, booked.get(), failed.get(), ticketsSold);
+    }
+}
@@ -0,0 +1,136 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.service.PricingRuleEngine;
+import com.eventbooking.service.PricingRules;
+import com.eventbooking.service.PricingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Nanoseconds and bytes allocated per price quote, BigDecimal tiers against the compiled rule engine (HotSpot only)
+// Run with: mvn test -Dtest=PricingBenchmark -Dbenchmarks=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PricingBenchmark {
+
+    private static final int QUOTES = 20_000_000;
+    private static final int TOTAL_TICKETS = 1_000;
+    private static final BigDecimal BASE_PRICE = new BigDecimal("350.00");
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    private long blackhole;
+
+    @Test
+    void comparePriceQuotes() {
+        PricingRules original = pricingRuleEngine.getRules();
+        try {
+            pricingRuleEngine.apply(stackedRules());
+
+            Event movie = event(EventType.MOVIE);
+            Event workshop = event(EventType.WORKSHOP);
+            IntFunction<BigDecimal> perCallMath = sold -> legacyPrice(BASE_PRICE, sold, TOTAL_TICKETS);
+            IntFunction<BigDecimal> defaultRule = sold -> pricingService.calculateCurrentPrice(movie, sold, TOTAL_TICKETS);
+            IntFunction<BigDecimal> stackedCurves = sold -> pricingService.calculateCurrentPrice(workshop, sold, TOTAL_TICKETS);
+
+            // Warm up every path so the JIT has compiled them before measuring
+            measure("warm-up", perCallMath);
+            measure("warm-up", defaultRule);
+            measure("warm-up", stackedCurves);
+
+            measure("per-call BigDecimal math", perCallMath);
+            double defaultBytes = measure("rule engine, default rule", defaultRule);
+            double stackedBytes = measure("rule engine, 3 curves", stackedCurves);
+            assertTrue(defaultBytes < 0.01 && stackedBytes < 0.01, "compiled rule lookups should not allocate");
+        } finally {
+            pricingRuleEngine.apply(original);
+        }
+    }
+
+    private double measure(String name, IntFunction<BigDecimal> quote) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < QUOTES; i++) {
+            blackhole += quote.apply(i % TOTAL_TICKETS).hashCode();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+        double bytesPerQuote = (double) allocatedBytes / QUOTES;
+        if (!name.equals("warm-up")) {
+            System.out.printf("%-26s %6.1f ns/quote   %6.2f bytes/quote%n",
+                    name, (double) elapsedNanos / QUOTES, bytesPerQuote);
+        }
+        return bytesPerQuote;
+    }
+
+    // Default step tiers, plus a linear ramp and a last-minute discount for workshops
+    private static PricingRules stackedRules() {
+        PricingRules.Curve tiers = new PricingRules.Curve();
+        tiers.setType(PricingRules.CurveType.STEP);
+        tiers.setSteps(List.of(step(50, 10), step(80, 20)));
+
+        PricingRules.Curve ramp = new PricingRules.Curve();
+        ramp.setType(PricingRules.CurveType.LINEAR);
+        ramp.setFromPercent(20);
+        ramp.setMaxAdjustPercent(25);
+
+        PricingRules.Curve lastMinute = new PricingRules.Curve();
+        lastMinute.setType(PricingRules.CurveType.TIME_DECAY);
+        lastMinute.setSteps(List.of(step(7, -5), step(2, -15)));
+
+        PricingRules rules = new PricingRules();
+        rules.getDefaultRule().setCurves(List.of(tiers));
+        PricingRules.Rule workshops = new PricingRules.Rule();
+        workshops.setCurves(List.of(tiers, ramp, lastMinute));
+        rules.getEventTypes().put(EventType.WORKSHOP, workshops);
+        return rules;
+    }
+
+    private static PricingRules.Step step(int at, double adjustPercent) {
+        PricingRules.Step step = new PricingRules.Step();
+        step.setAt(at);
+        step.setAdjustPercent(adjustPercent);
+        return step;
+    }
+
+    private static Event event(EventType type) {
+        Event event = new Event();
+        event.setId(1_000_000L + type.ordinal());
+        event.setType(type);
+        event.setDate(LocalDate.now().plusDays(5));
+        event.setBasePrice(BASE_PRICE);
+        return event;
+    }
+
+    // The pricing formula as it was before the rule engine
+    private static BigDecimal legacyPrice(BigDecimal basePrice, int ticketsSold, int totalTickets) {
+        double soldPercentage = totalTickets == 0 ? 0.0 : (double) ticketsSold / totalTickets * 100;
+        BigDecimal currentPrice = basePrice;
+        if (soldPercentage >= 80.0) {
+            currentPrice = basePrice.multiply(BigDecimal.valueOf(1 + 0.20));
+        } else if (soldPercentage >= 50.0) {
+            currentPrice = basePrice.multiply(BigDecimal.valueOf(1 + 0.10));
+        }
+        return currentPrice.setScale(2, RoundingMode.HALF_UP);
+    }
+}
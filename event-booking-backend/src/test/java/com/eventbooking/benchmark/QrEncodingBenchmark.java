@@ -0,0 +1,90 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.service.QrPngEncoder;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Base64;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Nanoseconds and bytes allocated per Base64 QR image, ImageIO against QrPngEncoder (HotSpot only)
+// Run with: mvn test -Dtest=QrEncodingBenchmark -Dbenchmarks=true
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class QrEncodingBenchmark {
+
+    private static final int IMAGES = 5_000;
+    private static final int SIZE = 300;
+
+    private long blackhole;
+
+    @Test
+    void compareQrEncoding() {
+        IntUnaryOperator imageIo = i -> legacyBase64(payload(i)).length();
+        IntUnaryOperator direct = i -> {
+            byte[] png = QrPngEncoder.encode(payload(i), SIZE);
+            // A null stream stands in for the response
+            try (OutputStream base64 = Base64.getEncoder().wrap(OutputStream.nullOutputStream())) {
+                base64.write(png);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return png.length;
+        };
+
+        // Warm up both paths so the JIT has compiled them before measuring
+        measure("warm-up", imageIo);
+        measure("warm-up", direct);
+
+        double legacyBytes = measure("BufferedImage + ImageIO", imageIo);
+        double directBytes = measure("1-bit PNG encoder", direct);
+        assertTrue(directBytes < legacyBytes / 2, "the direct encoder should allocate far less per image");
+    }
+
+    private double measure(String name, IntUnaryOperator encode) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < IMAGES; i++) {
+            blackhole += encode.applyAsInt(i);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+        double bytesPerImage = (double) allocatedBytes / IMAGES;
+        if (!name.equals("warm-up")) {
+            System.out.printf("%-24s %8.1f us/image   %9.0f bytes/image%n",
+                    name, elapsedNanos / 1000.0 / IMAGES, bytesPerImage);
+        }
+        return bytesPerImage;
+    }
+
+    private static String payload(int i) {
+        return "BOOKING_" + (1000 + i) + "_USER_42_EVENT_7_TICKETS_2_REF_BK" + (1_700_000_000_000L + i);
+    }
+
+    // QR rendering as it was before QrPngEncoder
+    private static String legacyBase64(String data) {
+        try {
+            BitMatrix bitMatrix = new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, SIZE, SIZE);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(MatrixToImageWriter.toBufferedImage(bitMatrix), "PNG", baos);
+            return Base64.getEncoder().encodeToString(baos.toByteArray());
+        } catch (WriterException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Tag;
+import com.eventbooking.service.TagIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Tag filter and facet latency over 1M synthetic events with Zipf distributed tags
+// Run with: mvn test -Dtest=TagIndexBenchmark -Dbenchmarks=true [-Dbenchmark.events=1000000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class TagIndexBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 1_000_000);
+    private static final int TAGS = 2_000;
+    private static final int QUERIES = 5_000;
+
+    private final Random random = new Random(42);
+    private final double[] cumulative = new double[TAGS];
+
+    @Test
+    void filtersAndFacets() {
+        List<Tag> tags = new ArrayList<>(TAGS);
+        for (int i = 0; i < TAGS; i++) {
+            Tag tag = new Tag("tag" + i);
+            tag.setId((long) i);
+            tags.add(tag);
+            cumulative[i] = (i == 0 ? 0 : cumulative[i - 1]) + 1.0 / (i + 1);
+        }
+
+        TagIndex index = new TagIndex();
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= EVENTS; id++) {
+            List<Tag> eventTags = new ArrayList<>();
+            for (int count = 3 + random.nextInt(3); eventTags.size() < count; ) {
+                Tag tag = tags.get(tagRank());
+                if (!eventTags.contains(tag)) {
+                    eventTags.add(tag);
+                }
+            }
+            index.index(id, eventTags);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        long[] and = new long[QUERIES];
+        long[] or = new long[QUERIES];
+        long[] facets = new long[QUERIES];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < QUERIES; i++) {
+                List<String> two = List.of("tag" + tagRank(), "tag" + tagRank());
+                List<String> three = List.of("tag" + tagRank(), "tag" + tagRank(), "tag" + tagRank());
+
+                long start = System.nanoTime();
+                RoaringBitmap matches = index.matchAll(two);
+                and[i] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                index.matchAny(three);
+                or[i] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                index.facets(matches, 20);
+                facets[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(and);
+        Arrays.sort(or);
+        Arrays.sort(facets);
+
+        System.out.println("🏷️ Tag index over " + EVENTS + " events: built in " + buildMillis + " ms, " + index.getStats());
+        System.out.printf("   AND of 2 tags p50 %.1f µs, p99 %.1f µs%n", and[QUERIES / 2] / 1000.0, and[QUERIES * 99 / 100] / 1000.0);
+        System.out.printf("   OR of 3 tags  p50 %.1f µs, p99 %.1f µs%n", or[QUERIES / 2] / 1000.0, or[QUERIES * 99 / 100] / 1000.0);
+        System.out.printf("   top 20 facets p50 %.1f µs, p99 %.1f µs%n", facets[QUERIES / 2] / 1000.0, facets[QUERIES * 99 / 100] / 1000.0);
+
+        assertEquals(EVENTS, index.matchAll(List.of()).getCardinality());
+    }
+
+    // A tag index drawn from the Zipf distribution
+    private int tagRank() {
+        int found = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[TAGS - 1]);
+        return Math.min(found >= 0 ? found : -found - 1, TAGS - 1);
+    }
+}
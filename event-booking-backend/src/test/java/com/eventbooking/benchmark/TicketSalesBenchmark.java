@@ -0,0 +1,106 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.repository.EventRepository;
+import com.eventbooking.service.EventService;
+import com.eventbooking.service.TicketInventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+// Multi-threaded comparison of the ways tickets can be taken from an event
+// Run with: mvn test -Dtest=TicketSalesBenchmark -Dbenchmarks=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class TicketSalesBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+    private static final int TOTAL_TICKETS = 10_000;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareTicketSalePaths() throws Exception {
+        // Previous path: load the entity, check availability in Java, save the whole row
+        run("entity read-modify-write", snapshot -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Event event = eventRepository.findById(snapshot.getId()).orElseThrow();
+            if (event.getAvailableTickets() < 1) {
+                return false;
+            }
+            event.setTicketsSold(event.getTicketsSold() + 1);
+            eventRepository.save(event);
+            return true;
+        })));
+
+        // Guarded single-statement update
+        run("guarded UPDATE", event -> eventRepository.reserveTickets(event.getId(), 1) == 1);
+
+        // In-memory CAS counter
+        run("in-memory inventory", event -> ticketInventoryService.reserve(event, 1) >= 0);
+    }
+
+    private void run(String name, Predicate<Event> sellOne) throws Exception {
+        Event event = eventService.createEvent(new Event("Benchmark " + name, "Benchmark", EventType.LIVE_SHOW,
+                "benchmark", LocalDate.now().plusDays(30), LocalTime.of(20, 0), "Benchmark Hall",
+                TOTAL_TICKETS, new BigDecimal("100.00")));
+        AtomicInteger sold = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        if (sellOne.test(event)) {
+                            sold.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        // Lost races surface as exceptions on some paths, count them as not sold
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        ticketInventoryService.flush();
+        int persisted = eventRepository.findById(event.getId()).orElseThrow().getTicketsSold();
+        System.out.printf("%-26s %,10.0f sales/s   reported sold=%d   persisted sold=%d%n",
+                name, sold.get() * 1e9 / elapsedNanos, sold.get(), persisted);
+    }
+}
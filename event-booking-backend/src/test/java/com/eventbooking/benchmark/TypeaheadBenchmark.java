@@ -0,0 +1,131 @@
+package com.eventbooking.benchmark;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import com.eventbooking.service.TypeaheadIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Typeahead latency and memory over 1M synthetic events, and the cost of re-weighing on ticket sales
+// Run with: mvn test -Dtest=TypeaheadBenchmark -Dbenchmarks=true [-Dbenchmark.events=1000000]
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class TypeaheadBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 1_000_000);
+    private static final int WORDS = 5_000;
+    private static final int LOCATIONS = 2_000;
+    private static final int TAGS = 300;
+    private static final int QUERIES = 200_000;
+    private static final int SALES = 200_000;
+
+    private static final String[] SYLLABLES = {
+            "ka", "ro", "mi", "ta", "len", "sa", "vo", "ri", "an", "el", "do", "be", "nu", "fi", "ga", "ho",
+            "ju", "ke", "li", "mo", "ne", "pa", "qui", "ra", "si", "to", "ur", "ve", "wa", "xi", "ya", "zo"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void suggest() {
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = capitalized(syllables(2 + random.nextInt(3)));
+        }
+        String[] locations = new String[LOCATIONS];
+        for (int i = 0; i < LOCATIONS; i++) {
+            locations[i] = capitalized(syllables(3)) + " " + capitalized(syllables(2));
+        }
+        String[] tags = new String[TAGS];
+        for (int i = 0; i < TAGS; i++) {
+            tags[i] = syllables(2 + random.nextInt(2));
+        }
+
+        // Names queried later are made up front, so they are not counted in the index's heap
+        String[] names = new String[Math.min(EVENTS, 100_000)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = name(words);
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        TypeaheadIndex index = new TypeaheadIndex();
+        long buildStart = System.nanoTime();
+        for (int id = 1; id <= EVENTS; id++) {
+            String name = id <= names.length ? names[id - 1] : name(words);
+            String eventTags = tags[random.nextInt(TAGS)] + "," + tags[random.nextInt(TAGS)] + "," + tags[random.nextInt(TAGS)];
+            Event event = new Event(name, null, EventType.LIVE_SHOW, eventTags,
+                    LocalDate.now().plusDays(random.nextInt(365)), LocalTime.of(19, 0),
+                    locations[random.nextInt(LOCATIONS)], 1000, new BigDecimal("100.00"));
+            event.setId((long) id);
+            event.setTicketsSold(random.nextInt(500));
+            index.index(event);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        String[] queries = new String[QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            String text = random.nextInt(4) == 0 ? locations[random.nextInt(LOCATIONS)] : names[random.nextInt(names.length)];
+            queries[i] = text.substring(0, Math.min(text.length(), 1 + random.nextInt(8))).toLowerCase();
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            index.suggest(queries[QUERIES + i], 8);
+        }
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            List<TypeaheadIndex.Suggestion> suggestions = index.suggest(queries[i], 8);
+            nanos[i] = System.nanoTime() - start;
+            assertFalse(suggestions.isEmpty());
+        }
+        Arrays.sort(nanos);
+
+        long salesStart = System.nanoTime();
+        for (int i = 0; i < SALES; i++) {
+            index.recordSale((long) 1 + random.nextInt(EVENTS), 1 + random.nextInt(4));
+        }
+        double salesMicros = (System.nanoTime() - salesStart) / 1000.0 / SALES;
+
+        System.out.println("🔤 Typeahead over " + EVENTS + " events: built in " + buildMillis + " ms, "
+                + index.getStats());
+        System.out.printf("   heap %.1f MB (estimated %.1f MB)%n", (heapAfter - heapBefore) / 1e6,
+                ((Long) index.getStats().get("estimatedBytes")) / 1e6);
+        System.out.printf("   suggest p50 %.1f µs, p99 %.1f µs, max %.1f µs; %.2f µs per sale%n",
+                nanos[QUERIES / 2] / 1000.0, nanos[QUERIES * 99 / 100] / 1000.0, nanos[QUERIES - 1] / 1000.0,
+                salesMicros);
+
+        List<TypeaheadIndex.Suggestion> top = index.suggest("k", 8);
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getWeight() >= top.get(i).getWeight());
+        }
+    }
+
+    private String name(String[] words) {
+        return words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)] + " " + words[random.nextInt(WORDS)];
+    }
+
+    private String syllables(int count) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalized(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
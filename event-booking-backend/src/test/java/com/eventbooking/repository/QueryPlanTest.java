@@ -0,0 +1,284 @@
+package com.eventbooking.repository;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.BookingStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every booking and review finder must be answered from an index, checked with EXPLAIN on the SQL it sends
+// Runs on 50,000 bookings, a million with -Dbenchmarks=true, or -Dqueryplan.rows=...
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:queryplans",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.eventbooking.repository.QueryPlanTest$SqlCapture"
+})
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final int BOOKINGS = Integer.getInteger("queryplan.rows",
+            Boolean.getBoolean("benchmarks") ? 1_000_000 : 50_000);
+    private static final int REVIEWS = BOOKINGS / 10;
+    private static final int USERS = 10_000;
+    private static final int EVENTS = 1_000;
+    private static final int CHUNK = 20_000;
+    private static final long FIRST_ID = 10_000_000L;
+
+    private static final long USER = FIRST_ID + 17;
+    private static final long EVENT = FIRST_ID + 42;
+    private static final String QR_CODE = "PLAN-QR-" + 12_345;
+    private static final int PAGE = 21;
+
+    // Set on the thread capturing a finder's SQL, other threads' statements run as usual
+    private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void loadDataset() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, role, created_date) "
+                + "SELECT ?1 + X, 'Plan User ' || X, 'plan' || X || '@example.com', 'secret', 'USER', CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(0, ?2 - 1)", FIRST_ID, USERS);
+        jdbcTemplate.update("INSERT INTO events (id, name, description, type, tags, date, time, location, "
+                + "total_tickets, tickets_sold, base_price, current_price) "
+                + "SELECT ?1 + X, 'Plan Event ' || X, 'Query plan test', 'MOVIE', 'test', "
+                + "DATEADD('DAY', MOD(X, 365), CURRENT_DATE), TIME '19:00:00', 'Test Arena', 100000, 0, 100, 100 "
+                + "FROM SYSTEM_RANGE(0, ?2 - 1)", FIRST_ID, EVENTS);
+        // Mostly confirmed with some cancelled and completed, spread over a year of booking dates.
+        // One statement per chunk, H2 slows down badly on a single huge uncommitted insert
+        for (int from = 0; from < BOOKINGS; from += CHUNK) {
+            jdbcTemplate.update("INSERT INTO bookings (id, user_id, event_id, tickets_booked, total_amount, qr_code, "
+                    + "qr_code_hash, booking_date, status, booking_reference) "
+                    + "SELECT ?1 + X, ?1 + MOD(X, ?2), ?1 + MOD(X * 7, ?3), 1 + MOD(X, 4), 100, 'PLAN-QR-' || X, "
+                    + "HASH('SHA-256', 'PLAN-QR-' || X), DATEADD('SECOND', -MOD(X * 31, 31536000), CURRENT_TIMESTAMP), "
+                    + "CASE WHEN MOD(X, 20) = 0 THEN 'CANCELLED' WHEN MOD(X, 50) = 1 THEN 'COMPLETED' "
+                    + "ELSE 'CONFIRMED' END, 'PLAN' || X FROM SYSTEM_RANGE(?4, ?5)",
+                    FIRST_ID, USERS, EVENTS, from, Math.min(BOOKINGS, from + CHUNK) - 1);
+        }
+        for (int from = 0; from < REVIEWS; from += CHUNK) {
+            jdbcTemplate.update("INSERT INTO reviews (id, user_id, event_id, rating, comment, review_date) "
+                    + "SELECT ?1 + X, ?1 + MOD(X, ?2), ?1 + MOD(X * 7, ?3), 1 + MOD(X, 5), 'Plan review', "
+                    + "DATEADD('SECOND', -MOD(X * 31, 31536000), CURRENT_TIMESTAMP) FROM SYSTEM_RANGE(?4, ?5)",
+                    FIRST_ID, USERS, EVENTS, from, Math.min(REVIEWS, from + CHUNK) - 1);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void everyFinderUsesAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastWeek = now.minusDays(7);
+        String confirmed = BookingStatus.CONFIRMED.name();
+        String cancelled = BookingStatus.CANCELLED.name();
+
+        List<Finder> finders = List.of(
+                finder("BookingRepository.findByUserId", () -> bookingRepository.findByUserId(USER), USER),
+                finder("BookingRepository.findByEventId", () -> bookingRepository.findByEventId(EVENT), EVENT),
+                finder("BookingRepository.findByBookingReference",
+                        () -> bookingRepository.findByBookingReference("PLAN12345"), "PLAN12345"),
+                finder("BookingRepository.findByQrCode", () -> bookingRepository.findByQrCode(QR_CODE),
+                        Booking.hashQrCode(QR_CODE)),
+                finder("BookingRepository.findByQrCodeHash",
+                        () -> bookingRepository.findByQrCodeHash(Booking.hashQrCode(QR_CODE)),
+                        Booking.hashQrCode(QR_CODE)),
+                finder("BookingRepository.findAdmissionsByEventId",
+                        () -> bookingRepository.findAdmissionsByEventId(EVENT), EVENT),
+                finder("BookingRepository.findIdsByStatus",
+                        () -> bookingRepository.findIdsByStatus(BookingStatus.CANCELLED), cancelled),
+                finder("BookingRepository.findIdsByEventIdAndStatus",
+                        () -> bookingRepository.findIdsByEventIdAndStatus(EVENT, BookingStatus.CANCELLED),
+                        EVENT, cancelled),
+                finder("BookingRepository.findByUserIdAndStatus",
+                        () -> bookingRepository.findByUserIdAndStatus(USER, BookingStatus.CONFIRMED),
+                        USER, confirmed),
+                finder("BookingRepository.findByEventIdAndStatus",
+                        () -> bookingRepository.findByEventIdAndStatus(EVENT, BookingStatus.CONFIRMED),
+                        EVENT, confirmed),
+                finder("BookingRepository.findByBookingDateBetween",
+                        () -> bookingRepository.findByBookingDateBetween(lastWeek, now), lastWeek, now),
+                finder("BookingRepository.countConfirmedBookingsByEventId",
+                        () -> bookingRepository.countConfirmedBookingsByEventId(EVENT), EVENT),
+                finder("BookingRepository.getTotalTicketsSoldByEventId",
+                        () -> bookingRepository.getTotalTicketsSoldByEventId(EVENT), EVENT),
+                finder("BookingRepository.countBookingsGroupedByStatus",
+                        () -> bookingRepository.countBookingsGroupedByStatus()),
+                finder("BookingRepository.getTotalTicketsSold", () -> bookingRepository.getTotalTicketsSold()),
+                finder("BookingRepository.getAverageBookingValue", () -> bookingRepository.getAverageBookingValue()),
+                finder("BookingRepository.getTotalRevenue", () -> bookingRepository.getTotalRevenue()),
+                finder("BookingRepository.getTotalRevenueByUserId",
+                        () -> bookingRepository.getTotalRevenueByUserId(USER), USER),
+                page("BookingRepository.findRecentBookings",
+                        () -> bookingRepository.findRecentBookings(Limit.of(PAGE)), PAGE),
+                page("BookingRepository.findRecentBookingsBefore",
+                        () -> bookingRepository.findRecentBookingsBefore(lastWeek, FIRST_ID, Limit.of(PAGE)),
+                        lastWeek, lastWeek, FIRST_ID, PAGE),
+                export("BookingRepository.streamAllWithEventAndUser",
+                        () -> bookingRepository.streamAllWithEventAndUser().findFirst()),
+                finder("BookingRepository.hasUserBookedEvent",
+                        () -> bookingRepository.hasUserBookedEvent(USER, EVENT), USER, EVENT),
+
+                finder("ReviewRepository.findByUserId", () -> reviewRepository.findByUserId(USER), USER),
+                finder("ReviewRepository.findByEventIdOrderByReviewDateDesc",
+                        () -> reviewRepository.findByEventIdOrderByReviewDateDesc(EVENT), EVENT),
+                finder("ReviewRepository.findByEventIdOrderByReviewDateDesc",
+                        () -> reviewRepository.findByEventIdOrderByReviewDateDesc(EVENT, Limit.of(5)), EVENT, 5),
+                finder("ReviewRepository.findByRating", () -> reviewRepository.findByRating(1), 1),
+                finder("ReviewRepository.findByEventIdAndRating",
+                        () -> reviewRepository.findByEventIdAndRating(EVENT, 5), EVENT, 5),
+                finder("ReviewRepository.hasUserReviewedEvent",
+                        () -> reviewRepository.hasUserReviewedEvent(USER, EVENT), USER, EVENT),
+                finder("ReviewRepository.findByUserIdAndEventId",
+                        () -> reviewRepository.findByUserIdAndEventId(USER, EVENT), USER, EVENT),
+                finder("ReviewRepository.getAverageRatingByEventId",
+                        () -> reviewRepository.getAverageRatingByEventId(EVENT), EVENT),
+                finder("ReviewRepository.countRatingsByEventId",
+                        () -> reviewRepository.countRatingsByEventId(EVENT), EVENT),
+                finder("ReviewRepository.countRatings", () -> reviewRepository.countRatings()),
+                finder("ReviewRepository.getReviewCountByEventId",
+                        () -> reviewRepository.getReviewCountByEventId(EVENT), EVENT),
+                finder("ReviewRepository.findHighRatedReviews", () -> reviewRepository.findHighRatedReviews(5), 5),
+                page("ReviewRepository.findRecentReviews",
+                        () -> reviewRepository.findRecentReviews(Limit.of(PAGE)), PAGE),
+                page("ReviewRepository.findRecentReviewsBefore",
+                        () -> reviewRepository.findRecentReviewsBefore(lastWeek, FIRST_ID, Limit.of(PAGE)),
+                        lastWeek, lastWeek, FIRST_ID, PAGE),
+                export("ReviewRepository.streamAllWithEventAndUser",
+                        () -> reviewRepository.streamAllWithEventAndUser().findFirst())
+        );
+
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(BookingRepository.class, ReviewRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                declared.add(repository.getSimpleName() + "." + method.getName());
+            }
+        }
+        assertEquals(declared, finders.stream().map(finder -> finder.name).collect(Collectors.toCollection(TreeSet::new)),
+                "every finder needs a query plan case");
+
+        List<String> scans = new ArrayList<>();
+        for (Finder finder : finders) {
+            String plan = explain(capture(finder), finder.arguments);
+            if (plan.contains(".tableScan") || (finder.sorted && !plan.contains("/* index sorted */"))) {
+                scans.add(finder.name + ": " + plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), "finders scanning a table or sorting a page:\n" + String.join("\n", scans));
+    }
+
+    // The SELECT a finder sends
+    private String capture(Finder finder) {
+        List<String> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            if (finder.export) {
+                transactionTemplate.executeWithoutResult(status -> finder.call.run());
+            } else {
+                finder.call.run();
+            }
+        } catch (RuntimeException e) {
+            // Expected, the capture stops the query from running
+        } finally {
+            captured.remove();
+        }
+        List<String> selects = statements.stream().filter(sql -> sql.startsWith("select")).toList();
+        assertFalse(selects.isEmpty(), finder.name + " sent no query");
+        return selects.get(0);
+    }
+
+    private String explain(String sql, Object[] arguments) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < arguments.length; i++) {
+                    explain.setObject(i + 1, arguments[i]);
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1).replaceAll("\\s+", " ");
+                }
+            }
+        });
+    }
+
+    private static Finder finder(String name, Runnable call, Object... arguments) {
+        return new Finder(name, call, false, false, arguments);
+    }
+
+    // A keyset page, read in order off an index
+    private static Finder page(String name, Runnable call, Object... arguments) {
+        return new Finder(name, call, false, true, arguments);
+    }
+
+    // A streamed export, called in a transaction and read in order off an index
+    private static Finder export(String name, Runnable call, Object... arguments) {
+        return new Finder(name, call, true, true, arguments);
+    }
+
+    private static final class Finder {
+        private final String name;
+        private final Runnable call;
+        private final boolean export;
+        private final boolean sorted;
+        private final Object[] arguments;
+
+        private Finder(String name, Runnable call, boolean export, boolean sorted, Object[] arguments) {
+            this.name = name;
+            this.call = call;
+            this.export = export;
+            this.sorted = sorted;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public String toString() {
+            return name + Arrays.toString(arguments);
+        }
+    }
+
+    // Registered through hibernate.session_factory.statement_inspector, records and aborts statements while capturing
+    public static class SqlCapture implements StatementInspector {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = captured.get();
+            if (statements != null) {
+                statements.add(sql);
+                throw new IllegalStateException("Captured: " + sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.BookingStatus;
+import com.eventbooking.model.Event;
+import com.eventbooking.model.TicketHold;
+import com.eventbooking.model.User;
+import com.eventbooking.repository.BookingRepository;
+import com.eventbooking.repository.EventRepository;
+import com.eventbooking.repository.TicketHoldRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingConcurrencyTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TicketHoldService ticketHoldService;
+
+    @Autowired
+    private TicketHoldRepository ticketHoldRepository;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Event event = events.create(newEvent(1_000));
+        int threads = 16;
+        AtomicInteger reserved = new AtomicInteger();
+
+        runConcurrently(threads, 10_000, () -> {
+            if (ticketInventoryService.reserve(event, 3) >= 0) {
+                reserved.addAndGet(3);
+            }
+        });
+
+        assertEquals(999, reserved.get());
+        assertEquals(999, ticketInventoryService.getTicketsSold(event));
+    }
+
+    @Test
+    void concurrentBookingsNeverOversell() throws Exception {
+        Event event = events.create(newEvent(50));
+        User user = userService.findById(2L).orElseThrow();
+        AtomicInteger confirmed = new AtomicInteger();
+
+        runConcurrently(16, 40, () -> {
+            try {
+                bookingService.createBooking(user, event.getId(), 2);
+                confirmed.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().startsWith("Not enough tickets available"));
+            }
+        });
+        ticketInventoryService.flush();
+
+        Event persisted = eventRepository.findById(event.getId()).orElseThrow();
+        int bookedTickets = bookingRepository.findByEventIdAndStatus(event.getId(), BookingStatus.CONFIRMED).stream()
+                .mapToInt(b -> b.getTicketsBooked())
+                .sum();
+        assertEquals(25, confirmed.get());
+        assertEquals(50, bookedTickets);
+        assertEquals(50, persisted.getTicketsSold());
+    }
+
+    @Test
+    void databaseReservationsReadTicketsSoldBack() {
+        Event event = events.create(newEvent(100));
+        Event stale = eventRepository.findById(event.getId()).orElseThrow();
+        ReflectionTestUtils.setField(ticketInventoryService, "mode", TicketInventoryService.Mode.DATABASE);
+        try {
+            // The second reservation must see the first, though its snapshot still says nothing is sold
+            assertEquals(40, ticketInventoryService.reserve(stale, 40));
+            assertEquals(50, ticketInventoryService.reserve(stale, 10));
+        } finally {
+            ReflectionTestUtils.setField(ticketInventoryService, "mode", TicketInventoryService.Mode.MEMORY);
+        }
+    }
+
+    @Test
+    void holdsLeftByALastRunAreRearmedOrHandedBack() {
+        Event event = events.create(newEvent(100));
+        long now = System.currentTimeMillis();
+        // Holds persisted by a run that stopped before they expired, their tickets still counted as sold
+        ticketInventoryService.reserve(event, 30);
+        TicketHold lapsed = new TicketHold("lapsed-" + event.getId(), 2L, event, 10, new BigDecimal("100.00"), now - 1000);
+        TicketHold live = new TicketHold("live-" + event.getId(), 2L, event, 20, new BigDecimal("100.00"), now + 600_000);
+        ticketHoldRepository.saveAll(List.of(lapsed, live));
+
+        ticketHoldService.restoreHolds();
+
+        assertEquals(80, ticketInventoryService.getAvailableTickets(event));
+        assertFalse(ticketHoldRepository.existsById(lapsed.getHoldId()));
+        assertTrue(ticketHoldService.getHold(live.getHoldId()).isPresent());
+
+        ticketHoldService.releaseHold(live.getHoldId());
+        assertEquals(100, ticketInventoryService.getAvailableTickets(event));
+        assertFalse(ticketHoldRepository.existsById(live.getHoldId()));
+    }
+
+    @Test
+    void deletingAnEventDropsItsHolds() {
+        Event event = events.create(newEvent(100));
+        TicketHold hold = ticketHoldService.createHold(userService.findById(2L).orElseThrow(), event.getId(), 5);
+        assertTrue(ticketHoldService.getHold(hold.getHoldId()).isPresent());
+
+        eventService.deleteEvent(event.getId());
+
+        assertFalse(eventRepository.existsById(event.getId()));
+        assertFalse(ticketHoldRepository.existsById(hold.getHoldId()));
+        assertFalse(ticketHoldService.getHold(hold.getHoldId()).isPresent());
+    }
+
+    private void runConcurrently(int threads, int tasksPerThread, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tasksPerThread; i++) {
+                    task.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private Event newEvent(int totalTickets) {
+        Event event = TestEvents.newEvent("Stress Test Event");
+        event.setTotalTickets(totalTickets);
+        return event;
+    }
+}
@@ -0,0 +1,93 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.Event;
+import com.eventbooking.model.User;
+import com.eventbooking.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+class CheckInServiceTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void firstScanWinsAndIsWrittenBehind() throws Exception {
+        Event event = events.create(TestEvents.newEvent("Gate Test Event"));
+        User user = userService.findById(2L).orElseThrow();
+        Booking booking = bookingService.createBooking(user, event.getId(), 2);
+        checkInService.openEvent(event.getId());
+
+        // Many gates scanning the same ticket at once admit it exactly once
+        int gates = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(gates);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CheckInService.ScanResult>> scans = new ArrayList<>();
+        for (int i = 0; i < gates; i++) {
+            scans.add(executor.submit(() -> {
+                start.await();
+                return checkInService.scan(booking.getQrCode(), event.getId());
+            }));
+        }
+        start.countDown();
+        int admitted = 0;
+        for (Future<CheckInService.ScanResult> scan : scans) {
+            CheckInService.ScanResult result = scan.get(30, TimeUnit.SECONDS);
+            if (result.isAdmitted()) {
+                admitted++;
+            } else {
+                assertEquals(CheckInService.ScanStatus.ALREADY_CHECKED_IN, result.getStatus());
+                assertNotNull(result.getCheckedInAt());
+            }
+        }
+        executor.shutdown();
+        assertEquals(1, admitted);
+
+        checkInService.flush();
+        assertNotNull(bookingRepository.findById(booking.getId()).orElseThrow().getCheckedInAt());
+    }
+
+    @Test
+    void lateBookingsAndWrongGatesAreHandled() {
+        Event event = events.create(TestEvents.newEvent("Gate Test Event"));
+        User user = userService.findById(2L).orElseThrow();
+        checkInService.openEvent(event.getId());
+
+        // Booked after the index was loaded
+        Booking late = bookingService.createBooking(user, event.getId(), 1);
+        assertEquals(CheckInService.ScanStatus.WRONG_EVENT,
+                checkInService.scan(late.getQrCode(), event.getId() + 1).getStatus());
+        assertEquals(CheckInService.ScanStatus.ADMITTED, checkInService.scan(late.getQrCode(), null).getStatus());
+        assertEquals(CheckInService.ScanStatus.ALREADY_CHECKED_IN,
+                checkInService.scan(late.getQrCode(), null).getStatus());
+        assertEquals(CheckInService.ScanStatus.INVALID, checkInService.scan("NOT A TICKET", null).getStatus());
+        assertEquals(1, checkInService.getStats(event.getId()).get("admittedTickets"));
+    }
+}
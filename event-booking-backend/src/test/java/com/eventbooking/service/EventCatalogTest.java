@@ -0,0 +1,96 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class EventCatalogTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventCatalog eventCatalog;
+
+    @Test
+    void pagesFiltersAndCountsFacets() {
+        Event show = events.create(newEvent(EventType.LIVE_SHOW, 3, "800.00", 2, "jazz"));
+        Event movie = events.create(newEvent(EventType.MOVIE, 1, "300.00", 100, "jazz,film"));
+        Event workshop = events.create(newEvent(EventType.WORKSHOP, 1, "1500.00", 100, "film"));
+
+        // Keyset pages in (date, id) order
+        EventCatalog.Filter filter = atTestVenue();
+        EventCatalog.Page first = eventCatalog.query(filter, null, 2, false);
+        assertEquals(List.of(movie.getId(), workshop.getId()), first.getEventIds());
+        EventCatalog.Page second = eventCatalog.query(filter, first.getNextCursor(), 2, false);
+        assertEquals(List.of(show.getId()), second.getEventIds());
+        assertNull(second.getNextCursor());
+
+        // The type facet ignores the type filter, the price facet the price filter
+        filter.setTypes(EnumSet.of(EventType.MOVIE, EventType.LIVE_SHOW));
+        filter.setMaxPrice(new BigDecimal("1000"));
+        EventCatalog.Page filtered = eventCatalog.query(filter, null, 10, true);
+        assertEquals(List.of(movie.getId(), show.getId()), filtered.getEventIds());
+        assertEquals(1, filtered.getFacets().getTypes().get(EventType.MOVIE));
+        assertEquals(1, filtered.getFacets().getTypes().get(EventType.LIVE_SHOW));
+        assertEquals(0, filtered.getFacets().getTypes().get(EventType.WORKSHOP));
+        assertEquals(List.of(1, 1, 0, 0, 0), priceCounts(filtered));
+        assertEquals("jazz", filtered.getFacets().getTags().get(0).getTag());
+        assertEquals(2, filtered.getFacets().getTags().get(0).getCount());
+
+        filter = atTestVenue();
+        filter.setTags(List.of("FILM"));
+        filter.setAvailableOnly(true);
+        assertEquals(List.of(movie.getId(), workshop.getId()), eventCatalog.query(filter, null, 10, false).getEventIds());
+
+        // Selling out and deleting take events out of the results
+        eventCatalog.recordSale(show, 2);
+        filter = atTestVenue();
+        filter.setAvailableOnly(true);
+        assertEquals(List.of(movie.getId(), workshop.getId()), eventCatalog.query(filter, null, 10, false).getEventIds());
+        eventService.deleteEvent(movie.getId());
+        assertEquals(List.of(workshop.getId()), eventCatalog.query(filter, null, 10, false).getEventIds());
+    }
+
+    private List<Integer> priceCounts(EventCatalog.Page page) {
+        List<Integer> counts = new ArrayList<>();
+        for (EventCatalog.PriceBucket bucket : page.getFacets().getPrices()) {
+            counts.add(bucket.getCount());
+        }
+        return counts;
+    }
+
+    private EventCatalog.Filter atTestVenue() {
+        EventCatalog.Filter filter = new EventCatalog.Filter();
+        filter.setLocation("catalogue test hall");
+        return filter;
+    }
+
+    private Event newEvent(EventType type, int daysAhead, String price, int tickets, String tags) {
+        Event event = TestEvents.newEvent("Catalogue Test " + type);
+        event.setType(type);
+        event.setTags(tags);
+        event.setDate(LocalDate.now().plusDays(daysAhead));
+        event.setLocation("Catalogue Test Hall, Pune");
+        event.setTotalTickets(tickets);
+        event.setBasePrice(new BigDecimal(price));
+        event.setCurrentPrice(new BigDecimal(price));
+        return event;
+    }
+}
@@ -0,0 +1,60 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EventSearchIndexTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    @Test
+    void followsEventChanges() {
+        Event named = events.create(newEvent("Zydeco Nights", "Live music by the river", "zydeco,music"));
+        Event described = events.create(newEvent("River Party", "Zydeco bands playing all night", "music"));
+
+        // A name match outranks a mention in the description
+        assertEquals(List.of(named.getId(), described.getId()), eventIds("zydeco"));
+        assertEquals(named.getId(), eventIds("zydeco nights").get(0));
+
+        named.setName("Bluegrass Evenings");
+        named.setTags("bluegrass,music");
+        eventService.updateEvent(named);
+        assertEquals(List.of(described.getId()), eventIds("zydeco"));
+        assertEquals(named.getId(), eventIds("bluegrass evening").get(0));
+
+        eventService.deleteEvent(described.getId());
+        assertTrue(eventIds("zydeco").isEmpty());
+    }
+
+    @Test
+    void analyzesQueriesLikeDocuments() {
+        assertEquals(List.of("run", "party", "comedy", "show"), EventSearchIndex.analyze("Running the Parties: Comedy-Shows!"));
+    }
+
+    private List<Long> eventIds(String query) {
+        return eventSearchIndex.search(query, 10).stream().map(EventSearchIndex.Hit::getEventId).toList();
+    }
+
+    private Event newEvent(String name, String description, String tags) {
+        Event event = TestEvents.newEvent(name);
+        event.setDescription(description);
+        event.setTags(tags);
+        return event;
+    }
+}
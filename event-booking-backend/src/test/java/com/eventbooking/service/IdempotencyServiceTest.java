@@ -0,0 +1,91 @@
+package com.eventbooking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyService idempotencyService = new IdempotencyService();
+
+    @Test
+    void concurrentRetriesRunTheActionOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("key-1", "request", () -> {
+                    runs.incrementAndGet();
+                    return pending;
+                }, result -> true);
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (Future<CompletableFuture<String>> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        pending.complete("booked");
+        for (CompletableFuture<String> result : results) {
+            assertEquals("booked", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals("booked", idempotencyService.execute("key-1", "request",
+                () -> CompletableFuture.completedFuture("booked again"), result -> true).get());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void rejectedResultsAreNotReplayed() throws Exception {
+        assertEquals("sold out", idempotencyService.execute("key-2", "request",
+                () -> CompletableFuture.completedFuture("sold out"), result -> !result.equals("sold out")).get());
+        assertEquals("booked", idempotencyService.execute("key-2", "request",
+                () -> CompletableFuture.completedFuture("booked"), result -> true).get());
+        assertEquals(1, idempotencyService.size());
+    }
+
+    @Test
+    void onlyTheNewestKeptResultsAreCached() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 2);
+        for (int i = 0; i < 1_000; i++) {
+            idempotencyService.execute("failed-" + i, "request",
+                    () -> CompletableFuture.failedFuture(new IllegalStateException()), result -> true);
+        }
+        for (int i = 0; i < 3; i++) {
+            idempotencyService.execute("booked-" + i, "request",
+                    () -> CompletableFuture.completedFuture("booked"), result -> true);
+        }
+        assertEquals(2, idempotencyService.size());
+        assertEquals(2, ((Queue<?>) ReflectionTestUtils.getField(idempotencyService, "completionOrder")).size());
+
+        // The oldest key was dropped, so a retry runs again
+        assertEquals("booked again", idempotencyService.execute("booked-0", "request",
+                () -> CompletableFuture.completedFuture("booked again"), result -> true).get());
+    }
+
+    @Test
+    void reusingAKeyForAnotherRequestIsRejected() {
+        idempotencyService.execute("key-3", "request",
+                () -> CompletableFuture.completedFuture("booked"), result -> true);
+        assertThrows(IdempotencyService.KeyReusedException.class, () -> idempotencyService.execute("key-3",
+                "other request", () -> CompletableFuture.completedFuture("booked"), result -> true));
+    }
+}
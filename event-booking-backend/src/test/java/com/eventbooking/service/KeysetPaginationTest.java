@@ -0,0 +1,70 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.Review;
+import com.eventbooking.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class KeysetPaginationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void pagesWalkTheWholeListInOrder() {
+        // Streamed in id order, paged newest first
+        List<Booking> streamed = new ArrayList<>();
+        bookingService.forEachBooking(streamed::add);
+        assertFalse(streamed.isEmpty());
+        assertTrue(streamed.stream().allMatch(booking -> booking.getEvent().getName() != null));
+        List<Long> newestFirst = streamed.stream()
+                .sorted(Comparator.comparing(Booking::getBookingDate).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId).toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<Booking> page = bookingService.getBookingsPage(cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(booking -> paged.add(booking.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(newestFirst, paged);
+        assertEquals(newestFirst.subList(0, 1), bookingService.getRecentBookings(1).stream().map(Booking::getId).toList());
+
+        List<Review> reviews = new ArrayList<>();
+        reviewService.forEachReview(reviews::add);
+        KeysetPage<Review> allReviews = reviewService.getReviewsPage(null, KeysetPage.MAX_PAGE_SIZE);
+        assertEquals(reviews.size(), allReviews.getItems().size());
+        assertNull(allReviews.getNextCursor());
+
+        List<Long> userIds = new ArrayList<>();
+        userService.forEachUser(user -> userIds.add(user.getId()));
+        KeysetPage<User> firstUsers = userService.getUsersPage(null, 1);
+        KeysetPage<User> secondUsers = userService.getUsersPage(firstUsers.getNextCursor(), 1);
+        assertEquals(userIds.subList(0, 2), List.of(firstUsers.getItems().get(0).getId(),
+                secondUsers.getItems().get(0).getId()));
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.getBookingsPage("2025-13-01T10:00_1", 2));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage("abc", 2));
+    }
+}
@@ -0,0 +1,100 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.Event;
+import com.eventbooking.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class OfflineCheckInServiceTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private OfflineCheckInService offlineCheckInService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void deltasCarryChangesSinceTheSnapshot() {
+        Event event = events.create(TestEvents.newEvent("Offline Gate Event"));
+        User user = userService.findById(2L).orElseThrow();
+        Booking kept = bookingService.createBooking(user, event.getId(), 2);
+        Booking cancelled = bookingService.createBooking(user, event.getId(), 1);
+
+        OfflineCheckInService.Export snapshot = offlineCheckInService.exportSnapshot(event.getId());
+        ByteBuffer file = ByteBuffer.wrap(snapshot.getData());
+        assertEquals(0x4542534E, file.getInt()); // "EBSN"
+        assertEquals(1, file.get());
+        assertEquals(event.getId(), file.getLong());
+        assertEquals(snapshot.getVersion(), file.getLong());
+        file.getLong();
+        assertEquals(2, file.get()); // confirmed bookings
+        assertEquals(kept.getId(), (long) file.get() & 0x7F | ((long) file.get() & 0x7F) << 7);
+        assertCrc(snapshot.getData());
+
+        bookingService.cancelBooking(cancelled.getId());
+        OfflineCheckInService.Export delta = offlineCheckInService.exportDelta(event.getId(), snapshot.getVersion());
+        byte[] data = delta.getData();
+        assertCrc(data);
+        // Header (29 bytes), one change: REVOKED, the booking id and its ticket
+        assertEquals(1, data[29]);
+        assertEquals(AdmissionJournal.ChangeType.REVOKED.ordinal(), data[30]);
+        assertEquals(0, offlineCheckInService.exportDelta(event.getId(), delta.getVersion()).getData()[29]);
+
+        // Versions from before the event was journaled need a new snapshot
+        assertNull(offlineCheckInService.exportDelta(event.getId(), snapshot.getVersion() - 1));
+    }
+
+    @Test
+    void earliestOfflineScanWins() {
+        Event event = events.create(TestEvents.newEvent("Offline Gate Event"));
+        User user = userService.findById(2L).orElseThrow();
+        Booking booking = bookingService.createBooking(user, event.getId(), 2);
+        long doorsOpen = System.currentTimeMillis() - 60_000;
+
+        // Two gates admitted the same ticket while offline, the later scan is uploaded first
+        OfflineCheckInService.ReconcileResult first = offlineCheckInService.reconcile(event.getId(), List.of(
+                new OfflineCheckInService.OfflineScan(booking.getQrCode(), doorsOpen + 5_000)));
+        OfflineCheckInService.ReconcileResult second = offlineCheckInService.reconcile(event.getId(), List.of(
+                new OfflineCheckInService.OfflineScan(booking.getQrCode(), doorsOpen + 1_000),
+                new OfflineCheckInService.OfflineScan(booking.getQrCode(), doorsOpen + 9_000),
+                new OfflineCheckInService.OfflineScan("NOT A TICKET", doorsOpen)));
+
+        assertEquals(1, first.getAdmitted());
+        assertEquals(1, second.getAdmitted());
+        assertEquals(1, second.getDuplicates());
+        assertEquals(1, second.getRejected());
+        assertEquals(CheckInService.ScanStatus.ADMITTED, second.getResults().get(0).getStatus());
+        assertEquals(CheckInService.ScanStatus.ALREADY_CHECKED_IN, second.getResults().get(1).getStatus());
+        assertEquals(second.getResults().get(0).getCheckedInAt(), second.getResults().get(1).getCheckedInAt());
+
+        // Scan times the admission index would read as never admitted, or from the future, are refused
+        for (long scannedAt : new long[] {0, -1, System.currentTimeMillis() + 3_600_000}) {
+            assertThrows(IllegalArgumentException.class, () -> offlineCheckInService.reconcile(event.getId(),
+                    List.of(new OfflineCheckInService.OfflineScan(booking.getQrCode(), scannedAt))));
+        }
+    }
+
+    private static void assertCrc(byte[] file) {
+        CRC32 crc = new CRC32();
+        crc.update(file, 0, file.length - 4);
+        assertEquals((int) crc.getValue(), ByteBuffer.wrap(file, file.length - 4, 4).getInt());
+    }
+}
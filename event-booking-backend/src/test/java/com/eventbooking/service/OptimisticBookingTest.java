@@ -0,0 +1,80 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.BookingStatus;
+import com.eventbooking.model.Event;
+import com.eventbooking.model.User;
+import com.eventbooking.repository.BookingRepository;
+import com.eventbooking.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"booking.inventory.mode=OPTIMISTIC", "booking.optimistic.max-attempts=50"})
+class OptimisticBookingTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void conflictingBookingsAreRetriedWithoutLosingUpdates() throws Exception {
+        Event event = events.create(TestEvents.newEvent("Optimistic Test Event"));
+        User user = userService.findById(2L).orElseThrow();
+        AtomicInteger confirmed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10; i++) {
+                    try {
+                        bookingService.createBooking(user, event.getId(), 2);
+                        confirmed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertTrue(e.getMessage().startsWith("Not enough tickets available"), e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Event persisted = eventRepository.findById(event.getId()).orElseThrow();
+        int bookedTickets = bookingRepository.findByEventIdAndStatus(event.getId(), BookingStatus.CONFIRMED).stream()
+                .mapToInt(b -> b.getTicketsBooked())
+                .sum();
+        assertEquals(50, confirmed.get());
+        assertEquals(100, bookedTickets);
+        assertEquals(100, persisted.getTicketsSold());
+    }
+}
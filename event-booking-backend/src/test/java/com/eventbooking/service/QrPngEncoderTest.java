@@ -0,0 +1,33 @@
+package com.eventbooking.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QrPngEncoderTest {
+
+    @Test
+    void matchesQRCodeWriterPixelForPixel() throws Exception {
+        for (String data : new String[] {"BOOKING_1_USER_1_EVENT_1_TICKETS_2_REF_BK1234567890", "x",
+                "BOOKING_1000_USER_42_EVENT_7_TICKETS_10_REF_BK" + "9".repeat(120)}) {
+            BitMatrix expected = new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, 300, 300);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(QrPngEncoder.encode(data, 300)));
+
+            assertEquals(expected.getWidth(), image.getWidth());
+            assertEquals(expected.getHeight(), image.getHeight());
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    boolean black = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+                    assertEquals(expected.get(x, y), black, "pixel " + x + "," + y + " of " + data);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.eventbooking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalesVelocityTrackerTest {
+
+    @Test
+    void cancellationsOnlyTakeOffTicketsStillInTheWindow() {
+        SalesVelocityTracker tracker = new SalesVelocityTracker();
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        ReflectionTestUtils.setField(tracker, "clock", (LongSupplier) now::get);
+        LocalDateTime firstSale = bookedAt(now.get());
+        tracker.record(1L, 10);
+
+        now.addAndGet(10 * 60_000);
+        tracker.record(1L, 4);
+        tracker.recordCancellation(1L, 6, firstSale);
+        assertEquals(4, tracker.ticketsInWindow(1L, SalesVelocityTracker.SHORT_WINDOW_MINUTES));
+        assertEquals(8, tracker.ticketsInWindow(1L, SalesVelocityTracker.LONG_WINDOW_MINUTES));
+
+        // A booking from before the window no longer counts, so cancelling it changes nothing
+        tracker.recordCancellation(1L, 3, firstSale.minusHours(2));
+        tracker.recordCancellation(1L, 20, firstSale);
+        assertEquals(4, tracker.ticketsInWindow(1L, SalesVelocityTracker.SHORT_WINDOW_MINUTES));
+        assertEquals(4, tracker.ticketsInWindow(1L, SalesVelocityTracker.LONG_WINDOW_MINUTES));
+    }
+
+    private LocalDateTime bookedAt(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,60 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TagIndexTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Test
+    void matchesNormalizedTagsExactly() {
+        Event gallery = events.create(newEvent("Gallery Night", " Art,  Street   Photography ,art"));
+        Event jam = events.create(newEvent("Street Jam", "street photography,jazz"));
+
+        // "art" is its own tag, the sample "party" events do not match it
+        assertEquals(List.of(gallery.getId()), eventIds(List.of("ART"), true));
+        assertEquals(List.of(gallery.getId(), jam.getId()), eventIds(List.of("street photography"), true));
+        assertEquals(List.of(gallery.getId()), eventIds(List.of("art", "street photography"), true));
+        assertEquals(List.of(gallery.getId(), jam.getId()), eventIds(List.of("art", "jazz"), false));
+        assertEquals(1.0 / 3, tagIndex.similarity(gallery.getId(), jam.getId()));
+
+        EventService.TagFacets facets = eventService.getTagFacets(List.of("street photography"), true, 10);
+        assertEquals(2, facets.getMatched());
+        assertEquals("street photography", facets.getFacets().get(0).getTag());
+        assertEquals(2, facets.getFacets().get(0).getCount());
+
+        jam.setTags("jazz");
+        eventService.updateEvent(jam);
+        assertEquals(List.of(gallery.getId()), eventIds(List.of("street photography"), true));
+
+        eventService.deleteEvent(gallery.getId());
+        assertTrue(eventIds(List.of("art"), false).isEmpty());
+    }
+
+    private List<Long> eventIds(List<String> tags, boolean matchAll) {
+        return eventService.searchEventsByTags(tags, matchAll).stream().map(Event::getId).toList();
+    }
+
+    private Event newEvent(String name, String tags) {
+        Event event = TestEvents.newEvent(name);
+        event.setTags(tags);
+        return event;
+    }
+}
@@ -0,0 +1,58 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import com.eventbooking.model.EventType;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Events a test creates, deleted with their bookings and reviews after it so the cached context keeps only the sample data
+class TestEvents implements BeforeEachCallback, AfterEachCallback {
+
+    private final List<Long> created = new ArrayList<>();
+    private ApplicationContext context;
+
+    // A live show at the Test Arena tomorrow at 19:00, 100 tickets at 100.00
+    static Event newEvent(String name) {
+        return new Event(name, "Test event", EventType.LIVE_SHOW, "test", LocalDate.now().plusDays(1),
+                LocalTime.of(19, 0), "Test Arena", 100, new BigDecimal("100.00"));
+    }
+
+    // Save an event through the service, deleted again after the test
+    Event create(Event event) {
+        Event saved = context.getBean(EventService.class).createEvent(event);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext extensionContext) {
+        context = SpringExtension.getApplicationContext(extensionContext);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext extensionContext) {
+        EventService eventService = context.getBean(EventService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (Long eventId : created) {
+            // Skip events the test deleted itself
+            if (eventService.getEventById(eventId).isEmpty()) {
+                continue;
+            }
+            context.getBean(CheckInService.class).closeEvent(eventId);
+            jdbcTemplate.update("DELETE FROM reviews WHERE event_id = ?", eventId);
+            jdbcTemplate.update("DELETE FROM bookings WHERE event_id = ?", eventId);
+            eventService.deleteEvent(eventId);
+        }
+        created.clear();
+    }
+}
@@ -0,0 +1,67 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Booking;
+import com.eventbooking.model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TicketCodeServiceTest {
+
+    private final TicketCodeService ticketCodeService = new TicketCodeService();
+
+    @BeforeEach
+    void setUp() {
+        ticketCodeService.init();
+    }
+
+    @Test
+    void signedCodesVerifyUntilRevoked() {
+        String code = ticketCodeService.sign(booking(1042L, LocalDate.now().plusDays(3)));
+
+        TicketCodeService.Verification verification = ticketCodeService.verify(code);
+        assertEquals(TicketCodeService.Result.VALID, verification.getResult());
+        assertEquals(1042L, verification.getBookingId());
+        assertEquals(7L, verification.getEventId());
+        assertEquals(3, verification.getTickets());
+
+        ticketCodeService.revoke(1042L);
+        assertEquals(TicketCodeService.Result.REVOKED, ticketCodeService.verify(code).getResult());
+    }
+
+    @Test
+    void tamperedExpiredAndForeignCodesAreRejected() {
+        String code = ticketCodeService.sign(booking(1043L, LocalDate.now().plusDays(3)));
+        byte[] bytes = Base45.decode(code);
+        bytes[2] ^= 1;
+        assertEquals(TicketCodeService.Result.BAD_SIGNATURE,
+                ticketCodeService.verify(Base45.encode(bytes)).getResult());
+
+        String expired = ticketCodeService.sign(booking(1044L, LocalDate.now().minusDays(2)));
+        assertEquals(TicketCodeService.Result.EXPIRED, ticketCodeService.verify(expired).getResult());
+
+        assertEquals(TicketCodeService.Result.MALFORMED,
+                ticketCodeService.verify("BOOKING_1_USER_2_EVENT_1_TICKETS_2_REF_BK1234567890").getResult());
+    }
+
+    @Test
+    void base45MatchesTheSpecExamples() {
+        assertEquals("BB8", Base45.encode("AB".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("%69 VD92EX0", Base45.encode("Hello!!".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("base-45", new String(Base45.decode("UJCLQE7W581"), StandardCharsets.US_ASCII));
+    }
+
+    private static Booking booking(Long id, LocalDate eventDate) {
+        Event event = new Event();
+        event.setId(7L);
+        event.setDate(eventDate);
+        Booking booking = new Booking(null, event, 3, new BigDecimal("100.00"));
+        booking.setId(id);
+        return booking;
+    }
+}
@@ -0,0 +1,48 @@
+package com.eventbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void expiresEveryItemWithinOneTickAcrossLevels() {
+        long start = 1_000_003;
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, start);
+        Random random = new Random(42);
+        List<Long> expirations = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Up to ~4 levels deep (8 * 8 * 8 * 10 = 5120ms)
+            long expiresAt = start + random.nextInt(20_000);
+            expirations.add(expiresAt);
+            assertTrue(wheel.add(expiresAt, expiresAt));
+        }
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = start; now <= start + 20_100; now += 7) {
+            long currentTime = now;
+            wheel.advance(now, expiresAt -> {
+                assertTrue(expiresAt <= currentTime, "expired early");
+                assertTrue(currentTime - expiresAt < 10 + 7, "expired late");
+                expired.add(expiresAt);
+            });
+        }
+
+        assertEquals(expirations.size(), expired.size());
+    }
+
+    @Test
+    void rejectsItemsThatAreAlreadyDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 1_000);
+        wheel.advance(1_050, item -> { });
+
+        assertFalse(wheel.add("past", 1_020));
+    }
+}
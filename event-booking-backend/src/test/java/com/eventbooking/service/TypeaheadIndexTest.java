@@ -0,0 +1,60 @@
+package com.eventbooking.service;
+
+import com.eventbooking.model.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TypeaheadIndexTest {
+
+    @RegisterExtension
+    final TestEvents events = new TestEvents();
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    @Test
+    void followsEventChangesAndSales() {
+        Event soon = events.create(newEvent("Qwyxo Jazz Night", 2, "Qwyxville Hall"));
+        Event later = events.create(newEvent("qwyxo Comedy Hour", 60, "Test Arena"));
+
+        // Sooner is heavier with the same sales, and case does not matter
+        assertEquals(List.of("Qwyxo Jazz Night", "qwyxo Comedy Hour"), texts("QWYXO"));
+
+        typeaheadIndex.recordSale(later.getId(), 500);
+        assertEquals(List.of("qwyxo Comedy Hour", "Qwyxo Jazz Night"), texts("qwyxo"));
+
+        // Locations are suggested too
+        assertEquals(TypeaheadIndex.Kind.LOCATION, typeaheadIndex.suggest("qwyxv", 5).get(0).getType());
+
+        soon.setName("Qwyxa Blues Night");
+        eventService.updateEvent(soon);
+        assertEquals(List.of("qwyxo Comedy Hour"), texts("qwyxo"));
+        assertEquals(List.of("Qwyxa Blues Night"), texts("qwyxa"));
+
+        eventService.deleteEvent(later.getId());
+        assertTrue(texts("qwyxo").isEmpty());
+    }
+
+    private List<String> texts(String prefix) {
+        return typeaheadIndex.suggest(prefix, 10).stream().map(TypeaheadIndex.Suggestion::getText).toList();
+    }
+
+    private Event newEvent(String name, int daysAhead, String location) {
+        Event event = TestEvents.newEvent(name);
+        event.setDate(LocalDate.now().plusDays(daysAhead));
+        event.setLocation(location);
+        return event;
+    }
+}
@@ -59,6 +59,18 @@ const api = {
   searchEvents: (query) =>
     apiCall(`${API_BASE}/events/search?query=${query}`),
 
+  suggestEvents: (prefix) =>
+    apiCall(`${API_BASE}/events/suggest?prefix=${encodeURIComponent(prefix)}`),
+
+  queryEvents: (params = {}) =>
+    apiCall(`${API_BASE}/events/query?${new URLSearchParams(params)}`),
+
+  getEventsByTags: (tags, match = 'any') =>
+    apiCall(`${API_BASE}/events/tags?tags=${tags.map(encodeURIComponent).join(',')}&match=${match}`),
+
+  getTagFacets: (tags = [], match = 'all') =>
+    apiCall(`${API_BASE}/events/tags/facets?tags=${tags.map(encodeURIComponent).join(',')}&match=${match}`),
+
   getRecommendations: (eventId) =>
     apiCall(`${API_BASE}/events/${eventId}/recommendations`),
 
@@ -106,6 +118,9 @@ const api = {
   getAllBookings: () =>
     apiCall(`${API_BASE}/bookings`),
 
+  getBookingsPage: (params = {}) =>
+    apiCall(`${API_BASE}/bookings?${new URLSearchParams(params)}`),
+
   // Review APIs
   createReview: (reviewData) =>
     apiCall(`${API_BASE}/reviews`, {
@@ -125,6 +140,12 @@ const api = {
   getAllReviews: () =>
     apiCall(`${API_BASE}/reviews`),
 
+  getReviewsPage: (params = {}) =>
+    apiCall(`${API_BASE}/reviews?${new URLSearchParams(params)}`),
+
+  getUsersPage: (params = {}) =>
+    apiCall(`${API_BASE}/users?${new URLSearchParams(params)}`),
+
   // Admin APIs
   getDashboard: () =>
     apiCall(`${API_BASE}/admin/dashboard`),